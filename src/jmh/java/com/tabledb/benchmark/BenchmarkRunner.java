@@ -0,0 +1,44 @@
+package com.tabledb.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks once per thread count and writes each run's results as JSON, to
+ * {@code results-<threads>-threads.json} in the result directory, for comparing runs. Started by
+ * {@code gradle jmh}.
+ * <p>
+ * Arguments: a regular expression selecting the benchmarks, a comma-separated list of thread
+ * counts, a comma-separated list of table sizes overriding the {@code rows} parameter (empty to
+ * keep each benchmark's own), and the result directory.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        if (args.length != 4) {
+            throw new IllegalArgumentException("Usage: BenchmarkRunner <include> <threads,...> <rows,...> <resultDir>");
+        }
+        int[] threadCounts = Arrays.stream(args[1].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        File resultDir = new File(args[3]);
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + resultDir);
+        }
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(BenchmarkRunner.class.getPackageName() + ".*" + args[0])
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "results-" + threads + "-threads.json").getPath());
+            if (!args[2].isBlank()) options.param("rows", args[2].split(","));
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tabledb.benchmark;
+
+import com.tabledb.command.CommandParser;
+import com.tabledb.condition.Condition;
+import com.tabledb.model.Row;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates AND and OR conditions over {@code rows} rows, both one materialized row at a time
+ * and bound to the table's storage as a scan does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionBenchmark {
+    @Param({"1000", "100000"})
+    public int rows;
+
+    private Table table;
+    private Row[] materialized;
+    private Condition and;
+    private Condition or;
+
+    @Setup(Level.Trial)
+    public void createTable() {
+        table = Fixtures.employees(rows, StorageMode.ROW);
+        materialized = table.select(List.of(), null).toArray(new Row[0]);
+        and = CommandParser.parseCondition("dept = \"IT\" AND age > 30 AND age <= 50");
+        or = CommandParser.parseCondition("dept = \"HR\" OR dept = \"Ops\" OR age < 25");
+    }
+
+    @Benchmark
+    public int evaluateAnd() {
+        return count(and);
+    }
+
+    @Benchmark
+    public int evaluateOr() {
+        return count(or);
+    }
+
+    @Benchmark
+    public List<Row> selectAnd() {
+        return table.select(List.of("id"), and);
+    }
+
+    @Benchmark
+    public List<Row> selectOr() {
+        return table.select(List.of("id"), or);
+    }
+
+    private int count(Condition condition) {
+        int matches = 0;
+        for (Row row : materialized) {
+            if (condition.evaluate(row)) matches++;
+        }
+        return matches;
+    }
+}
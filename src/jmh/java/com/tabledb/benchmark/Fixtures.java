@@ -0,0 +1,50 @@
+package com.tabledb.benchmark;
+
+import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The employees table the benchmarks run against, filled with deterministic rows so every run
+ * measures the same data.
+ */
+final class Fixtures {
+    static final List<Column> COLUMNS = List.of(
+            new Column("id", DataType.INT),
+            new Column("name", DataType.STRING),
+            new Column("dept", DataType.STRING),
+            new Column("age", DataType.INT));
+    static final String[] DEPARTMENTS = {"HR", "IT", "Sales", "Ops", "Legal", "Finance", "Support", "R&D"};
+    static final String CREATE_TABLE = "CREATE_TABLE employees (id INT, name STRING, dept STRING, age INT)";
+
+    private static final int BATCH_ROWS = 10_000;
+
+    private Fixtures() {
+    }
+
+    static List<Object> row(int id) {
+        return List.of(id, "name" + id, DEPARTMENTS[id % DEPARTMENTS.length], 20 + id % 45);
+    }
+
+    static Table employees(int rows, StorageMode storageMode) {
+        Table table = new Table("employees", COLUMNS, storageMode);
+        fill(table, rows);
+        return table;
+    }
+
+    static void fill(Table table, int rows) {
+        List<List<Object>> batch = new ArrayList<>(BATCH_ROWS);
+        for (int id = 0; id < rows; id++) {
+            batch.add(row(id));
+            if (batch.size() == BATCH_ROWS) {
+                table.insertRows(batch);
+                batch.clear();
+            }
+        }
+        table.insertRows(batch);
+    }
+}
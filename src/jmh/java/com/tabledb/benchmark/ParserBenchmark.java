@@ -0,0 +1,76 @@
+package com.tabledb.benchmark;
+
+import com.tabledb.command.CommandParser;
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.command.Statement;
+import com.tabledb.command.StatementParser;
+import com.tabledb.condition.Condition;
+import com.tabledb.core.Database;
+import com.tabledb.core.DatabaseConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one kind of command from scratch, and plans it through a warm plan cache the way
+ * {@link CommandProcessor} does for every command it receives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final Map<String, String> COMMANDS = Map.of(
+            "select", "SELECT name, dept FROM employees WHERE dept = \"HR\" AND age > 30 AND age <= 50",
+            "insert", "INSERT INTO employees VALUES (1234, \"John Doe\", \"Engineering\", 41)",
+            "update", "UPDATE employees SET name = \"Jane\", dept = \"IT\" WHERE id = 7",
+            "aggregate", "SELECT dept, COUNT(*), AVG(age) FROM employees GROUP BY dept ORDER BY dept LIMIT 5");
+
+    @Param({"select", "insert", "update", "aggregate"})
+    public String command;
+
+    private String text;
+    private Database database;
+    private CommandProcessor processor;
+
+    @Setup
+    public void createProcessor() {
+        text = COMMANDS.get(command);
+        database = new Database(DatabaseConfig.defaults());
+        processor = new CommandProcessor(database);
+    }
+
+    @TearDown
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public Statement parse() {
+        return StatementParser.parse(text);
+    }
+
+    @Benchmark
+    public Statement planCached() {
+        return processor.plan(text);
+    }
+
+    @Benchmark
+    public Condition parseCondition() {
+        return CommandParser.parseCondition("dept = \"HR\" AND age > 30 OR name = \"Jane\"");
+    }
+}
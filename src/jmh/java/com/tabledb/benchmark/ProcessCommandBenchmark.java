@@ -0,0 +1,102 @@
+package com.tabledb.benchmark;
+
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.core.Database;
+import com.tabledb.core.DatabaseConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs commands end to end through {@link CommandProcessor#processCommand(String)}: planning,
+ * execution and formatting the output. Every benchmark thread is a session of its own on one
+ * shared database of {@code rows} rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessCommandBenchmark {
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"1000", "100000", "1000000"})
+        public int rows;
+
+        @Param({"false", "true"})
+        public boolean indexed;
+
+        Database database;
+
+        @Setup(Level.Trial)
+        public void createDatabase() {
+            database = new Database(DatabaseConfig.defaults());
+            CommandProcessor processor = new CommandProcessor(database);
+            processor.processCommand(Fixtures.CREATE_TABLE);
+            if (indexed) processor.processCommand("CREATE_INDEX employees (id)");
+            List<List<Object>> batch = new ArrayList<>();
+            for (int id = 0; id < rows; id++) {
+                batch.add(Fixtures.row(id));
+            }
+            database.insertRows("employees", batch);
+        }
+
+        // Keeps the insert target from growing without bound over a run
+        @Setup(Level.Iteration)
+        public void recreateInsertTarget() {
+            if (database.hasTable("inserts")) database.dropTable("inserts");
+            database.createTable("inserts", Fixtures.COLUMNS);
+        }
+
+        @TearDown(Level.Trial)
+        public void closeDatabase() {
+            database.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        CommandProcessor processor;
+        String selectById;
+
+        @Setup(Level.Trial)
+        public void openSession(Shared shared) {
+            processor = new CommandProcessor(shared.database);
+            selectById = "SELECT * FROM employees WHERE id = " + shared.rows / 2;
+        }
+    }
+
+    @Benchmark
+    public String selectById(Session session) {
+        return session.processor.processCommand(session.selectById);
+    }
+
+    @Benchmark
+    public String selectTopN(Session session) {
+        return session.processor.processCommand("SELECT id, name FROM employees WHERE dept = \"IT\" ORDER BY age DESC LIMIT 10");
+    }
+
+    @Benchmark
+    public String aggregate(Session session) {
+        return session.processor.processCommand("SELECT dept, COUNT(*), AVG(age) FROM employees GROUP BY dept");
+    }
+
+    @Benchmark
+    public String insert(Session session) {
+        return session.processor.processCommand("INSERT INTO inserts VALUES (1, \"John\", \"HR\", 30)");
+    }
+}
@@ -0,0 +1,54 @@
+package com.tabledb.benchmark;
+
+import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.Row;
+import com.tabledb.model.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a row of {@code columns} alternating INT and STRING values, as every SELECT result does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowBenchmark {
+    @Param({"4", "16"})
+    public int columns;
+
+    private Row row;
+
+    @Setup
+    public void createRow() {
+        List<Column> schema = new ArrayList<>(columns);
+        Object[] values = new Object[columns];
+        for (int i = 0; i < columns; i++) {
+            boolean isInt = i % 2 == 0;
+            schema.add(new Column("c" + i, isInt ? DataType.INT : DataType.STRING));
+            values[i] = isInt ? (Object) (i * 1000) : "value" + i;
+        }
+        row = new Row(new Schema(schema), values);
+    }
+
+    @Benchmark
+    public String rowToString() {
+        return row.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.tabledb.benchmark;
+
+import com.tabledb.condition.Condition;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.model.Row;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts into and scans a table of {@code rows} rows. Inserts go to a table refilled before every
+ * iteration, so it does not grow without bound over a run.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"ROW", "COLUMNAR"})
+    public StorageMode storageMode;
+
+    private Table scanned;
+    private Table inserted;
+    private Condition byId;
+    private Condition byDept;
+    private List<Object> newRow;
+
+    @Setup(Level.Trial)
+    public void createTables() {
+        scanned = Fixtures.employees(rows, storageMode);
+        byId = new SimpleCondition("id", rows / 2);
+        byDept = new SimpleCondition("dept", "IT");
+        newRow = Fixtures.row(rows);
+    }
+
+    @Setup(Level.Iteration)
+    public void refillInsertTarget() {
+        inserted = Fixtures.employees(rows, storageMode);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean insertRow() {
+        return inserted.insertRow(newRow);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Row> selectAll() {
+        return scanned.select(List.of(), null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Row> selectById() {
+        return scanned.select(List.of(), byId);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Row> selectByDept() {
+        return scanned.select(List.of("id", "name"), byDept);
+    }
+}
@@ -1,276 +1,472 @@
 package com.tabledb.command;
 
-import com.tabledb.condition.SimpleCondition;
 import com.tabledb.core.Database;
-import com.tabledb.model.Column;
-import com.tabledb.model.DataType;
-import com.tabledb.model.Row;
-
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import com.tabledb.exception.InvalidCommandException;
+import com.tabledb.index.ValueComparator;
+import com.tabledb.metrics.CommandStats;
+import com.tabledb.model.HashJoin;
+import com.tabledb.model.RowCursor;
+import com.tabledb.model.SortKey;
+import com.tabledb.planner.ColumnSummary;
+import com.tabledb.planner.Plan;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class CommandProcessor {
+    // Kind of a statement in the command statistics, such as CREATE_TABLE for Statement.CreateTable
+    private static final ClassValue<String> KINDS = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getSimpleName().replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+        }
+    };
+
     private final Database database;
+    private final PlanCache planCache;
+    private final ResultCache resultCache;
+    private final boolean networkSession;
+    private final CommandStats stats;
+    private final Map<String, PreparedStatement> prepared = new HashMap<>();
     private boolean running;
+    // Whether the statement being executed was rejected with INVALID_COMMAND
+    private boolean failed;
 
     public CommandProcessor() {
-        this.database = new Database();
-        this.running = true;
+        this(new Database());
     }
 
-    public String processCommand(String command) {
-        try {
-            if (command.equals("EXIT") || command.equals("STOP")) {
-                running = false;
-                return "Goodbye!";
-            }
+    public CommandProcessor(Database database) {
+        this(database, new PlanCache(database.getConfig().getPlanCacheSize()));
+    }
 
-            if (command.startsWith("CREATE_TABLE")) {
-                return handleCreateTable(command);
-            } else if (command.startsWith("INSERT INTO")) {
-                return handleInsert(command);
-            } else if (command.startsWith("SELECT")) {
-                return handleSelect(command);
-            } else if (command.startsWith("DELETE FROM")) {
-                return handleDelete(command);
-            } else if (command.startsWith("UPDATE")) {
-                return handleUpdate(command);
-            } else if (command.equals("SHOW TABLES")) {
-                return handleShowTables();
-            } else if (command.equals("PURGE_AND_STOP")) {
-                database.clear();
-                running = false;
-                return "PURGED, Goodbye!";
-            }
-            return "INVALID_COMMAND";
-        } catch (Exception e) {
-            return "INVALID_COMMAND";
-        }
+    public CommandProcessor(Database database, PlanCache planCache) {
+        this(database, planCache, new ResultCache(database.getConfig().getResultCacheSize(),
+                database.getConfig().getResultCacheBytes()));
     }
 
-    private String handleCreateTable(String command) {
-        Pattern pattern = Pattern.compile("CREATE_TABLE\\s+(\\w+)\\s*\\((.+)\\)");
-        Matcher matcher = pattern.matcher(command);
+    /**
+     * Creates a processor for one session. Prepared statements belong to the session, while the
+     * plan and result caches may be shared with other processors on the same database.
+     */
+    public CommandProcessor(Database database, PlanCache planCache, ResultCache resultCache) {
+        this(database, planCache, resultCache, false);
+    }
 
-        if (!matcher.matches()) {
-            return "INVALID_COMMAND";
+    /**
+     * @param networkSession whether the commands come from a network client, which may not purge
+     *                       the database other sessions share
+     */
+    public CommandProcessor(Database database, PlanCache planCache, ResultCache resultCache, boolean networkSession) {
+        this.database = database;
+        this.planCache = planCache;
+        this.resultCache = resultCache;
+        this.networkSession = networkSession;
+        this.stats = database.getCommandStats();
+        this.running = true;
+    }
+
+    public String processCommand(String command) {
+        StringWriter out = new StringWriter();
+        try {
+            processCommand(command, out);
+        } catch (IOException e) {
+            // A StringWriter never fails
+            throw new AssertionError(e);
         }
+        return out.toString();
+    }
 
+    /**
+     * Executes {@code command} and writes its result to {@code out}, without a trailing newline.
+     * SELECT results are streamed row by row rather than collected into one string first.
+     */
+    public void processCommand(String command, Writer out) throws IOException {
+        Statement statement;
         try {
-            String tableName = matcher.group(1);
-            String[] columnDefs = matcher.group(2).split(",\\s*");
-
-            List<Column> columns = Arrays.stream(columnDefs)
-                    .map(String::trim)
-                    .map(def -> {
-                        String[] parts = def.split("\\s+");
-                        if (parts.length != 2) throw new IllegalArgumentException();
-                        return new Column(parts[0], DataType.valueOf(parts[1].toUpperCase()));
-                    })
-                    .collect(Collectors.toList());
-
-            return database.createTable(tableName, columns) ? "SUCCESS" : "TABLE_EXISTS";
+            statement = plan(command);
         } catch (Exception e) {
-            return "INVALID_COMMAND";
+            out.write("INVALID_COMMAND");
+            return;
         }
+        execute(statement, out);
     }
 
-    private String handleInsert(String command) {
-        Pattern pattern = Pattern.compile("INSERT INTO (\\w+) VALUES \\((.+)\\)");
-        Matcher matcher = pattern.matcher(command);
-
-        if (!matcher.matches()) {
-            return "INVALID_COMMAND";
+    /**
+     * Returns the parsed form of {@code command}, from the plan cache when it was seen before.
+     * Safe to call from another thread than the one executing, so parsing can run ahead.
+     *
+     * @throws InvalidCommandException if the command is not valid
+     */
+    public Statement plan(String command) {
+        long start = System.nanoTime();
+        boolean parsed = false;
+        try {
+            String key = StatementParser.normalize(command);
+            Statement statement = planCache.get(key);
+            if (statement == null) {
+                statement = StatementParser.parse(key);
+                planCache.put(key, statement);
+            }
+            parsed = true;
+            return statement;
+        } finally {
+            stats.record("PARSE", System.nanoTime() - start, !parsed);
         }
+    }
 
+    /**
+     * Executes a plan returned by {@link #plan(String)} and writes its result to {@code out},
+     * exactly as {@link #processCommand(String, Writer)} would for the command. Its latency is
+     * recorded in the database's {@link CommandStats} under the kind of statement run, with an
+     * EXECUTE counted as the statement it binds.
+     */
+    public void execute(Statement statement, Writer out) throws IOException {
+        long start = System.nanoTime();
+        failed = false;
         try {
-            String tableName = matcher.group(1);
-            String valuesStr = matcher.group(2);
-
-            // First check if table exists
-            if (!database.getTableNames().contains(tableName)) {
-                return "TABLE_NOT_FOUND";
+            if (statement instanceof Statement.Execute execute) {
+                PreparedStatement template = prepared.get(execute.name());
+                if (template == null) {
+                    out.write("STATEMENT_NOT_FOUND");
+                    return;
+                }
+                try {
+                    statement = template.bind(execute.arguments());
+                } catch (Exception e) {
+                    invalidCommand(out);
+                    return;
+                }
             }
-
-            // Validate values before parsing
-            if (!isValidValueFormat(valuesStr)) {
-                return "INVALID_COMMAND";
+            if (statement instanceof Statement.Select || statement instanceof Statement.Join) {
+                handleQuery(statement, out);
+            } else {
+                String result;
+                try {
+                    result = executeUpdate(statement);
+                } catch (Exception e) {
+                    result = "INVALID_COMMAND";
+                }
+                failed = result.equals("INVALID_COMMAND");
+                out.write(result);
             }
-
-            List<Object> values = parseValues(valuesStr);
-            return database.insertIntoTable(tableName, values) ? "SUCCESS" : "INVALID_COMMAND";
-        } catch (IllegalArgumentException e) {
-            return "INVALID_COMMAND";
+        } finally {
+            stats.record(kind(statement), System.nanoTime() - start, failed);
         }
     }
 
-    private boolean isValidValueFormat(String valuesStr) {
-        // Check for balanced quotes and proper value format
-        boolean inQuotes = false;
-        int commaCount = 0;
+    private static String kind(Statement statement) {
+        return statement instanceof Statement.Select select && select.isAggregate() ? "AGGREGATE" : KINDS.get(statement.getClass());
+    }
 
-        for (char c : valuesStr.toCharArray()) {
-            if (c == '"') inQuotes = !inQuotes;
-            if (c == ',' && !inQuotes) commaCount++;
-        }
+    private void invalidCommand(Writer out) throws IOException {
+        failed = true;
+        out.write("INVALID_COMMAND");
+    }
 
-        return !inQuotes; // Make sure all quotes are properly closed
+    private String executeUpdate(Statement statement) throws IOException {
+        if (statement instanceof Statement.CreateTable create) {
+            return database.createTable(create.table(), create.columns(), create.storageMode(), create.partitioning()) ?
+                    "SUCCESS" :
+                    "TABLE_EXISTS";
+        } else if (statement instanceof Statement.DropTable drop) {
+            return database.dropTable(drop.table()) ? "SUCCESS" : "TABLE_NOT_FOUND";
+        } else if (statement instanceof Statement.CreateIndex index) {
+            if (!database.hasTable(index.table())) {
+                return "TABLE_NOT_FOUND";
+            }
+            return database.createIndex(index.table(), index.column(), index.indexType()) ? "SUCCESS" : "INDEX_EXISTS";
+        } else if (statement instanceof Statement.Insert insert) {
+            if (!database.hasTable(insert.table())) {
+                return "TABLE_NOT_FOUND";
+            }
+            if (insert.rows().size() == 1) {
+                return database.insertIntoTable(insert.table(), insert.rows().get(0)) ? "SUCCESS" : "INVALID_COMMAND";
+            }
+            return database.insertRows(insert.table(), insert.rows()) ? "INSERTED " + insert.rows().size() : "INVALID_COMMAND";
+        } else if (statement instanceof Statement.Load load) {
+            return handleLoad(load);
+        } else if (statement instanceof Statement.Delete delete) {
+            if (!database.hasTable(delete.table())) {
+                return "TABLE_NOT_FOUND";
+            }
+            int deleted = database.delete(delete.table(), delete.condition());
+            return deleted > 0 ? "DELETED " + deleted : "NO_ROWS_DELETED";
+        } else if (statement instanceof Statement.Update update) {
+            if (!database.hasTable(update.table())) {
+                return "TABLE_NOT_FOUND";
+            }
+            int updated = database.update(update.table(), update.updates(), update.condition());
+            return updated > 0 ? "UPDATED " + updated : "NO_ROWS_UPDATED";
+        } else if (statement instanceof Statement.ShowTables) {
+            Set<String> tableNames = database.getTableNames();
+            return tableNames.isEmpty() ? "NO_TABLES_AVAILABLE" : String.join("\n", tableNames);
+        } else if (statement instanceof Statement.Explain explain) {
+            return explain(explain.query());
+        } else if (statement instanceof Statement.ShowStats) {
+            List<String> lines = new ArrayList<>();
+            database.getStatistics().forEach((name, value) -> lines.add(name + ", " + value));
+            return lines.isEmpty() ? "NO_STATS_AVAILABLE" : String.join("\n", lines);
+        } else if (statement instanceof Statement.Prepare prepare) {
+            prepared.put(prepare.name(), prepare.statement());
+            return "SUCCESS";
+        } else if (statement instanceof Statement.Exit) {
+            running = false;
+            return "Goodbye!";
+        } else if (statement instanceof Statement.PurgeAndStop) {
+            if (networkSession) return "PERMISSION_DENIED";
+            database.clear();
+            running = false;
+            return "PURGED, Goodbye!";
+        }
+        return "INVALID_COMMAND";
     }
 
-    private List<Object> parseValues(String valuesStr) {
-        List<Object> values = new ArrayList<>();
-        StringBuilder currentValue = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (char c : valuesStr.toCharArray()) {
-            if (c == '"') {
-                inQuotes = !inQuotes;
-                currentValue.append(c);
-            } else if (c == ',' && !inQuotes) {
-                values.add(parseValue(currentValue.toString().trim()));
-                currentValue = new StringBuilder();
+    /**
+     * Describes how a query is run, one step per line, then runs it to compare the estimated number
+     * of result rows with the actual one.
+     */
+    private String explain(Statement query) {
+        List<String> steps = new ArrayList<>();
+        long estimated;
+        long actual;
+        if (query instanceof Statement.Join join) {
+            if (!database.hasTable(join.left()) || !database.hasTable(join.right())) {
+                return "TABLE_NOT_FOUND";
+            }
+            HashJoin hashJoin = database.hashJoin(join.left(), join.right(), join.leftKey(), join.rightKey(),
+                    join.columns(), join.condition());
+            steps.addAll(hashJoin.explain());
+            estimated = hashJoin.estimateRows();
+            actual = count(hashJoin.open());
+        } else {
+            Statement.Select select = (Statement.Select) query;
+            if (!database.hasTable(select.table())) {
+                return "TABLE_NOT_FOUND";
+            }
+            Plan plan = database.plan(select.table(), select.condition());
+            steps.add(plan.lookup() == null ?
+                    "SCAN " + select.table() + " rows=" + plan.statistics().getRowCount() :
+                    "INDEX LOOKUP " + select.table() + " " + plan.lookup() + " estimated=" + plan.lookupRows());
+            if (plan.filter() != null) steps.add("FILTER " + plan.filter() + " estimated=" + plan.estimatedRows());
+            if (select.isAggregate()) {
+                estimated = estimateGroups(select, plan);
+                steps.add("AGGREGATE" + (select.groupBy().isEmpty() ? "" : " BY " + String.join(", ", select.groupBy()))
+                        + " estimated=" + estimated);
+                long groups = database.aggregate(select.table(), select.groupBy(), select.aggregates(), select.condition()).size();
+                actual = window(groups, select.offset(), select.limit());
             } else {
-                currentValue.append(c);
+                estimated = plan.estimatedRows();
+                actual = count(database.cursor(select.table(), select.columns(), select.condition(),
+                        select.orderBy(), select.offset(), select.limit()));
             }
+            if (!select.orderBy().isEmpty()) {
+                steps.add("SORT BY " + String.join(", ", select.orderBy().stream().map(SortKey::toString).toList()));
+            }
+            if (select.limit() >= 0 || select.offset() > 0) {
+                steps.add((select.limit() >= 0 ? "LIMIT " + select.limit() + " " : "") + "OFFSET " + select.offset());
+            }
+            estimated = window(estimated, select.offset(), select.limit());
         }
+        steps.add("ROWS estimated=" + estimated + " actual=" + actual);
+        return String.join("\n", steps);
+    }
 
-        if (currentValue.length() > 0) {
-            values.add(parseValue(currentValue.toString().trim()));
+    // At most one group per combination of distinct values of the grouping columns, and per match
+    private static long estimateGroups(Statement.Select select, Plan plan) {
+        if (select.groupBy().isEmpty()) return 1;
+        double combinations = 1;
+        for (String column : select.groupBy()) {
+            ColumnSummary summary = plan.statistics().column(column);
+            combinations *= summary != null ? Math.max(summary.distinct(), 1) : 1;
         }
+        return (long) Math.min(combinations, plan.estimatedRows());
+    }
 
-        return values;
+    private static long window(long rows, int offset, int limit) {
+        long remaining = Math.max(rows - offset, 0);
+        return limit < 0 ? remaining : Math.min(remaining, limit);
     }
 
-    private Object parseValue(String value) {
-        value = value.trim();
-        if (value.startsWith("\"") && value.endsWith("\"")) {
-            return value.substring(1, value.length() - 1);
+    private static long count(RowCursor cursor) {
+        long rows = 0;
+        try (cursor) {
+            while (cursor.hasNext()) {
+                cursor.next();
+                rows++;
+            }
         }
+        return rows;
+    }
+
+    private String handleLoad(Statement.Load load) throws IOException {
+        if (!database.hasTable(load.table())) {
+            return "TABLE_NOT_FOUND";
+        }
+        long start = System.nanoTime();
+        long rows;
         try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Invalid value format: " + value);
+            rows = database.load(load.table(), Path.of(load.file()), load.header());
+        } catch (NoSuchFileException e) {
+            return "FILE_NOT_FOUND";
         }
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        return String.format("LOADED %d ROWS (%.0f rows/s)", rows, rows / seconds);
     }
 
-    private String handleSelect(String command) {
-        Pattern pattern = Pattern.compile("SELECT (.+) FROM (\\w+)(?: WHERE (.+))?");
-        Matcher matcher = pattern.matcher(command);
+    /**
+     * Writes the result of a SELECT, from the result cache if none of the tables it reads has
+     * changed since it was cached.
+     */
+    private void handleQuery(Statement query, Writer out) throws IOException {
+        if (!resultCache.isEnabled()) {
+            runQuery(query, out);
+            return;
+        }
+        // Read before running, so the versions are never newer than the rows the output comes from
+        long[] versions = query instanceof Statement.Join join ?
+                new long[]{database.getTableVersion(join.left()), database.getTableVersion(join.right())} :
+                new long[]{database.getTableVersion(((Statement.Select) query).table())};
+        String cached = resultCache.get(query, versions);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        ResultCache.Recorder recorder = resultCache.record(out);
+        runQuery(query, recorder);
+        String output = recorder.output();
+        if (output != null) resultCache.put(query, versions, output);
+    }
 
-        if (!matcher.matches()) {
-            return "INVALID_COMMAND";
+    private void runQuery(Statement query, Writer out) throws IOException {
+        if (query instanceof Statement.Join join) {
+            handleJoin(join, out);
+        } else {
+            handleSelect((Statement.Select) query, out);
         }
+    }
 
+    private void handleSelect(Statement.Select select, Writer out) throws IOException {
+        if (select.isAggregate()) {
+            handleAggregate(select, out);
+            return;
+        }
+        RowCursor cursor;
         try {
-            String columns = matcher.group(1);
-            String tableName = matcher.group(2);
-            String whereClause = matcher.group(3);
-
-            // First check if table exists
-            if (!database.getTableNames().contains(tableName)) {
-                return "TABLE_NOT_FOUND";
+            if (!database.hasTable(select.table())) {
+                out.write("TABLE_NOT_FOUND");
+                return;
             }
-
-            List<String> columnList = columns.equals("*") ?
-                    Collections.emptyList() :
-                    Arrays.asList(columns.split(",\\s*"));
-
-            SimpleCondition condition = null;
-            if (whereClause != null) {
-                String[] parts = whereClause.split("\\s*=\\s*");
-                if (parts.length != 2) return "INVALID_COMMAND";
-                condition = new SimpleCondition(parts[0], parseValue(parts[1]));
-            }
-
-            List<Row> results = database.select(tableName, columnList, condition);
-            if (results.isEmpty()) {
-                return "NO_ROWS_FOUND";
-            }
-
-            return results.stream()
-                    .map(Row::toString)
-                    .collect(Collectors.joining("\n"));
+            cursor = database.cursor(select.table(), select.columns(), select.condition(),
+                    select.orderBy(), select.offset(), select.limit());
         } catch (Exception e) {
-            return "INVALID_COMMAND";
+            invalidCommand(out);
+            return;
         }
+        writeRows(cursor, out);
     }
 
-    private String handleDelete(String command) {
-        Pattern pattern = Pattern.compile("DELETE FROM (\\w+) WHERE (.+)");
-        Matcher matcher = pattern.matcher(command);
-
-        if (!matcher.matches()) {
-            return "INVALID_COMMAND";
-        }
-
+    private void handleJoin(Statement.Join join, Writer out) throws IOException {
+        RowCursor cursor;
         try {
-            String tableName = matcher.group(1);
-
-            // First check if table exists
-            if (!database.getTableNames().contains(tableName)) {
-                return "TABLE_NOT_FOUND";
+            if (!database.hasTable(join.left()) || !database.hasTable(join.right())) {
+                out.write("TABLE_NOT_FOUND");
+                return;
             }
-
-            String whereClause = matcher.group(2);
-            String[] parts = whereClause.split("\\s*=\\s*");
-            if (parts.length != 2) return "INVALID_COMMAND";
-
-            SimpleCondition condition = new SimpleCondition(parts[0], parseValue(parts[1]));
-            int deleted = database.delete(tableName, condition);
-
-            return deleted > 0 ? "DELETED " + deleted : "NO_ROWS_DELETED";
+            cursor = database.join(join.left(), join.right(), join.leftKey(), join.rightKey(), join.columns(), join.condition());
         } catch (Exception e) {
-            return "INVALID_COMMAND";
+            invalidCommand(out);
+            return;
         }
+        writeRows(cursor, out);
     }
 
-    private String handleUpdate(String command) {
-        Pattern pattern = Pattern.compile("UPDATE (\\w+) SET (.+) WHERE (.+)");
-        Matcher matcher = pattern.matcher(command);
-
-        if (!matcher.matches()) {
-            return "INVALID_COMMAND";
+    private static void writeRows(RowCursor cursor, Writer out) throws IOException {
+        try (cursor) {
+            if (!cursor.hasNext()) {
+                out.write("NO_ROWS_FOUND");
+                return;
+            }
+            out.write(cursor.next().toString());
+            while (cursor.hasNext()) {
+                out.write('\n');
+                out.write(cursor.next().toString());
+            }
         }
+    }
 
+    private void handleAggregate(Statement.Select select, Writer out) throws IOException {
+        List<Object[]> groups;
+        int[] output;
         try {
-            String tableName = matcher.group(1);
-
-            // First check if table exists
-            if (!database.getTableNames().contains(tableName)) {
-                return "TABLE_NOT_FOUND";
+            if (!database.hasTable(select.table())) {
+                out.write("TABLE_NOT_FOUND");
+                return;
+            }
+            groups = database.aggregate(select.table(), select.groupBy(), select.aggregates(), select.condition());
+            output = new int[select.columns().size()];
+            for (int i = 0; i < output.length; i++) {
+                output[i] = resultOrdinal(select, select.columns().get(i));
             }
-
-            String setClause = matcher.group(2);
-            String whereClause = matcher.group(3);
-
-            Map<String, Object> updates = Arrays.stream(setClause.split(",\\s*"))
-                    .map(set -> set.split("\\s*=\\s*"))
-                    .collect(Collectors.toMap(
-                            parts -> parts[0],
-                            parts -> parseValue(parts[1])
-                    ));
-
-            String[] whereParts = whereClause.split("\\s*=\\s*");
-            if (whereParts.length != 2) return "INVALID_COMMAND";
-
-            SimpleCondition condition = new SimpleCondition(whereParts[0], parseValue(whereParts[1]));
-            int updated = database.update(tableName, updates, condition);
-
-            return updated > 0 ? "UPDATED " + updated : "NO_ROWS_UPDATED";
         } catch (Exception e) {
-            return "INVALID_COMMAND";
+            invalidCommand(out);
+            return;
+        }
+        // There is one row per group, so sorting them all costs little next to the scan
+        if (!select.orderBy().isEmpty()) groups.sort(groupOrder(select));
+        int from = Math.min(select.offset(), groups.size());
+        int to = select.limit() < 0 ? groups.size() : (int) Math.min(groups.size(), (long) from + select.limit());
+        groups = groups.subList(from, to);
+
+        if (groups.isEmpty()) {
+            out.write("NO_ROWS_FOUND");
+            return;
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            if (g > 0) out.write('\n');
+            Object[] group = groups.get(g);
+            for (int i = 0; i < output.length; i++) {
+                if (i > 0) out.write(", ");
+                out.write(String.valueOf(group[output[i]]));
+            }
         }
     }
 
-    private String handleShowTables() {
-        Set<String> tableNames = database.getTableNames();
-        return tableNames.isEmpty() ? "NO_TABLES_AVAILABLE" :
-                String.join("\n", tableNames);
+    // Where a group column or aggregate is found in an aggregated row: group-by values come first
+    private static int resultOrdinal(Statement.Select select, String item) {
+        int ordinal = select.groupBy().indexOf(item);
+        for (int a = 0; ordinal < 0 && a < select.aggregates().size(); a++) {
+            if (select.aggregates().get(a).toString().equals(item)) ordinal = select.groupBy().size() + a;
+        }
+        return ordinal;
+    }
+
+    private static Comparator<Object[]> groupOrder(Statement.Select select) {
+        Comparator<Object[]> order = null;
+        for (SortKey key : select.orderBy()) {
+            int ordinal = resultOrdinal(select, key.column());
+            Comparator<Object[]> byKey = Comparator.comparing(group -> group[ordinal], Comparator.nullsFirst(ValueComparator.INSTANCE));
+            if (key.descending()) byKey = byKey.reversed();
+            order = order == null ? byKey : order.thenComparing(byKey);
+        }
+        return order;
     }
 
     public boolean isRunning() {
         return running;
     }
-}
\ No newline at end of file
+
+    public void close() {
+        database.close();
+    }
+}
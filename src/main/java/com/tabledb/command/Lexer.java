@@ -0,0 +1,133 @@
+package com.tabledb.command;
+
+import com.tabledb.exception.InvalidCommandException;
+
+/**
+ * Splits command text into tokens on demand. Only the current token is kept, as offsets into the
+ * input, so scanning allocates nothing until the parser asks for a token's text or value.
+ */
+final class Lexer {
+    enum Token {
+        WORD, INTEGER, STRING, PARAMETER,
+        LEFT_PAREN, RIGHT_PAREN, COMMA, DOT, STAR,
+        EQUALS, LESS, LESS_EQUALS, GREATER, GREATER_EQUALS,
+        END
+    }
+
+    private final String input;
+    private int position;
+    private Token token;
+    private int start;
+    private int end;
+
+    Lexer(String input) {
+        this.input = input;
+        advance();
+    }
+
+    Token token() {
+        return token;
+    }
+
+    /**
+     * Moves to the next token, skipping whitespace.
+     */
+    void advance() {
+        int length = input.length();
+        while (position < length && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        start = position;
+        if (position == length) {
+            token = Token.END;
+            end = position;
+            return;
+        }
+
+        char c = input.charAt(position);
+        if (isWordStart(c)) {
+            do {
+                position++;
+            } while (position < length && isWordPart(input.charAt(position)));
+            token = Token.WORD;
+        } else if (isDigit(c) || (c == '-' && position + 1 < length && isDigit(input.charAt(position + 1)))) {
+            do {
+                position++;
+            } while (position < length && isDigit(input.charAt(position)));
+            token = Token.INTEGER;
+        } else if (c == '"' || c == '\'') {
+            int close = input.indexOf(c, position + 1);
+            if (close < 0) throw error("Unterminated string");
+            position = close + 1;
+            token = Token.STRING;
+        } else {
+            position++;
+            token = switch (c) {
+                case '?' -> Token.PARAMETER;
+                case '(' -> Token.LEFT_PAREN;
+                case ')' -> Token.RIGHT_PAREN;
+                case ',' -> Token.COMMA;
+                case '.' -> Token.DOT;
+                case '*' -> Token.STAR;
+                case '=' -> Token.EQUALS;
+                case '<' -> followedBy('=') ? Token.LESS_EQUALS : Token.LESS;
+                case '>' -> followedBy('=') ? Token.GREATER_EQUALS : Token.GREATER;
+                default -> throw error("Unexpected character '" + c + "'");
+            };
+        }
+        end = position;
+    }
+
+    private boolean followedBy(char c) {
+        if (position < input.length() && input.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the current token is the given keyword, ignoring case.
+     */
+    boolean isKeyword(String keyword) {
+        return token == Token.WORD && end - start == keyword.length()
+                && input.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+
+    String text() {
+        return input.substring(start, end);
+    }
+
+    String stringValue() {
+        return input.substring(start + 1, end - 1);
+    }
+
+    int intValue() {
+        boolean negative = input.charAt(start) == '-';
+        // Accumulate negatively so Integer.MIN_VALUE is representable
+        int value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            int digit = input.charAt(i) - '0';
+            if (value < (Integer.MIN_VALUE + digit) / 10) throw error("Integer out of range");
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Integer.MIN_VALUE) throw error("Integer out of range");
+        return negative ? value : -value;
+    }
+
+    InvalidCommandException error(String message) {
+        return new InvalidCommandException(message + " at position " + start);
+    }
+
+    private static boolean isWordStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isWordPart(char c) {
+        return isWordStart(c) || isDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,16 @@
+package com.tabledb.command;
+
+/**
+ * A {@code ?} placeholder in a prepared statement, replaced by an argument on EXECUTE.
+ */
+public final class Parameter {
+    public static final Parameter INSTANCE = new Parameter();
+
+    private Parameter() {
+    }
+
+    @Override
+    public String toString() {
+        return "?";
+    }
+}
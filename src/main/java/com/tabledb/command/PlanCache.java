@@ -0,0 +1,48 @@
+package com.tabledb.command;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU map from normalized statement text to its parsed plan. Safe to share between
+ * processors.
+ */
+public class PlanCache {
+    private final int capacity;
+    private final Map<String, Statement> plans;
+    private long hits;
+    private long misses;
+
+    public PlanCache(int capacity) {
+        this.capacity = capacity;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Statement> eldest) {
+                return size() > PlanCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized Statement get(String key) {
+        Statement plan = plans.get(key);
+        if (plan != null) hits++;
+        else misses++;
+        return plan;
+    }
+
+    public synchronized void put(String key, Statement plan) {
+        if (capacity > 0) plans.put(key, plan);
+    }
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,137 @@
+package com.tabledb.command;
+
+import com.tabledb.condition.AndCondition;
+import com.tabledb.condition.Condition;
+import com.tabledb.condition.OrCondition;
+import com.tabledb.condition.RangeCondition;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.exception.InvalidCommandException;
+import com.tabledb.model.ValueRange;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A statement with {@link Parameter} placeholders. Binding walks the plan in the order the
+ * placeholders appear in the text (values, then SET, then WHERE), so arguments are positional.
+ */
+public final class PreparedStatement {
+    private final Statement template;
+    private final int parameterCount;
+
+    public PreparedStatement(Statement template) {
+        if (template instanceof Statement.Prepare || template instanceof Statement.Execute) {
+            throw new InvalidCommandException("Cannot prepare PREPARE or EXECUTE");
+        }
+        this.template = template;
+        this.parameterCount = countParameters(template);
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * Returns the statement with each placeholder replaced by the next argument.
+     */
+    public Statement bind(List<Object> arguments) {
+        if (arguments.size() != parameterCount) {
+            throw new InvalidCommandException("Expected " + parameterCount + " arguments but got " + arguments.size());
+        }
+        if (parameterCount == 0) return template;
+        Iterator<Object> args = arguments.iterator();
+        if (template instanceof Statement.Insert insert) {
+            return new Statement.Insert(insert.table(), bindRows(insert.rows(), args));
+        } else if (template instanceof Statement.Select select) {
+            return new Statement.Select(select.table(), select.columns(), bind(select.condition(), args),
+                    select.aggregates(), select.groupBy(), select.orderBy(), select.offset(), select.limit());
+        } else if (template instanceof Statement.Join join) {
+            return new Statement.Join(join.left(), join.right(), join.leftKey(), join.rightKey(), join.columns(),
+                    bind(join.condition(), args));
+        } else if (template instanceof Statement.Update update) {
+            Map<String, Object> updates = new LinkedHashMap<>();
+            update.updates().forEach((column, value) -> updates.put(column, bind(value, args)));
+            return new Statement.Update(update.table(), updates, bind(update.condition(), args));
+        } else if (template instanceof Statement.Delete delete) {
+            return new Statement.Delete(delete.table(), bind(delete.condition(), args));
+        } else if (template instanceof Statement.Explain explain) {
+            return new Statement.Explain(new PreparedStatement(explain.query()).bind(arguments));
+        }
+        return template;
+    }
+
+    static int countParameters(Statement statement) {
+        int[] count = {0};
+        Iterator<Object> counter = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                count[0]++;
+                return Parameter.INSTANCE;
+            }
+        };
+        // Binding with an endless argument source counts the placeholders it consumes
+        if (statement instanceof Statement.Insert insert) {
+            bindRows(insert.rows(), counter);
+        } else if (statement instanceof Statement.Select select) {
+            bind(select.condition(), counter);
+        } else if (statement instanceof Statement.Join join) {
+            bind(join.condition(), counter);
+        } else if (statement instanceof Statement.Update update) {
+            update.updates().values().forEach(value -> bind(value, counter));
+            bind(update.condition(), counter);
+        } else if (statement instanceof Statement.Delete delete) {
+            bind(delete.condition(), counter);
+        } else if (statement instanceof Statement.Explain explain) {
+            count[0] = countParameters(explain.query());
+        }
+        return count[0];
+    }
+
+    private static List<List<Object>> bindRows(List<List<Object>> rows, Iterator<Object> args) {
+        List<List<Object>> bound = new ArrayList<>(rows.size());
+        for (List<Object> row : rows) {
+            bound.add(bindValues(row, args));
+        }
+        return bound;
+    }
+
+    private static List<Object> bindValues(List<Object> values, Iterator<Object> args) {
+        List<Object> bound = new ArrayList<>(values.size());
+        for (Object value : values) {
+            bound.add(bind(value, args));
+        }
+        return bound;
+    }
+
+    private static Object bind(Object value, Iterator<Object> args) {
+        return value == Parameter.INSTANCE ? args.next() : value;
+    }
+
+    private static Condition bind(Condition condition, Iterator<Object> args) {
+        if (condition instanceof SimpleCondition simple) {
+            return new SimpleCondition(simple.getColumn(), bind(simple.getValue(), args));
+        } else if (condition instanceof RangeCondition range) {
+            ValueRange r = range.getRange();
+            Object lower = r.lower() != null ? bind(r.lower(), args) : null;
+            Object upper = r.upper() != null ? bind(r.upper(), args) : null;
+            return new RangeCondition(range.getColumn(), new ValueRange(lower, r.lowerInclusive(), upper, r.upperInclusive()));
+        } else if (condition instanceof AndCondition and) {
+            List<Condition> children = new ArrayList<>();
+            and.getConditions().forEach(child -> children.add(bind(child, args)));
+            return new AndCondition(children);
+        } else if (condition instanceof OrCondition or) {
+            List<Condition> children = new ArrayList<>();
+            or.getConditions().forEach(child -> children.add(bind(child, args)));
+            return new OrCondition(children);
+        }
+        return condition;
+    }
+}
@@ -0,0 +1,156 @@
+package com.tabledb.command;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU map from a query plan to the output it produced, valid for as long as the tables it
+ * read keep the versions they had when it ran. Entries are evicted least recently used first once
+ * there are more than {@code capacity} of them or they hold more than {@code maxBytes}. Safe to
+ * share between processors.
+ */
+public class ResultCache {
+    // Rough size of an entry besides its output: the map entry, the plan and the version array
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final int capacity;
+    private final long maxBytes;
+    private final Map<Statement, Entry> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    private record Entry(long[] versions, String output) {
+        long bytes() {
+            return ENTRY_OVERHEAD_BYTES + 2L * output.length();
+        }
+    }
+
+    /**
+     * @param capacity how many results to keep, 0 to cache nothing
+     * @param maxBytes estimated heap the cached output may take
+     */
+    public ResultCache(int capacity, long maxBytes) {
+        this.capacity = capacity;
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0 && maxBytes > 0;
+    }
+
+    /**
+     * Returns the cached output of {@code query}, or {@code null} if there is none or one of its
+     * tables has changed since.
+     */
+    public synchronized String get(Statement query, long[] versions) {
+        Entry entry = results.get(query);
+        if (entry != null && Arrays.equals(entry.versions(), versions)) {
+            hits++;
+            return entry.output();
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(Statement query, long[] versions, String output) {
+        Entry entry = new Entry(versions, output);
+        if (!isEnabled() || entry.bytes() > maxOutputBytes()) return;
+        Entry replaced = results.put(query, entry);
+        if (replaced != null) bytes -= replaced.bytes();
+        bytes += entry.bytes();
+        Iterator<Entry> eldest = results.values().iterator();
+        while (results.size() > capacity || bytes > maxBytes) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Returns a writer passing everything on to {@code out} while keeping a copy, as long as it is
+     * small enough to be cached.
+     */
+    Recorder record(Writer out) {
+        return new Recorder(out, maxOutputBytes() / 2);
+    }
+
+    // One result may take an eighth of the budget, so a single large scan cannot flush the rest
+    private long maxOutputBytes() {
+        return maxBytes / 8;
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Estimated heap taken by the cached results.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    static final class Recorder extends Writer {
+        private final Writer out;
+        private final long maxChars;
+        private StringBuilder copy = new StringBuilder();
+
+        private Recorder(Writer out, long maxChars) {
+            this.out = out;
+            this.maxChars = maxChars;
+        }
+
+        /**
+         * Everything written so far, or {@code null} if it grew too large to keep.
+         */
+        String output() {
+            return copy != null ? copy.toString() : null;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            if (copy != null && keep(1)) copy.append((char) c);
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            out.write(text, offset, length);
+            if (copy != null && keep(length)) copy.append(text, offset, offset + length);
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            if (copy != null && keep(length)) copy.append(buffer, offset, length);
+        }
+
+        private boolean keep(int length) {
+            if (copy.length() + (long) length <= maxChars) return true;
+            copy = null;
+            return false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        // Closing belongs to whoever opened out
+        @Override
+        public void close() {
+        }
+    }
+}
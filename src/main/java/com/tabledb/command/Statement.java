@@ -0,0 +1,104 @@
+package com.tabledb.command;
+
+import com.tabledb.condition.Condition;
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Aggregate;
+import com.tabledb.model.Column;
+import com.tabledb.model.Partitioning;
+import com.tabledb.model.SortKey;
+import com.tabledb.model.StorageMode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed command, ready to execute without looking at its text again. Plans are immutable, so
+ * one instance can be cached and executed any number of times, and compare by value, so they can
+ * also key cached results.
+ */
+public sealed interface Statement {
+    /**
+     * @param partitioning {@code null} for a table with a single partition
+     */
+    record CreateTable(String table, List<Column> columns, StorageMode storageMode, Partitioning partitioning)
+            implements Statement {
+    }
+
+    record DropTable(String table) implements Statement {
+    }
+
+    record CreateIndex(String table, String column, IndexType indexType) implements Statement {
+    }
+
+    record Insert(String table, List<List<Object>> rows) implements Statement {
+    }
+
+    /**
+     * @param header whether the file starts with a line of column names to skip
+     */
+    record Load(String table, String file, boolean header) implements Statement {
+    }
+
+    /**
+     * @param columns    the projected columns, empty for all of them; in an aggregate query the whole
+     *                   select list, with each aggregate written as by {@link Aggregate#toString()}
+     * @param aggregates the aggregates of the select list in order, empty for a plain query
+     * @param groupBy    the grouping columns, among which every plain column of an aggregate query is
+     * @param orderBy    the sort keys, empty to keep scan order
+     * @param limit      the most rows to return, {@code -1} for no limit
+     */
+    record Select(String table, List<String> columns, Condition condition,
+                  List<Aggregate> aggregates, List<String> groupBy,
+                  List<SortKey> orderBy, int offset, int limit) implements Statement {
+        public Select(String table, List<String> columns, Condition condition) {
+            this(table, columns, condition, List.of(), List.of(), List.of(), 0, -1);
+        }
+
+        public boolean isAggregate() {
+            return !aggregates.isEmpty() || !groupBy.isEmpty();
+        }
+    }
+
+    /**
+     * An inner join of two tables on equal values of one column each. Columns may be qualified as
+     * {@code table.column}.
+     *
+     * @param columns the result columns, empty for all of them
+     */
+    record Join(String left, String right, String leftKey, String rightKey,
+                List<String> columns, Condition condition) implements Statement {
+    }
+
+    /**
+     * Runs a query to report how it was planned, with estimated and actual row counts, instead of
+     * its rows.
+     *
+     * @param query a {@link Select} or {@link Join}
+     */
+    record Explain(Statement query) implements Statement {
+    }
+
+    record Update(String table, Map<String, Object> updates, Condition condition) implements Statement {
+    }
+
+    record Delete(String table, Condition condition) implements Statement {
+    }
+
+    record ShowTables() implements Statement {
+    }
+
+    record ShowStats() implements Statement {
+    }
+
+    record Exit() implements Statement {
+    }
+
+    record PurgeAndStop() implements Statement {
+    }
+
+    record Prepare(String name, PreparedStatement statement) implements Statement {
+    }
+
+    record Execute(String name, List<Object> arguments) implements Statement {
+    }
+}
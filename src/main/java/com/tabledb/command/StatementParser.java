@@ -0,0 +1,523 @@
+package com.tabledb.command;
+
+import com.tabledb.command.Lexer.Token;
+import com.tabledb.condition.AndCondition;
+import com.tabledb.condition.Condition;
+import com.tabledb.condition.OrCondition;
+import com.tabledb.condition.RangeCondition;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.exception.InvalidCommandException;
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Aggregate;
+import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.Partitioning;
+import com.tabledb.model.SortKey;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.ValueRange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recursive-descent parser that turns command text into a {@link Statement} in a single pass over
+ * the tokens of a {@link Lexer}. Keywords are case-insensitive. Only the syntax is checked here;
+ * whether tables and columns exist is left to execution, so a plan stays valid while the schema
+ * changes.
+ *
+ * <pre>
+ * statement  := EXIT | STOP | SHOW TABLES | SHOW STATS | PURGE_AND_STOP
+ *             | CREATE_TABLE name '(' name type (',' name type)* ')' [STORAGE mode]
+ *               [PARTITION BY HASH '(' name ')' INTO integer]
+ *             | DROP_TABLE name
+ *             | CREATE_INDEX name '(' name ')' [HASH | ORDERED]
+ *             | INSERT INTO name VALUES values (',' values)*
+ *             | LOAD name FROM string [HEADER]
+ *             | SELECT ('*' | item (',' item)*) FROM name [WHERE condition] [GROUP BY name (',' name)*]
+ *               [ORDER BY key (',' key)*] [LIMIT integer] [OFFSET integer]
+ *             | SELECT ('*' | column (',' column)*) FROM name JOIN name ON column '=' column
+ *               [WHERE condition]
+ *             | UPDATE name SET name '=' value (',' name '=' value)* WHERE condition
+ *             | DELETE FROM name WHERE condition
+ *             | EXPLAIN statement
+ *             | PREPARE name AS statement
+ *             | EXECUTE name [values | '(' ')']
+ * item       := column | function '(' name ')' | COUNT '(' '*' ')'
+ * column     := [name '.'] name
+ * function   := COUNT | SUM | MIN | MAX | AVG
+ * key        := item [ASC | DESC]
+ * values     := '(' value (',' value)* ')'
+ * condition  := conjunction (OR conjunction)*
+ * conjunction:= predicate (AND predicate)*
+ * predicate  := '(' condition ')' | column ('=' | '<' | '<=' | '>' | '>=') value
+ *             | column BETWEEN value AND value
+ * value      := integer | string | '?'
+ * string     := '"' chars '"' | "'" chars "'"
+ * </pre>
+ */
+public final class StatementParser {
+    private final Lexer lexer;
+
+    private StatementParser(String input) {
+        this.lexer = new Lexer(input);
+    }
+
+    /**
+     * Parses one command. {@code ?} placeholders are only accepted inside PREPARE.
+     *
+     * @throws InvalidCommandException if the text is not a valid command
+     */
+    public static Statement parse(String command) {
+        StatementParser parser = new StatementParser(command);
+        Statement statement = parser.statement();
+        parser.expectEnd();
+        if (PreparedStatement.countParameters(statement) > 0) {
+            throw new InvalidCommandException("Placeholders are only allowed in PREPARE");
+        }
+        return statement;
+    }
+
+    /**
+     * Parses a WHERE clause on its own.
+     */
+    public static Condition parseCondition(String condition) {
+        StatementParser parser = new StatementParser(condition);
+        Condition result = parser.condition();
+        parser.expectEnd();
+        return result;
+    }
+
+    /**
+     * Parses a comma-separated list of values, without the surrounding parentheses.
+     */
+    public static List<Object> parseValues(String values) {
+        StatementParser parser = new StatementParser(values);
+        List<Object> result = new ArrayList<>();
+        do {
+            result.add(parser.value());
+        } while (parser.accept(Token.COMMA));
+        parser.expectEnd();
+        return result;
+    }
+
+    /**
+     * Parses comma-separated {@code name type} column definitions.
+     */
+    public static List<Column> parseColumns(String columns) {
+        StatementParser parser = new StatementParser(columns);
+        List<Column> result = parser.columnDefinitions();
+        parser.expectEnd();
+        return result;
+    }
+
+    /**
+     * Parses the comma-separated {@code name = value} assignments of a SET clause.
+     */
+    public static Map<String, Object> parseAssignments(String assignments) {
+        StatementParser parser = new StatementParser(assignments);
+        Map<String, Object> result = parser.assignments();
+        parser.expectEnd();
+        return result;
+    }
+
+    /**
+     * Trims the command and collapses whitespace outside string literals, so commands that differ
+     * only in spacing share a cached plan.
+     */
+    public static String normalize(String command) {
+        if (isNormal(command)) return command;
+        StringBuilder normalized = new StringBuilder(command.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) normalized.append(' ');
+            pendingSpace = false;
+            normalized.append(c);
+            quote = nextQuote(quote, c);
+        }
+        return normalized.toString();
+    }
+
+    // Most commands are typed with single spaces, so they can be used as-is without copying
+    private static boolean isNormal(String command) {
+        char quote = 0;
+        char previous = ' ';
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c) && (c != ' ' || previous == ' ')) return false;
+            quote = nextQuote(quote, c);
+            previous = quote != 0 ? 'x' : c;
+        }
+        return previous != ' ';
+    }
+
+    // The quote character of the string literal open after c, or 0 outside of one
+    private static char nextQuote(char quote, char c) {
+        if (quote == 0) return c == '"' || c == '\'' ? c : 0;
+        return c == quote ? 0 : quote;
+    }
+
+    private Statement statement() {
+        if (acceptKeyword("SELECT")) {
+            return select();
+        } else if (acceptKeyword("INSERT")) {
+            return insert();
+        } else if (acceptKeyword("UPDATE")) {
+            return update();
+        } else if (acceptKeyword("DELETE")) {
+            expectKeyword("FROM");
+            String table = name();
+            expectKeyword("WHERE");
+            return new Statement.Delete(table, condition());
+        } else if (acceptKeyword("EXECUTE")) {
+            return execute();
+        } else if (acceptKeyword("LOAD")) {
+            return load();
+        } else if (acceptKeyword("EXPLAIN")) {
+            Statement query = statement();
+            if (!(query instanceof Statement.Select || query instanceof Statement.Join)) {
+                throw new InvalidCommandException("Only queries can be explained");
+            }
+            return new Statement.Explain(query);
+        } else if (acceptKeyword("PREPARE")) {
+            String name = name();
+            expectKeyword("AS");
+            return new Statement.Prepare(name, new PreparedStatement(statement()));
+        } else if (acceptKeyword("CREATE_TABLE")) {
+            return createTable();
+        } else if (acceptKeyword("CREATE_INDEX")) {
+            return createIndex();
+        } else if (acceptKeyword("DROP_TABLE")) {
+            return new Statement.DropTable(name());
+        } else if (acceptKeyword("SHOW")) {
+            if (acceptKeyword("STATS")) return new Statement.ShowStats();
+            expectKeyword("TABLES");
+            return new Statement.ShowTables();
+        } else if (acceptKeyword("EXIT") || acceptKeyword("STOP")) {
+            return new Statement.Exit();
+        } else if (acceptKeyword("PURGE_AND_STOP")) {
+            return new Statement.PurgeAndStop();
+        }
+        throw lexer.error("Unknown command");
+    }
+
+    private Statement createTable() {
+        String table = name();
+        expect(Token.LEFT_PAREN);
+        List<Column> columns = columnDefinitions();
+        expect(Token.RIGHT_PAREN);
+        StorageMode storageMode = StorageMode.ROW;
+        if (acceptKeyword("STORAGE")) {
+            storageMode = enumKeyword(StorageMode.class);
+        }
+        Partitioning partitioning = null;
+        if (acceptKeyword("PARTITION")) {
+            expectKeyword("BY");
+            expectKeyword("HASH");
+            expect(Token.LEFT_PAREN);
+            String column = name();
+            expect(Token.RIGHT_PAREN);
+            expectKeyword("INTO");
+            int count = count();
+            if (count < 1 || count > Partitioning.MAX_PARTITIONS) {
+                throw new InvalidCommandException("Partition count must be between 1 and " + Partitioning.MAX_PARTITIONS);
+            }
+            partitioning = new Partitioning(column, count);
+        }
+        return new Statement.CreateTable(table, columns, storageMode, partitioning);
+    }
+
+    private List<Column> columnDefinitions() {
+        List<Column> columns = new ArrayList<>();
+        do {
+            String column = name();
+            columns.add(new Column(column, enumKeyword(DataType.class)));
+        } while (accept(Token.COMMA));
+        return columns;
+    }
+
+    private Statement createIndex() {
+        String table = name();
+        expect(Token.LEFT_PAREN);
+        String column = name();
+        expect(Token.RIGHT_PAREN);
+        IndexType type = lexer.token() == Token.WORD ? enumKeyword(IndexType.class) : IndexType.HASH;
+        return new Statement.CreateIndex(table, column, type);
+    }
+
+    private Statement insert() {
+        expectKeyword("INTO");
+        String table = name();
+        expectKeyword("VALUES");
+        List<List<Object>> rows = new ArrayList<>();
+        do {
+            rows.add(valueList());
+        } while (accept(Token.COMMA));
+        return new Statement.Insert(table, rows);
+    }
+
+    private Statement load() {
+        String table = name();
+        expectKeyword("FROM");
+        if (lexer.token() != Token.STRING) throw lexer.error("Expected a file name");
+        String file = lexer.stringValue();
+        lexer.advance();
+        return new Statement.Load(table, file, acceptKeyword("HEADER"));
+    }
+
+    private Statement select() {
+        List<String> columns = new ArrayList<>();
+        List<String> plainColumns = new ArrayList<>();
+        List<Aggregate> aggregates = new ArrayList<>();
+        if (!accept(Token.STAR)) {
+            do {
+                String item = columnName();
+                if (accept(Token.LEFT_PAREN)) {
+                    Aggregate aggregate = aggregate(item);
+                    aggregates.add(aggregate);
+                    columns.add(aggregate.toString());
+                } else {
+                    plainColumns.add(item);
+                    columns.add(item);
+                }
+            } while (accept(Token.COMMA));
+        }
+        expectKeyword("FROM");
+        String table = name();
+        if (acceptKeyword("JOIN")) {
+            if (!aggregates.isEmpty()) throw new InvalidCommandException("Aggregates are not supported with JOIN");
+            return join(table, columns);
+        }
+        Condition condition = acceptKeyword("WHERE") ? condition() : null;
+        List<String> groupBy = List.of();
+        if (acceptKeyword("GROUP")) {
+            expectKeyword("BY");
+            groupBy = new ArrayList<>();
+            do {
+                groupBy.add(name());
+            } while (accept(Token.COMMA));
+        }
+        List<SortKey> orderBy = List.of();
+        if (acceptKeyword("ORDER")) {
+            expectKeyword("BY");
+            orderBy = new ArrayList<>();
+            do {
+                String key = name();
+                if (accept(Token.LEFT_PAREN)) {
+                    // Aggregates only sorted on are computed without being returned
+                    Aggregate aggregate = aggregate(key);
+                    if (!aggregates.contains(aggregate)) aggregates.add(aggregate);
+                    key = aggregate.toString();
+                } else {
+                    plainColumns.add(key);
+                }
+                boolean descending = acceptKeyword("DESC");
+                if (!descending) acceptKeyword("ASC");
+                orderBy.add(new SortKey(key, descending));
+            } while (accept(Token.COMMA));
+        }
+        int limit = acceptKeyword("LIMIT") ? count() : -1;
+        int offset = acceptKeyword("OFFSET") ? count() : 0;
+        if (!aggregates.isEmpty() || !groupBy.isEmpty()) {
+            if (columns.isEmpty()) throw new InvalidCommandException("Cannot aggregate SELECT *");
+            for (String column : plainColumns) {
+                if (!groupBy.contains(column)) throw new InvalidCommandException("Column " + column + " is not in GROUP BY");
+            }
+        }
+        return new Statement.Select(table, columns, condition, aggregates, groupBy, orderBy, offset, limit);
+    }
+
+    private int count() {
+        if (lexer.token() != Token.INTEGER) throw lexer.error("Expected a number");
+        int count = lexer.intValue();
+        if (count < 0) throw lexer.error("Expected a number that is not negative");
+        lexer.advance();
+        return count;
+    }
+
+    private Statement join(String left, List<String> columns) {
+        String right = name();
+        expectKeyword("ON");
+        String leftKey = columnName();
+        expect(Token.EQUALS);
+        String rightKey = columnName();
+        Condition condition = acceptKeyword("WHERE") ? condition() : null;
+        return new Statement.Join(left, right, leftKey, rightKey, columns, condition);
+    }
+
+    // Called after the opening parenthesis of a function call
+    private Aggregate aggregate(String function) {
+        Aggregate.Function type = null;
+        for (Aggregate.Function candidate : Aggregate.Function.values()) {
+            if (candidate.name().equalsIgnoreCase(function)) type = candidate;
+        }
+        if (type == null) throw new InvalidCommandException("Unknown function " + function);
+        Aggregate aggregate;
+        if (type == Aggregate.Function.COUNT && accept(Token.STAR)) {
+            aggregate = Aggregate.countAll();
+        } else {
+            aggregate = new Aggregate(type, name());
+        }
+        expect(Token.RIGHT_PAREN);
+        return aggregate;
+    }
+
+    private Statement update() {
+        String table = name();
+        expectKeyword("SET");
+        Map<String, Object> updates = assignments();
+        expectKeyword("WHERE");
+        return new Statement.Update(table, updates, condition());
+    }
+
+    private Map<String, Object> assignments() {
+        Map<String, Object> updates = new LinkedHashMap<>();
+        do {
+            String column = name();
+            expect(Token.EQUALS);
+            updates.put(column, value());
+        } while (accept(Token.COMMA));
+        return updates;
+    }
+
+    private Statement execute() {
+        String name = name();
+        List<Object> arguments = List.of();
+        if (lexer.token() == Token.LEFT_PAREN) {
+            lexer.advance();
+            if (!accept(Token.RIGHT_PAREN)) {
+                arguments = new ArrayList<>();
+                do {
+                    arguments.add(value());
+                } while (accept(Token.COMMA));
+                expect(Token.RIGHT_PAREN);
+            }
+        }
+        if (arguments.contains(Parameter.INSTANCE)) throw new InvalidCommandException("Arguments must be values");
+        return new Statement.Execute(name, arguments);
+    }
+
+    private List<Object> valueList() {
+        expect(Token.LEFT_PAREN);
+        List<Object> values = new ArrayList<>();
+        do {
+            values.add(value());
+        } while (accept(Token.COMMA));
+        expect(Token.RIGHT_PAREN);
+        return values;
+    }
+
+    private Condition condition() {
+        Condition first = conjunction();
+        if (!acceptKeyword("OR")) return first;
+        List<Condition> conditions = new ArrayList<>();
+        conditions.add(first);
+        do {
+            conditions.add(conjunction());
+        } while (acceptKeyword("OR"));
+        return new OrCondition(conditions);
+    }
+
+    private Condition conjunction() {
+        Condition first = predicate();
+        if (!acceptKeyword("AND")) return first;
+        List<Condition> conditions = new ArrayList<>();
+        conditions.add(first);
+        do {
+            conditions.add(predicate());
+        } while (acceptKeyword("AND"));
+        return new AndCondition(conditions);
+    }
+
+    private Condition predicate() {
+        if (accept(Token.LEFT_PAREN)) {
+            Condition condition = condition();
+            expect(Token.RIGHT_PAREN);
+            return condition;
+        }
+        String column = columnName();
+        if (acceptKeyword("BETWEEN")) {
+            Object lower = value();
+            expectKeyword("AND");
+            return RangeCondition.between(column, lower, value());
+        }
+        Token operator = lexer.token();
+        lexer.advance();
+        return switch (operator) {
+            case EQUALS -> new SimpleCondition(column, value());
+            case LESS -> new RangeCondition(column, new ValueRange(null, false, value(), false));
+            case LESS_EQUALS -> new RangeCondition(column, new ValueRange(null, false, value(), true));
+            case GREATER -> new RangeCondition(column, new ValueRange(value(), false, null, false));
+            case GREATER_EQUALS -> new RangeCondition(column, new ValueRange(value(), true, null, false));
+            default -> throw lexer.error("Expected a comparison");
+        };
+    }
+
+    private Object value() {
+        Object value = switch (lexer.token()) {
+            case INTEGER -> lexer.intValue();
+            case STRING -> lexer.stringValue();
+            case PARAMETER -> Parameter.INSTANCE;
+            default -> throw lexer.error("Expected a value");
+        };
+        lexer.advance();
+        return value;
+    }
+
+    private String name() {
+        if (lexer.token() != Token.WORD) throw lexer.error("Expected a name");
+        String name = lexer.text();
+        lexer.advance();
+        return name;
+    }
+
+    // A column name, optionally qualified by its table
+    private String columnName() {
+        String name = name();
+        return accept(Token.DOT) ? name + "." + name() : name;
+    }
+
+    private <E extends Enum<E>> E enumKeyword(Class<E> type) {
+        if (lexer.token() == Token.WORD) {
+            for (E constant : type.getEnumConstants()) {
+                if (lexer.isKeyword(constant.name())) {
+                    lexer.advance();
+                    return constant;
+                }
+            }
+        }
+        throw lexer.error("Expected one of " + Arrays.toString(type.getEnumConstants()));
+    }
+
+    private boolean accept(Token token) {
+        if (lexer.token() != token) return false;
+        lexer.advance();
+        return true;
+    }
+
+    private boolean acceptKeyword(String keyword) {
+        if (!lexer.isKeyword(keyword)) return false;
+        lexer.advance();
+        return true;
+    }
+
+    private void expect(Token token) {
+        if (!accept(token)) throw lexer.error("Expected " + token);
+    }
+
+    private void expectKeyword(String keyword) {
+        if (!acceptKeyword(keyword)) throw lexer.error("Expected " + keyword);
+    }
+
+    private void expectEnd() {
+        if (lexer.token() != Token.END) throw lexer.error("Unexpected input");
+    }
+}
@@ -1,7 +1,12 @@
 package com.tabledb.condition;
 
+import com.tabledb.index.TableIndexes;
 import com.tabledb.model.Row;
+import com.tabledb.storage.TableStorage;
+
 import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
 
 public class AndCondition implements Condition {
     private final List<Condition> conditions;
@@ -10,8 +15,61 @@ public class AndCondition implements Condition {
         this.conditions = conditions;
     }
 
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
     @Override
     public boolean evaluate(Row row) {
         return conditions.stream().allMatch(condition -> condition.evaluate(row));
     }
-}
\ No newline at end of file
+
+    @Override
+    public IntPredicate bind(TableStorage storage) {
+        return conditions.stream()
+                .map(condition -> condition.bind(storage))
+                .reduce(IntPredicate::and)
+                .orElse(position -> true);
+    }
+
+    @Override
+    public int[] candidates(TableIndexes indexes) {
+        int[] narrowest = null;
+        for (Condition condition : conditions) {
+            int[] positions = condition.candidates(indexes);
+            if (positions != null && (narrowest == null || positions.length < narrowest.length)) {
+                narrowest = positions;
+            }
+        }
+        return narrowest;
+    }
+
+    // A block is ruled out as soon as one part rules it out
+    @Override
+    public IntPredicate blocks(TableStorage storage) {
+        IntPredicate blocks = null;
+        for (Condition condition : conditions) {
+            IntPredicate part = condition.blocks(storage);
+            if (part != null) blocks = blocks == null ? part : blocks.and(part);
+        }
+        return blocks;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof AndCondition that && conditions.equals(that.conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        return conditions.hashCode();
+    }
+
+    // An OR inside binds more loosely, so it keeps its parentheses
+    @Override
+    public String toString() {
+        return conditions.stream()
+                .map(condition -> condition instanceof OrCondition ? "(" + condition + ")" : condition.toString())
+                .collect(Collectors.joining(" AND "));
+    }
+}
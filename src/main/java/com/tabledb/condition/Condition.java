@@ -1,8 +1,37 @@
 package com.tabledb.condition;
 
+import com.tabledb.index.TableIndexes;
 import com.tabledb.model.Row;
+import com.tabledb.storage.TableStorage;
+
+import java.util.function.IntPredicate;
 
 @FunctionalInterface
 public interface Condition {
     boolean evaluate(Row row);
-}
\ No newline at end of file
+
+    /**
+     * Compiles this condition into a predicate over storage positions, so scans can test rows
+     * without materializing them. The default falls back to building a {@link Row} per position.
+     */
+    default IntPredicate bind(TableStorage storage) {
+        return position -> evaluate(storage.materialize(position));
+    }
+
+    /**
+     * Returns the ascending positions that may satisfy this condition according to the table's
+     * indexes, or {@code null} when the indexes cannot narrow the search and a full scan is needed.
+     * Candidates are still tested against {@link #bind} before they are used.
+     */
+    default int[] candidates(TableIndexes indexes) {
+        return null;
+    }
+
+    /**
+     * Returns a predicate over the storage's block numbers that is false for blocks whose zone
+     * maps rule out any match, or {@code null} when they cannot rule out any block.
+     */
+    default IntPredicate blocks(TableStorage storage) {
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.tabledb.condition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Helpers walking the condition trees built by the parser.
+ */
+public final class Conditions {
+    private Conditions() {
+    }
+
+    /**
+     * Returns the parts of {@code condition} that must all hold: the children of an AND, otherwise
+     * the condition itself.
+     */
+    public static List<Condition> conjuncts(Condition condition) {
+        return condition instanceof AndCondition and ? and.getConditions() : List.of(condition);
+    }
+
+    /**
+     * Returns the condition with every column name replaced by {@code rename}'s result.
+     *
+     * @throws IllegalArgumentException for a condition type other than the parser's
+     */
+    public static Condition renameColumns(Condition condition, UnaryOperator<String> rename) {
+        if (condition instanceof SimpleCondition simple) {
+            return new SimpleCondition(rename.apply(simple.getColumn()), simple.getValue());
+        } else if (condition instanceof RangeCondition range) {
+            return new RangeCondition(rename.apply(range.getColumn()), range.getRange());
+        } else if (condition instanceof AndCondition and) {
+            return new AndCondition(renameAll(and.getConditions(), rename));
+        } else if (condition instanceof OrCondition or) {
+            return new OrCondition(renameAll(or.getConditions(), rename));
+        }
+        throw new IllegalArgumentException("Unsupported condition: " + condition.getClass().getSimpleName());
+    }
+
+    /**
+     * Returns the names of the columns {@code condition} refers to.
+     */
+    public static Set<String> columns(Condition condition) {
+        Set<String> columns = new LinkedHashSet<>();
+        renameColumns(condition, column -> {
+            columns.add(column);
+            return column;
+        });
+        return columns;
+    }
+
+    /**
+     * Writes a condition value the way the parser reads it: strings in double quotes.
+     */
+    static String literal(Object value) {
+        return value instanceof String s ? '"' + s + '"' : String.valueOf(value);
+    }
+
+    private static List<Condition> renameAll(List<Condition> conditions, UnaryOperator<String> rename) {
+        List<Condition> renamed = new ArrayList<>(conditions.size());
+        conditions.forEach(child -> renamed.add(renameColumns(child, rename)));
+        return renamed;
+    }
+}
@@ -1,7 +1,13 @@
 package com.tabledb.condition;
 
+import com.tabledb.index.Positions;
+import com.tabledb.index.TableIndexes;
 import com.tabledb.model.Row;
+import com.tabledb.storage.TableStorage;
+
 import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
 
 public class OrCondition implements Condition {
     private final List<Condition> conditions;
@@ -10,8 +16,58 @@ public class OrCondition implements Condition {
         this.conditions = conditions;
     }
 
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
     @Override
     public boolean evaluate(Row row) {
         return conditions.stream().anyMatch(condition -> condition.evaluate(row));
     }
-}
\ No newline at end of file
+
+    @Override
+    public IntPredicate bind(TableStorage storage) {
+        return conditions.stream()
+                .map(condition -> condition.bind(storage))
+                .reduce(IntPredicate::or)
+                .orElse(position -> false);
+    }
+
+    @Override
+    public int[] candidates(TableIndexes indexes) {
+        int[] union = new int[0];
+        for (Condition condition : conditions) {
+            int[] positions = condition.candidates(indexes);
+            if (positions == null) return null;
+            union = Positions.union(union, positions);
+        }
+        return union;
+    }
+
+    // A block is ruled out only if every part rules it out
+    @Override
+    public IntPredicate blocks(TableStorage storage) {
+        IntPredicate blocks = block -> false;
+        for (Condition condition : conditions) {
+            IntPredicate part = condition.blocks(storage);
+            if (part == null) return null;
+            blocks = blocks.or(part);
+        }
+        return blocks;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof OrCondition that && conditions.equals(that.conditions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * conditions.hashCode() + 1;
+    }
+
+    @Override
+    public String toString() {
+        return conditions.stream().map(Object::toString).collect(Collectors.joining(" OR "));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tabledb.condition;
+
+import com.tabledb.index.Index;
+import com.tabledb.index.OrderedIndex;
+import com.tabledb.index.TableIndexes;
+import com.tabledb.model.Row;
+import com.tabledb.model.ValueRange;
+import com.tabledb.storage.TableStorage;
+
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Matches rows whose column value lies within a range, e.g. {@code ts >= 100} or
+ * {@code ts BETWEEN 100 AND 200}.
+ */
+public class RangeCondition implements Condition {
+    private final String column;
+    private final ValueRange range;
+
+    public RangeCondition(String column, ValueRange range) {
+        this.column = column;
+        this.range = range;
+    }
+
+    public static RangeCondition between(String column, Object lower, Object upper) {
+        return new RangeCondition(column, new ValueRange(lower, true, upper, true));
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public ValueRange getRange() {
+        return range;
+    }
+
+    @Override
+    public boolean evaluate(Row row) {
+        return range.contains(row.getValue(column));
+    }
+
+    @Override
+    public IntPredicate bind(TableStorage storage) {
+        return storage.inRange(column, range);
+    }
+
+    @Override
+    public int[] candidates(TableIndexes indexes) {
+        Index index = indexes.get(column);
+        return index instanceof OrderedIndex ordered ? ordered.range(range) : null;
+    }
+
+    @Override
+    public IntPredicate blocks(TableStorage storage) {
+        return storage.blocksInRange(column, range);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RangeCondition that && column.equals(that.column) && range.equals(that.range);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(column, range);
+    }
+
+    @Override
+    public String toString() {
+        if (range.lower() != null && range.upper() != null && range.lowerInclusive() && range.upperInclusive()) {
+            return column + " BETWEEN " + Conditions.literal(range.lower()) + " AND " + Conditions.literal(range.upper());
+        }
+        String lower = range.lower() == null ? null :
+                column + (range.lowerInclusive() ? " >= " : " > ") + Conditions.literal(range.lower());
+        String upper = range.upper() == null ? null :
+                column + (range.upperInclusive() ? " <= " : " < ") + Conditions.literal(range.upper());
+        return lower == null ? upper : upper == null ? lower : lower + " AND " + upper;
+    }
+}
@@ -1,6 +1,12 @@
 package com.tabledb.condition;
 
+import com.tabledb.index.Index;
+import com.tabledb.index.TableIndexes;
 import com.tabledb.model.Row;
+import com.tabledb.storage.TableStorage;
+
+import java.util.Objects;
+import java.util.function.IntPredicate;
 
 public class SimpleCondition implements Condition {
     private final String column;
@@ -11,9 +17,49 @@ public class SimpleCondition implements Condition {
         this.value = value;
     }
 
+    public String getColumn() {
+        return column;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
     @Override
     public boolean evaluate(Row row) {
         Object rowValue = row.getValue(column);
         return value.equals(rowValue);
     }
-}
\ No newline at end of file
+
+    @Override
+    public IntPredicate bind(TableStorage storage) {
+        return storage.equalTo(column, value);
+    }
+
+    @Override
+    public int[] candidates(TableIndexes indexes) {
+        Index index = indexes.get(column);
+        return index != null ? index.lookup(value) : null;
+    }
+
+    @Override
+    public IntPredicate blocks(TableStorage storage) {
+        return storage.blocksEqualTo(column, value);
+    }
+
+    // Conditions compare by value, so equal plans share cached results
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SimpleCondition that && column.equals(that.column) && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(column, value);
+    }
+
+    @Override
+    public String toString() {
+        return column + " = " + Conditions.literal(value);
+    }
+}
@@ -1,17 +1,88 @@
 package com.tabledb.core;
 
 import com.tabledb.command.CommandProcessor;
+import com.tabledb.server.Server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class App {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int SCRIPT_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Reads commands interactively from standard input, or with {@code --script [file]} runs a
+     * whole script from the file (standard input when omitted or {@code -}) in batch mode. With
+     * {@code --server [port]} it serves the database over TCP until the process is stopped.
+     */
     public static void main(String[] args) {
-        CommandProcessor processor = new CommandProcessor();
-        Scanner scanner = new Scanner(System.in);
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args.length > 1 ? Integer.parseInt(args[1]) : Server.DEFAULT_PORT);
+            return;
+        }
+        Database database = new Database();
+        database.registerMBean();
+        CommandProcessor processor = new CommandProcessor(database);
+        // Results are streamed through a buffer so large SELECTs are written out in chunks
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE);
 
+        try {
+            if (args.length > 0 && args[0].equals("--script")) {
+                String file = args.length > 1 ? args[1] : "-";
+                if (file.equals("-")) {
+                    // Standard input is left open: the parser thread may still be blocked reading it
+                    new ScriptRunner(processor).run(new BufferedReader(new InputStreamReader(System.in), SCRIPT_BUFFER_SIZE), out);
+                } else {
+                    try (BufferedReader script = new BufferedReader(
+                            new InputStreamReader(Files.newInputStream(Path.of(file)), StandardCharsets.UTF_8), SCRIPT_BUFFER_SIZE)) {
+                        new ScriptRunner(processor).run(script, out);
+                    }
+                }
+            } else {
+                runInteractive(processor, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            processor.close();
+        }
+    }
+
+    private static void runServer(int port) {
+        Database database = new Database();
+        database.registerMBean();
+        try {
+            Server server = Server.start(database, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                database.close();
+            }, "tabledb-shutdown"));
+            System.out.println("Listening on port " + server.getPort());
+            server.awaitClose();
+        } catch (IOException e) {
+            database.close();
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void runInteractive(CommandProcessor processor, Writer out) throws IOException {
+        Scanner scanner = new Scanner(System.in);
         while (processor.isRunning()) {
             String command = scanner.nextLine();
-            String result = processor.processCommand(command);
-            System.out.println(result);
+            processor.processCommand(command, out);
+            out.write(System.lineSeparator());
+            out.flush();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.tabledb.core;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs checkpoints in the background and owns the threads that write table sections in parallel.
+ * A failed checkpoint is logged and counted; the next run retries.
+ */
+class Checkpointer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(Checkpointer.class.getName());
+
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService writers;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    Checkpointer(Runnable checkpoint, long intervalMillis, int writerThreads) {
+        this.writers = Executors.newFixedThreadPool(writerThreads, daemon("tabledb-checkpoint-writer"));
+        if (intervalMillis > 0) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(daemon("tabledb-checkpoint"));
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    checkpoint.run();
+                    completed.increment();
+                } catch (RuntimeException e) {
+                    // Until a run succeeds the log keeps every change and keeps growing
+                    failures.increment();
+                    LOGGER.log(Level.WARNING, "Background checkpoint failed; the write-ahead log is not truncated", e);
+                }
+            }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    ExecutorService writers() {
+        return writers;
+    }
+
+    /**
+     * Writes how many background checkpoints completed and how many failed.
+     */
+    void addTo(String prefix, Map<String, Long> stats) {
+        stats.put(prefix + ".completed", completed.sum());
+        stats.put(prefix + ".failures", failures.sum());
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writers.shutdown();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
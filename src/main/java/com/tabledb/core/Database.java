@@ -1,52 +1,527 @@
 package com.tabledb.core;
 
 import com.tabledb.condition.Condition;
+import com.tabledb.exception.InvalidCommandException;
+import com.tabledb.exception.TableNotFoundException;
+import com.tabledb.index.IndexType;
+import com.tabledb.metrics.CommandStats;
+import com.tabledb.metrics.StatsMBean;
+import com.tabledb.metrics.TableStats;
+import com.tabledb.model.Aggregate;
 import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.HashJoin;
+import com.tabledb.model.Partitioning;
 import com.tabledb.model.Row;
+import com.tabledb.model.RowCursor;
+import com.tabledb.model.SortKey;
+import com.tabledb.model.StorageMode;
 import com.tabledb.model.Table;
+import com.tabledb.planner.Plan;
+import com.tabledb.snapshot.SnapshotReader;
+import com.tabledb.snapshot.SnapshotWriter;
+import com.tabledb.storage.ParallelScanner;
+import com.tabledb.util.CsvReader;
+import com.tabledb.wal.WalRecord;
+import com.tabledb.wal.WriteAheadLog;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class Database implements AutoCloseable {
+    private static final int LOAD_BATCH_ROWS = 10_000;
 
-public class Database {
     private final Map<String, Table> tables;
+    private final Set<String> unloaded;
+    private final DatabaseConfig config;
+    private final ParallelScanner scanner;
+    private final SnapshotReader snapshot;
+    private final WriteAheadLog log;
+    private final Checkpointer checkpointer;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final CommandStats commandStats = new CommandStats();
+    private ObjectName mbeanName;
 
     public Database() {
+        this(DatabaseConfig.fromEnvironment());
+    }
+
+    public Database(DatabaseConfig config) {
         this.tables = new ConcurrentHashMap<>();
+        this.unloaded = ConcurrentHashMap.newKeySet();
+        this.config = config;
+        this.scanner = config.getScanParallelism() > 1 ?
+                new ParallelScanner(config.getScanParallelism(), config.getParallelScanThreshold()) :
+                null;
+        this.snapshot = openSnapshot(config);
+        this.log = config.getWalDirectory() != null ? recover(config) : null;
+        this.checkpointer = log != null && config.getSnapshotPath() != null ?
+                new Checkpointer(this::checkpoint, config.getCheckpointIntervalMillis(), Runtime.getRuntime().availableProcessors()) :
+                null;
+    }
+
+    /**
+     * Opens the configured snapshot, if there is one. Only its directory is read here; each table
+     * is decoded on first access.
+     */
+    private SnapshotReader openSnapshot(DatabaseConfig config) {
+        Path path = config.getSnapshotPath();
+        if (path == null || !Files.exists(path)) return null;
+        try {
+            SnapshotReader reader = SnapshotReader.open(path);
+            unloaded.addAll(reader.tableNames());
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuilds the tables from the write-ahead log, then opens it for new changes. Replayed changes
+     * go through the regular write paths while no log is attached, so they are not logged twice.
+     */
+    private WriteAheadLog recover(DatabaseConfig config) {
+        try {
+            long snapshotLsn = snapshot != null ? unloaded.stream().mapToLong(snapshot::lsn).max().orElse(0) : 0;
+            WriteAheadLog opened = WriteAheadLog.open(config.getWalDirectory(), config.getFsyncPolicy(),
+                    config.getWalSegmentBytes(), snapshotLsn + 1, this::replay);
+            tables.values().forEach(table -> table.attachLog(opened));
+            return opened;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover from the write-ahead log", e);
+        }
+    }
+
+    /**
+     * Applies a logged change unless the snapshot already includes it. Tables the log never
+     * touches past their snapshot stay unloaded.
+     */
+    private void replay(long lsn, WalRecord record) {
+        if (record instanceof WalRecord.Clear) {
+            tables.values().removeIf(table -> {
+                if (table.view().lsn() >= lsn) return false;
+                table.drop();
+                return true;
+            });
+            unloaded.removeIf(name -> snapshot.lsn(name) < lsn);
+            return;
+        }
+        if (lsn <= appliedLsn(record.table())) return;
+
+        if (record instanceof WalRecord.CreateTable create) {
+            createTable(create.table(), create.columns(), create.storageMode(), create.partitioning());
+        } else if (record instanceof WalRecord.CreateIndex index) {
+            createIndex(index.table(), index.column(), index.indexType());
+        } else if (record instanceof WalRecord.Insert insert) {
+            insertIntoTable(insert.table(), insert.values());
+        } else if (record instanceof WalRecord.InsertRows insert) {
+            insertRows(insert.table(), insert.rows());
+        } else if (record instanceof WalRecord.Update update) {
+            update(update.table(), update.updates(), update.condition());
+        } else if (record instanceof WalRecord.Delete delete) {
+            delete(delete.table(), delete.condition());
+        } else if (record instanceof WalRecord.DropTable drop) {
+            dropTable(drop.table());
+            return;
+        }
+        Table table = table(record.table());
+        if (table != null) table.advanceLsn(lsn);
+    }
+
+    private long appliedLsn(String name) {
+        if (unloaded.contains(name)) return snapshot.lsn(name);
+        Table table = tables.get(name);
+        return table != null ? table.view().lsn() : 0;
+    }
+
+    /**
+     * Looks a table up, loading it from the snapshot on first access.
+     */
+    private Table table(String name) {
+        Table table = tables.get(name);
+        return table != null || !unloaded.contains(name) ? table : load(name);
+    }
+
+    private synchronized Table load(String name) {
+        Table table = tables.get(name);
+        if (table != null || !unloaded.contains(name)) return table;
+        try {
+            table = snapshot.load(name, this::newTable);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load table " + name + " from the snapshot", e);
+        }
+        if (log != null) table.attachLog(log);
+        tables.put(name, table);
+        unloaded.remove(name);
+        return table;
+    }
+
+    protected Table newTable(String name, List<Column> columns, StorageMode storageMode, Partitioning partitioning) {
+        return new Table(name, columns, storageMode, partitioning, scanner);
+    }
+
+    public DatabaseConfig getConfig() {
+        return config;
     }
 
     public boolean createTable(String name, List<Column> columns) {
-        if (tables.containsKey(name)) return false;
-        Table table = new Table(name, columns);
+        return createTable(name, columns, StorageMode.ROW);
+    }
+
+    public boolean createTable(String name, List<Column> columns, StorageMode storageMode) {
+        return createTable(name, columns, storageMode, null);
+    }
+
+    /**
+     * Creates a table whose rows are spread over partitions by {@code partitioning}, or kept in a
+     * single one if it is {@code null}.
+     *
+     * @throws IllegalArgumentException if the partition column is not one of {@code columns}
+     */
+    public synchronized boolean createTable(String name, List<Column> columns, StorageMode storageMode,
+                                            Partitioning partitioning) {
+        if (tables.containsKey(name) || unloaded.contains(name)) return false;
+        Table table = newTable(name, columns, storageMode, partitioning);
+        if (log != null) {
+            long lsn = log.append(new WalRecord.CreateTable(name, columns, storageMode, partitioning));
+            log.commit(lsn);
+            table.advanceLsn(lsn);
+            table.attachLog(log);
+        }
         tables.put(name, table);
         return true;
     }
 
     public boolean insertIntoTable(String tableName, List<Object> values) {
-        Table table = tables.get(tableName);
+        Table table = table(tableName);
         return table != null && table.insertRow(values);
     }
 
+    /**
+     * Inserts all rows or none of them; see {@link Table#insertRows}.
+     */
+    public boolean insertRows(String tableName, List<? extends List<Object>> rows) {
+        Table table = table(tableName);
+        return table != null && table.insertRows(rows);
+    }
+
+    /**
+     * Appends the rows of a CSV file to a table and returns how many there were.
+     *
+     * @see #loadCsv(Table, Path, boolean)
+     */
+    public long load(String tableName, Path file, boolean header) throws IOException {
+        Table table = table(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return loadCsv(table, file, header);
+    }
+
+    /**
+     * Streams a CSV file into {@code table} in batches of {@value #LOAD_BATCH_ROWS} rows, each
+     * inserted under one lock acquisition and log record. A bad row stops the load with an
+     * {@link InvalidCommandException} naming its line; the batches before it stay loaded.
+     */
+    protected static long loadCsv(Table table, Path file, boolean header) throws IOException {
+        List<DataType> types = table.getColumns().values().stream().map(Column::type).toList();
+        long loaded = 0;
+        try (CsvReader reader = new CsvReader(file, types)) {
+            if (header) reader.skipLine();
+            for (List<List<Object>> batch = reader.nextBatch(LOAD_BATCH_ROWS); !batch.isEmpty();
+                 batch = reader.nextBatch(LOAD_BATCH_ROWS)) {
+                if (!table.insertRows(batch)) throw new InvalidCommandException("Table " + table.getName() + " was dropped");
+                loaded += batch.size();
+            }
+        }
+        return loaded;
+    }
+
+    public boolean createIndex(String tableName, String column) {
+        return createIndex(tableName, column, IndexType.HASH);
+    }
+
+    public boolean createIndex(String tableName, String column, IndexType type) {
+        Table table = table(tableName);
+        return table != null && table.createIndex(column, type);
+    }
+
     public List<Row> select(String tableName, List<String> columns, Condition condition) {
-        Table table = tables.get(tableName);
+        Table table = table(tableName);
         return table != null ? table.select(columns, condition) : Collections.emptyList();
     }
 
+    public RowCursor cursor(String tableName, List<String> columns, Condition condition) {
+        Table table = table(tableName);
+        return table != null ? table.cursor(columns, condition) : RowCursor.empty();
+    }
+
+    /**
+     * Opens a sorted cursor over a window of the matches; see {@link Table#cursor(List, Condition, List, int, int)}.
+     */
+    public RowCursor cursor(String tableName, List<String> columns, Condition condition, List<SortKey> orderBy, int offset, int limit) {
+        Table table = table(tableName);
+        return table != null ? table.cursor(columns, condition, orderBy, offset, limit) : RowCursor.empty();
+    }
+
+    /**
+     * Aggregates the matching rows of a table; see {@link Table#aggregate}.
+     */
+    public List<Object[]> aggregate(String tableName, List<String> groupBy, List<Aggregate> aggregates, Condition condition) {
+        Table table = table(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.aggregate(groupBy, aggregates, condition);
+    }
+
+    /**
+     * Opens a cursor over the inner join of two tables; see {@link HashJoin}.
+     */
+    public RowCursor join(String left, String right, String leftKey, String rightKey, List<String> columns, Condition condition) {
+        return hashJoin(left, right, leftKey, rightKey, columns, condition).open();
+    }
+
+    /**
+     * Sets up the inner join of two tables without reading any rows yet, so it can also be explained.
+     */
+    public HashJoin hashJoin(String left, String right, String leftKey, String rightKey, List<String> columns, Condition condition) {
+        Table leftTable = table(left);
+        if (leftTable == null) throw new TableNotFoundException(left);
+        Table rightTable = table(right);
+        if (rightTable == null) throw new TableNotFoundException(right);
+        return new HashJoin(leftTable, rightTable, leftKey, rightKey, columns, condition);
+    }
+
+    /**
+     * Returns how a read of a table would find the rows matching {@code condition}; see
+     * {@link Table#plan}.
+     */
+    public Plan plan(String tableName, Condition condition) {
+        Table table = table(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.plan(condition);
+    }
+
     public int delete(String tableName, Condition condition) {
-        Table table = tables.get(tableName);
+        Table table = table(tableName);
         return table != null ? table.delete(condition) : -1;
     }
 
     public int update(String tableName, Map<String, Object> updates, Condition condition) {
-        Table table = tables.get(tableName);
+        Table table = table(tableName);
         return table != null ? table.update(updates, condition) : -1;
     }
 
+    public boolean hasTable(String name) {
+        return tables.containsKey(name) || unloaded.contains(name);
+    }
+
+    /**
+     * Returns the table's {@link Table#getVersion() version}, or -1 if there is no such table.
+     */
+    public long getTableVersion(String name) {
+        Table table = table(name);
+        return table != null ? table.getVersion() : -1;
+    }
+
     public Set<String> getTableNames() {
-        return new HashSet<>(tables.keySet());
+        Set<String> names = new HashSet<>(tables.keySet());
+        names.addAll(unloaded);
+        return names;
     }
 
-    public void clear() {
+    /**
+     * Removes a table and frees its off-heap memory once no cursor reads it any more.
+     */
+    public synchronized boolean dropTable(String name) {
+        if (!tables.containsKey(name) && !unloaded.contains(name)) return false;
+        if (log != null) {
+            log.commit(log.append(new WalRecord.DropTable(name)));
+        }
+        unloaded.remove(name);
+        Table table = tables.remove(name);
+        if (table != null) table.drop();
+        return true;
+    }
+
+    public synchronized void clear() {
+        if (log != null) {
+            log.commit(log.append(new WalRecord.Clear()));
+        }
+        tables.values().forEach(Table::drop);
         tables.clear();
+        unloaded.clear();
+    }
+
+    /**
+     * Bytes held outside the Java heap by the loaded tables.
+     */
+    public long getOffHeapBytes() {
+        return tables.values().stream().mapToLong(Table::getOffHeapBytes).sum();
+    }
+
+    /**
+     * Latencies of the commands run against the database, recorded by its command processors.
+     */
+    public CommandStats getCommandStats() {
+        return commandStats;
+    }
+
+    /**
+     * Returns the statistics of the loaded tables by name, in name order.
+     */
+    public Map<String, TableStats> getTableStats() {
+        Map<String, TableStats> stats = new TreeMap<>();
+        tables.forEach((name, table) -> stats.put(name, table.getStats()));
+        return stats;
+    }
+
+    /**
+     * Returns every statistic by name: {@code command.<kind>.*} for each kind of command run,
+     * {@code wal.*} when there is a write-ahead log, {@code checkpoint.*} when checkpoints run,
+     * then {@code table.<name>.*} for each loaded table. These are what {@code SHOW STATS} prints
+     * and the MBean registered by {@link #registerMBean()} exposes.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        commandStats.addTo("command", stats);
+        if (log != null) log.addTo("wal", stats);
+        if (checkpointer != null) checkpointer.addTo("checkpoint", stats);
+        getTableStats().forEach((name, tableStats) -> tableStats.addTo("table." + name, stats));
+        return stats;
+    }
+
+    /**
+     * Registers the statistics with the platform MBean server as {@code com.tabledb:type=Statistics},
+     * with an {@code id} added if another database already uses that name, until the database is
+     * closed.
+     */
+    public synchronized ObjectName registerMBean() {
+        if (mbeanName != null) return mbeanName;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (int id = 1; ; id++) {
+                ObjectName name = new ObjectName("com.tabledb:type=Statistics" + (id > 1 ? ",id=" + id : ""));
+                try {
+                    server.registerMBean(new StatsMBean(this::getStatistics), name);
+                    mbeanName = name;
+                    return name;
+                } catch (InstanceAlreadyExistsException e) {
+                    // Taken by another database in this process, so try the next id
+                }
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register the statistics MBean", e);
+        }
+    }
+
+    /**
+     * Writes every table to a snapshot at {@code path}, replacing it atomically. Each table is
+     * written from a pinned view, so writers carry on meanwhile; tables that were never loaded are
+     * copied over from the current snapshot as they are.
+     */
+    public void saveSnapshot(Path path) {
+        snapshotLock.lock();
+        try (SnapshotWriter writer = SnapshotWriter.create(path)) {
+            for (String name : new TreeSet<>(getTableNames())) {
+                Table table = tables.get(name);
+                if (table != null) {
+                    writer.writeTable(table.settledView());
+                } else if (unloaded.contains(name)) {
+                    writer.copyTable(snapshot, name);
+                }
+            }
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a fuzzy checkpoint to the configured snapshot path and drops the log segments it
+     * covers. The log is cut at a point L first; each table is then pinned on its own once every
+     * change up to L has reached it, and the tables are written in parallel. Tables may include
+     * later changes too, which replay skips by comparing LSNs, so writers are never held up for
+     * longer than it takes to pin a table.
+     */
+    public void checkpoint() {
+        if (checkpointer == null) {
+            throw new IllegalStateException("Checkpoints need both a snapshot path and a write-ahead log");
+        }
+        snapshotLock.lock();
+        try {
+            long cutLsn;
+            List<Table> loaded;
+            List<String> copied;
+            // Table creation and clearing log and apply under this monitor, so the cut and the
+            // table list agree
+            synchronized (this) {
+                cutLsn = log.rollover();
+                loaded = new ArrayList<>(tables.values());
+                copied = new ArrayList<>(unloaded);
+            }
+            loaded.sort(Comparator.comparing(Table::getName));
+            List<Table.View> views = new ArrayList<>(loaded.size());
+            for (Table table : loaded) {
+                views.add(table.settledView());
+            }
+
+            try (SnapshotWriter writer = SnapshotWriter.create(config.getSnapshotPath())) {
+                writer.writeTables(views, checkpointer.writers());
+                for (String name : copied) {
+                    writer.copyTable(snapshot, name);
+                }
+                writer.commit();
+            }
+            log.truncateThrough(cutLsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write a checkpoint", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes and closes the write-ahead log, releases the snapshot, if there are any, and stops the
+     * threads of parallel scans.
+     */
+    @Override
+    public void close() {
+        unregisterMBean();
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        if (log != null) {
+            log.close();
+        }
+        if (snapshot != null) {
+            try {
+                snapshot.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (scanner != null) {
+            scanner.shutdown();
+        }
+    }
+
+    private synchronized void unregisterMBean() {
+        if (mbeanName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (JMException e) {
+            // Already gone
+        }
+        mbeanName = null;
     }
-}
\ No newline at end of file
+}
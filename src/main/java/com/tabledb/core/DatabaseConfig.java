@@ -0,0 +1,212 @@
+package com.tabledb.core;
+
+import com.tabledb.wal.FsyncPolicy;
+import com.tabledb.wal.WriteAheadLog;
+
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Engine settings, read from {@code DB_*} environment variables by {@link #fromEnvironment()}.
+ */
+public class DatabaseConfig {
+    private int scanParallelism = Runtime.getRuntime().availableProcessors();
+    private int parallelScanThreshold = 100_000;
+    private Path snapshotPath;
+    private Path walDirectory;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.COMMIT;
+    private long walSegmentBytes = WriteAheadLog.DEFAULT_SEGMENT_BYTES;
+    private long checkpointIntervalMillis = 60_000;
+    private int planCacheSize = 1024;
+    private int resultCacheSize;
+    private long resultCacheBytes = 64L << 20;
+    private String serverBindAddress = InetAddress.getLoopbackAddress().getHostAddress();
+
+    public static DatabaseConfig defaults() {
+        return new DatabaseConfig();
+    }
+
+    public static DatabaseConfig fromEnvironment() {
+        return fromEnvironment(System.getenv());
+    }
+
+    public static DatabaseConfig fromEnvironment(Map<String, String> env) {
+        DatabaseConfig config = new DatabaseConfig();
+        if (env.containsKey("DB_SCAN_PARALLELISM")) {
+            config.setScanParallelism(Integer.parseInt(env.get("DB_SCAN_PARALLELISM").trim()));
+        }
+        if (env.containsKey("DB_PARALLEL_SCAN_THRESHOLD")) {
+            config.setParallelScanThreshold(Integer.parseInt(env.get("DB_PARALLEL_SCAN_THRESHOLD").trim()));
+        }
+        if (env.containsKey("DB_SNAPSHOT_PATH")) {
+            config.setSnapshotPath(Path.of(env.get("DB_SNAPSHOT_PATH").trim()));
+        }
+        if (env.containsKey("DB_WAL_DIR")) {
+            config.setWalDirectory(Path.of(env.get("DB_WAL_DIR").trim()));
+        }
+        if (env.containsKey("DB_WAL_FSYNC")) {
+            config.setFsyncPolicy(FsyncPolicy.parse(env.get("DB_WAL_FSYNC")));
+        }
+        if (env.containsKey("DB_CHECKPOINT_INTERVAL_MS")) {
+            config.setCheckpointIntervalMillis(Long.parseLong(env.get("DB_CHECKPOINT_INTERVAL_MS").trim()));
+        }
+        if (env.containsKey("DB_PLAN_CACHE_SIZE")) {
+            config.setPlanCacheSize(Integer.parseInt(env.get("DB_PLAN_CACHE_SIZE").trim()));
+        }
+        if (env.containsKey("DB_RESULT_CACHE_SIZE")) {
+            config.setResultCacheSize(Integer.parseInt(env.get("DB_RESULT_CACHE_SIZE").trim()));
+        }
+        if (env.containsKey("DB_RESULT_CACHE_BYTES")) {
+            config.setResultCacheBytes(Long.parseLong(env.get("DB_RESULT_CACHE_BYTES").trim()));
+        }
+        if (env.containsKey("DB_SERVER_BIND_ADDRESS")) {
+            config.setServerBindAddress(env.get("DB_SERVER_BIND_ADDRESS").trim());
+        }
+        return config;
+    }
+
+    public int getScanParallelism() {
+        return scanParallelism;
+    }
+
+    /**
+     * Number of threads a single scan may use; 1 disables parallel scans.
+     */
+    public DatabaseConfig setScanParallelism(int scanParallelism) {
+        if (scanParallelism < 1) throw new IllegalArgumentException("Scan parallelism must be at least 1");
+        this.scanParallelism = scanParallelism;
+        return this;
+    }
+
+    public int getParallelScanThreshold() {
+        return parallelScanThreshold;
+    }
+
+    /**
+     * Minimum number of rows before a table is scanned in parallel.
+     */
+    public DatabaseConfig setParallelScanThreshold(int parallelScanThreshold) {
+        if (parallelScanThreshold < 0) throw new IllegalArgumentException("Parallel scan threshold must not be negative");
+        this.parallelScanThreshold = parallelScanThreshold;
+        return this;
+    }
+
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * Snapshot file the database starts from when it exists; {@code null} starts empty.
+     */
+    public DatabaseConfig setSnapshotPath(Path snapshotPath) {
+        this.snapshotPath = snapshotPath;
+        return this;
+    }
+
+    public Path getWalDirectory() {
+        return walDirectory;
+    }
+
+    /**
+     * Directory holding the write-ahead log; {@code null} keeps the database purely in memory.
+     */
+    public DatabaseConfig setWalDirectory(Path walDirectory) {
+        this.walDirectory = walDirectory;
+        return this;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public DatabaseConfig setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        if (fsyncPolicy == null) throw new IllegalArgumentException("Fsync policy must not be null");
+        this.fsyncPolicy = fsyncPolicy;
+        return this;
+    }
+
+    public long getWalSegmentBytes() {
+        return walSegmentBytes;
+    }
+
+    /**
+     * Size after which the log rolls over to a new segment file.
+     */
+    public DatabaseConfig setWalSegmentBytes(long walSegmentBytes) {
+        if (walSegmentBytes < 1) throw new IllegalArgumentException("WAL segment size must be positive");
+        this.walSegmentBytes = walSegmentBytes;
+        return this;
+    }
+
+    public long getCheckpointIntervalMillis() {
+        return checkpointIntervalMillis;
+    }
+
+    /**
+     * Delay between background checkpoints, which need both a snapshot path and a write-ahead log;
+     * 0 leaves checkpoints to {@code Database.checkpoint()}.
+     */
+    public DatabaseConfig setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+        if (checkpointIntervalMillis < 0) throw new IllegalArgumentException("Checkpoint interval must not be negative");
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+        return this;
+    }
+
+    public int getPlanCacheSize() {
+        return planCacheSize;
+    }
+
+    /**
+     * Number of parsed commands kept for reuse; 0 parses every command afresh.
+     */
+    public DatabaseConfig setPlanCacheSize(int planCacheSize) {
+        if (planCacheSize < 0) throw new IllegalArgumentException("Plan cache size must not be negative");
+        this.planCacheSize = planCacheSize;
+        return this;
+    }
+
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    /**
+     * Number of query results kept until a table they read changes; 0, the default, disables the
+     * result cache.
+     */
+    public DatabaseConfig setResultCacheSize(int resultCacheSize) {
+        if (resultCacheSize < 0) throw new IllegalArgumentException("Result cache size must not be negative");
+        this.resultCacheSize = resultCacheSize;
+        return this;
+    }
+
+    public long getResultCacheBytes() {
+        return resultCacheBytes;
+    }
+
+    /**
+     * Estimated heap the cached results may take in all.
+     */
+    public DatabaseConfig setResultCacheBytes(long resultCacheBytes) {
+        if (resultCacheBytes < 0) throw new IllegalArgumentException("Result cache bytes must not be negative");
+        this.resultCacheBytes = resultCacheBytes;
+        return this;
+    }
+
+    public String getServerBindAddress() {
+        return serverBindAddress;
+    }
+
+    /**
+     * Address the TCP server listens on: the loopback address by default, so only local clients can
+     * connect. Sessions are not authenticated, so listen more widely, such as on {@code 0.0.0.0}
+     * for all interfaces, only on a trusted network.
+     */
+    public DatabaseConfig setServerBindAddress(String serverBindAddress) {
+        if (serverBindAddress == null || serverBindAddress.isBlank()) {
+            throw new IllegalArgumentException("Server bind address must not be empty");
+        }
+        this.serverBindAddress = serverBindAddress;
+        return this;
+    }
+}
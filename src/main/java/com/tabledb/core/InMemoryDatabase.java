@@ -2,26 +2,40 @@ package com.tabledb.core;
 
 import com.tabledb.model.Table;
 import com.tabledb.condition.Condition;
+import com.tabledb.index.IndexType;
+import com.tabledb.metrics.TableStats;
+import com.tabledb.model.Aggregate;
 import com.tabledb.model.Column;
+import com.tabledb.model.HashJoin;
+import com.tabledb.model.Partitioning;
+import com.tabledb.planner.Plan;
 import com.tabledb.model.Row;
+import com.tabledb.model.RowCursor;
+import com.tabledb.model.SortKey;
+import com.tabledb.model.StorageMode;
 import com.tabledb.exception.TableNotFoundException;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class InMemoryDatabase extends Database {
     private final Map<String, Table> tables;
 
     public InMemoryDatabase() {
+        // Tables live only in this subclass, so there is nothing to restore or recover
+        super(DatabaseConfig.fromEnvironment().setSnapshotPath(null).setWalDirectory(null));
         this.tables = new ConcurrentHashMap<>();
     }
 
     @Override
-    public boolean createTable(String name, List<Column> columns) {
+    public boolean createTable(String name, List<Column> columns, StorageMode storageMode, Partitioning partitioning) {
         if (tables.containsKey(name)) return false;
-        tables.put(name, new Table(name, columns));
+        tables.put(name, newTable(name, columns, storageMode, partitioning));
         return true;
     }
 
@@ -32,6 +46,27 @@ public class InMemoryDatabase extends Database {
         return table.insertRow(values);
     }
 
+    @Override
+    public boolean insertRows(String tableName, List<? extends List<Object>> rows) {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.insertRows(rows);
+    }
+
+    @Override
+    public long load(String tableName, Path file, boolean header) throws IOException {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return loadCsv(table, file, header);
+    }
+
+    @Override
+    public boolean createIndex(String tableName, String column, IndexType type) {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.createIndex(column, type);
+    }
+
     @Override
     public List<Row> select(String tableName, List<String> columns, Condition condition) {
         Table table = tables.get(tableName);
@@ -39,6 +74,43 @@ public class InMemoryDatabase extends Database {
         return table.select(columns, condition);
     }
 
+    @Override
+    public RowCursor cursor(String tableName, List<String> columns, Condition condition) {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.cursor(columns, condition);
+    }
+
+    @Override
+    public RowCursor cursor(String tableName, List<String> columns, Condition condition, List<SortKey> orderBy, int offset, int limit) {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.cursor(columns, condition, orderBy, offset, limit);
+    }
+
+    @Override
+    public List<Object[]> aggregate(String tableName, List<String> groupBy, List<Aggregate> aggregates, Condition condition) {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.aggregate(groupBy, aggregates, condition);
+    }
+
+    @Override
+    public HashJoin hashJoin(String left, String right, String leftKey, String rightKey, List<String> columns, Condition condition) {
+        Table leftTable = tables.get(left);
+        if (leftTable == null) throw new TableNotFoundException(left);
+        Table rightTable = tables.get(right);
+        if (rightTable == null) throw new TableNotFoundException(right);
+        return new HashJoin(leftTable, rightTable, leftKey, rightKey, columns, condition);
+    }
+
+    @Override
+    public Plan plan(String tableName, Condition condition) {
+        Table table = tables.get(tableName);
+        if (table == null) throw new TableNotFoundException(tableName);
+        return table.plan(condition);
+    }
+
     @Override
     public int delete(String tableName, Condition condition) {
         Table table = tables.get(tableName);
@@ -53,13 +125,45 @@ public class InMemoryDatabase extends Database {
         return table.update(updates, condition);
     }
 
+    @Override
+    public boolean hasTable(String name) {
+        return tables.containsKey(name);
+    }
+
+    @Override
+    public long getTableVersion(String name) {
+        Table table = tables.get(name);
+        return table != null ? table.getVersion() : -1;
+    }
+
     @Override
     public Set<String> getTableNames() {
         return tables.keySet();
     }
 
+    @Override
+    public boolean dropTable(String name) {
+        Table table = tables.remove(name);
+        if (table == null) throw new TableNotFoundException(name);
+        table.drop();
+        return true;
+    }
+
+    @Override
+    public long getOffHeapBytes() {
+        return tables.values().stream().mapToLong(Table::getOffHeapBytes).sum();
+    }
+
+    @Override
+    public Map<String, TableStats> getTableStats() {
+        Map<String, TableStats> stats = new TreeMap<>();
+        tables.forEach((name, table) -> stats.put(name, table.getStats()));
+        return stats;
+    }
+
     @Override
     public void clear() {
+        tables.values().forEach(Table::drop);
         tables.clear();
     }
 }
\ No newline at end of file
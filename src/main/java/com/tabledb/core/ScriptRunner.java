@@ -0,0 +1,101 @@
+package com.tabledb.core;
+
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.command.Statement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs a script of commands, one per line, with parsing and execution overlapped: a parser thread
+ * reads and plans the lines ahead while the calling thread executes them in order. Plans are
+ * handed over in batches through a bounded queue, so a long script never piles up in memory.
+ * Output is the same as entering the commands interactively.
+ */
+final class ScriptRunner {
+    private static final int BATCH_SIZE = 256;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private final CommandProcessor processor;
+
+    /**
+     * Lines planned together. A {@code null} plan stands for a line that did not parse; the batch
+     * with {@code last} set ends the script, possibly because reading failed.
+     */
+    private record Batch(List<Statement> plans, boolean last, IOException failure) {
+    }
+
+    ScriptRunner(CommandProcessor processor) {
+        this.processor = processor;
+    }
+
+    /**
+     * Executes every line of {@code input} until it ends or a command stops the processor.
+     */
+    void run(BufferedReader input, Writer out) throws IOException {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        Thread parser = new Thread(() -> parse(input, queue), "tabledb-script-parser");
+        parser.setDaemon(true);
+        parser.start();
+
+        String lineSeparator = System.lineSeparator();
+        try {
+            while (processor.isRunning()) {
+                Batch batch = queue.take();
+                for (Statement plan : batch.plans()) {
+                    if (!processor.isRunning()) break;
+                    if (plan != null) {
+                        processor.execute(plan, out);
+                    } else {
+                        out.write("INVALID_COMMAND");
+                    }
+                    out.write(lineSeparator);
+                }
+                if (batch.failure() != null) throw batch.failure();
+                if (batch.last()) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while running the script");
+        } finally {
+            // The parser may still be reading ahead past an EXIT
+            parser.interrupt();
+            out.flush();
+        }
+    }
+
+    private void parse(BufferedReader input, BlockingQueue<Batch> queue) {
+        try {
+            List<Statement> plans = new ArrayList<>(BATCH_SIZE);
+            IOException failure = null;
+            try {
+                for (String line = input.readLine(); line != null; line = input.readLine()) {
+                    plans.add(plan(line));
+                    if (plans.size() == BATCH_SIZE) {
+                        queue.put(new Batch(plans, false, null));
+                        plans = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            queue.put(new Batch(plans, true, failure));
+        } catch (InterruptedException e) {
+            // Execution stopped, nobody is waiting for more plans
+        }
+    }
+
+    private Statement plan(String line) {
+        try {
+            return processor.plan(line);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tabledb.index;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HashIndex implements Index {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final String column;
+    private final Map<Object, PositionList> entries;
+
+    public HashIndex(String column) {
+        this.column = column;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public IndexType type() {
+        return IndexType.HASH;
+    }
+
+    @Override
+    public void add(Object value, int position) {
+        entries.computeIfAbsent(value, key -> new PositionList()).add(position);
+    }
+
+    @Override
+    public int[] lookup(Object value) {
+        PositionList positions = entries.get(value);
+        return positions != null ? positions.toArray() : NO_POSITIONS;
+    }
+}
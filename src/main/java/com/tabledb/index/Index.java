@@ -0,0 +1,19 @@
+package com.tabledb.index;
+
+/**
+ * Maps column values to the storage positions holding them. Entries are only ever added: positions
+ * of superseded row versions stay until the table is vacuumed and its indexes are rebuilt, so
+ * callers must check every returned position for visibility.
+ */
+public interface Index {
+    String column();
+
+    IndexType type();
+
+    void add(Object value, int position);
+
+    /**
+     * Returns the positions holding {@code value} in ascending order.
+     */
+    int[] lookup(Object value);
+}
@@ -0,0 +1,12 @@
+package com.tabledb.index;
+
+public enum IndexType {
+    HASH, ORDERED;
+
+    public Index create(String column) {
+        return switch (this) {
+            case HASH -> new HashIndex(column);
+            case ORDERED -> new OrderedIndex(column);
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.tabledb.index;
+
+import com.tabledb.model.ValueRange;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Skip-list index keeping values in sorted order, so range lookups cost O(log n + k).
+ */
+public class OrderedIndex implements Index {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final String column;
+    private final ConcurrentSkipListMap<Object, PositionList> entries;
+
+    public OrderedIndex(String column) {
+        this.column = column;
+        this.entries = new ConcurrentSkipListMap<>(ValueComparator.INSTANCE);
+    }
+
+    @Override
+    public String column() {
+        return column;
+    }
+
+    @Override
+    public IndexType type() {
+        return IndexType.ORDERED;
+    }
+
+    @Override
+    public void add(Object value, int position) {
+        entries.computeIfAbsent(value, key -> new PositionList()).add(position);
+    }
+
+    @Override
+    public int[] lookup(Object value) {
+        PositionList positions = entries.get(value);
+        return positions != null ? positions.toArray() : NO_POSITIONS;
+    }
+
+    /**
+     * Lazily walks every indexed position in value order, ascending or descending. Positions holding
+     * the same value come in ascending order either way.
+     */
+    public PrimitiveIterator.OfInt positions(boolean descending) {
+        Iterator<PositionList> lists = (descending ? entries.descendingMap() : entries).values().iterator();
+        return new PrimitiveIterator.OfInt() {
+            private int[] current = NO_POSITIONS;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == current.length) {
+                    if (!lists.hasNext()) return false;
+                    current = lists.next().toArray();
+                    next = 0;
+                }
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current[next++];
+            }
+        };
+    }
+
+    /**
+     * Returns the ascending positions whose value lies within {@code range}.
+     */
+    public int[] range(ValueRange range) {
+        NavigableMap<Object, PositionList> slice;
+        if (range.lower() != null && range.upper() != null) {
+            if (ValueComparator.INSTANCE.compare(range.lower(), range.upper()) > 0) return NO_POSITIONS;
+            slice = entries.subMap(range.lower(), range.lowerInclusive(), range.upper(), range.upperInclusive());
+        } else if (range.lower() != null) {
+            slice = entries.tailMap(range.lower(), range.lowerInclusive());
+        } else {
+            slice = entries.headMap(range.upper(), range.upperInclusive());
+        }
+
+        int count = 0;
+        int[] positions = new int[16];
+        for (PositionList list : slice.values()) {
+            int[] keyPositions = list.toArray();
+            if (count + keyPositions.length > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, count + keyPositions.length));
+            }
+            System.arraycopy(keyPositions, 0, positions, count, keyPositions.length);
+            count += keyPositions.length;
+        }
+        positions = Arrays.copyOf(positions, count);
+        Arrays.sort(positions);
+        return positions;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tabledb.index;
+
+import java.util.Arrays;
+
+/**
+ * Ascending, append-only list of row positions held by an index entry. Storage only ever appends,
+ * so new positions arrive in order; readers may copy the list while the writer appends.
+ */
+public final class PositionList {
+    private volatile int[] positions = new int[2];
+    private volatile int size;
+
+    void add(int position) {
+        int count = size;
+        if (count > 0 && positions[count - 1] >= position) {
+            throw new IllegalStateException("Positions must be added in ascending order");
+        }
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+        }
+        positions[count] = position;
+        size = count + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int[] toArray() {
+        int count = size;
+        return Arrays.copyOf(positions, count);
+    }
+}
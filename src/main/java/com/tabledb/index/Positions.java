@@ -0,0 +1,29 @@
+package com.tabledb.index;
+
+import java.util.Arrays;
+
+public final class Positions {
+    private Positions() {
+    }
+
+    /**
+     * Merges two ascending position arrays into one ascending array without duplicates.
+     */
+    public static int[] union(int[] left, int[] right) {
+        int[] merged = new int[left.length + right.length];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                merged[k++] = left[i++];
+            } else if (left[i] > right[j]) {
+                merged[k++] = right[j++];
+            } else {
+                merged[k++] = left[i++];
+                j++;
+            }
+        }
+        while (i < left.length) merged[k++] = left[i++];
+        while (j < right.length) merged[k++] = right[j++];
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tabledb.index;
+
+import com.tabledb.storage.TableStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The secondary indexes over one storage generation of a table. The writer adds every appended
+ * version while holding the table's lock; readers look entries up concurrently.
+ */
+public class TableIndexes {
+    private final TableStorage storage;
+    private final Map<String, Index> indexes;
+
+    public TableIndexes(TableStorage storage) {
+        this.storage = storage;
+        this.indexes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Indexes every version in the storage, then publishes the index to readers.
+     */
+    public boolean create(Index index) {
+        int ordinal = storage.schema().ordinal(index.column());
+        if (ordinal < 0) throw new IllegalArgumentException("Unknown column: " + index.column());
+        if (indexes.containsKey(index.column())) return false;
+        for (int pos = 0, n = storage.positions(); pos < n; pos++) {
+            index.add(storage.getValue(pos, ordinal), pos);
+        }
+        indexes.put(index.column(), index);
+        return true;
+    }
+
+    public Index get(String column) {
+        return indexes.get(column);
+    }
+
+    public boolean isEmpty() {
+        return indexes.isEmpty();
+    }
+
+    public List<String> columns() {
+        return new ArrayList<>(indexes.keySet());
+    }
+
+    public void rowAdded(int position) {
+        for (Index index : indexes.values()) {
+            index.add(storage.getValue(position, storage.schema().ordinal(index.column())), position);
+        }
+    }
+
+    /**
+     * Builds the same set of indexes over another storage generation.
+     */
+    public TableIndexes rebuildFor(TableStorage target) {
+        TableIndexes rebuilt = new TableIndexes(target);
+        for (Index index : indexes.values()) {
+            rebuilt.create(index.type().create(index.column()));
+        }
+        return rebuilt;
+    }
+}
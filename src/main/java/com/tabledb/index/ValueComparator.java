@@ -0,0 +1,23 @@
+package com.tabledb.index;
+
+import java.util.Comparator;
+
+/**
+ * Orders column values of mixed runtime types: values of the same type compare naturally,
+ * otherwise they are grouped by type so ordered structures never throw ClassCastException.
+ */
+public final class ValueComparator implements Comparator<Object> {
+    public static final ValueComparator INSTANCE = new ValueComparator();
+
+    private ValueComparator() {
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compare(Object left, Object right) {
+        if (left.getClass() == right.getClass() && left instanceof Comparable) {
+            return ((Comparable) left).compareTo(right);
+        }
+        return left.getClass().getName().compareTo(right.getClass().getName());
+    }
+}
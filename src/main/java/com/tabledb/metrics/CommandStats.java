@@ -0,0 +1,49 @@
+package com.tabledb.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counts per kind of command, shared by all sessions of a database. Parsing is
+ * recorded as a kind of its own, so a slow command can be told apart from a slow parse.
+ */
+public final class CommandStats {
+    private final Map<String, Kind> kinds = new ConcurrentHashMap<>();
+
+    private static final class Kind {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * @param failed whether the command was rejected, such as with {@code INVALID_COMMAND}
+     */
+    public void record(String kind, long nanos, boolean failed) {
+        Kind stats = kinds.get(kind);
+        if (stats == null) stats = kinds.computeIfAbsent(kind, k -> new Kind());
+        stats.latency.record(nanos);
+        if (failed) stats.errors.increment();
+    }
+
+    /**
+     * Returns the latencies of {@code kind}, or {@code null} if none was recorded.
+     */
+    public LatencyHistogram getLatency(String kind) {
+        Kind stats = kinds.get(kind);
+        return stats != null ? stats.latency : null;
+    }
+
+    public long getErrors(String kind) {
+        Kind stats = kinds.get(kind);
+        return stats != null ? stats.errors.sum() : 0;
+    }
+
+    public void addTo(String prefix, Map<String, Long> stats) {
+        new TreeMap<>(kinds).forEach((kind, kindStats) -> {
+            kindStats.latency.addTo(prefix + "." + kind, stats);
+            stats.put(prefix + "." + kind + ".errors", kindStats.errors.sum());
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.tabledb.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Each power of two is split into four buckets,
+ * so a percentile is reported within 25% of the true value, and recording costs a few atomic
+ * increments without allocating.
+ */
+public final class LatencyHistogram {
+    // Durations below 4 ns get a bucket each, then four per power of two up to 2^62
+    private static final int BUCKETS = 248;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < 4) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        return (exponent - 1) * 4 + (int) (nanos >>> (exponent - 2) & 3);
+    }
+
+    // Largest duration that falls into the bucket
+    static long upperBound(int bucket) {
+        if (bucket < 4) return bucket;
+        int exponent = bucket / 4 + 1;
+        long width = 1L << (exponent - 2);
+        return (4 + bucket % 4) * width + width - 1;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the duration that a {@code quantile} (between 0 and 1) of the recorded ones do not
+     * exceed, rounded up to its bucket's bound, or 0 if nothing was recorded.
+     */
+    public long getPercentileNanos(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = counts.get(b);
+            total += snapshot[b];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) return Math.min(upperBound(b), getMaxNanos());
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Adds the count, mean, median, 99th percentile and maximum to {@code stats}, under names
+     * starting with {@code prefix}.
+     */
+    public void addTo(String prefix, Map<String, Long> stats) {
+        stats.put(prefix + ".count", getCount());
+        stats.put(prefix + ".mean_ns", getMeanNanos());
+        stats.put(prefix + ".p50_ns", getPercentileNanos(0.5));
+        stats.put(prefix + ".p99_ns", getPercentileNanos(0.99));
+        stats.put(prefix + ".max_ns", getMaxNanos());
+    }
+}
@@ -0,0 +1,65 @@
+package com.tabledb.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Read-only MBean with one {@code long} attribute per statistic, named as in {@code SHOW STATS}.
+ * The attributes are read afresh on every call, so commands and tables that appear later show up
+ * without registering anything again.
+ */
+public final class StatsMBean implements DynamicMBean {
+    private final Supplier<Map<String, Long>> stats;
+
+    public StatsMBean(Supplier<Map<String, Long>> stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Long value = stats.get().get(attribute);
+        if (value == null) throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Long> current = stats.get();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Long value = current.get(attribute);
+            if (value != null) list.add(new Attribute(attribute, value));
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Statistics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] attributes = stats.get().keySet().stream()
+                .map(name -> new MBeanAttributeInfo(name, Long.class.getName(), name, true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        return new MBeanInfo(getClass().getName(), "TableDB statistics", attributes, null, null, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.tabledb.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the reads and writes of one table. Reads are counted once their cursor is
+ * done: positions examined and blocks skipped versus rows handed out tell how well conditions are
+ * narrowed. Reads
+ * take no lock, so lock times are those of writers waiting for and holding partition locks.
+ */
+public final class TableStats {
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder rowsScanned = new LongAdder();
+    private final LongAdder rowsReturned = new LongAdder();
+    private final LongAdder blocksSkipped = new LongAdder();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final LatencyHistogram lockHold = new LatencyHistogram();
+
+    /**
+     * Records a finished read that examined {@code scanned} row versions, returned {@code returned}
+     * rows and skipped {@code skipped} blocks without examining them.
+     */
+    public void recordScan(long scanned, long returned, long skipped) {
+        scans.increment();
+        rowsScanned.add(scanned);
+        rowsReturned.add(returned);
+        blocksSkipped.add(skipped);
+    }
+
+    public void recordLockWait(long nanos) {
+        lockWait.record(nanos);
+    }
+
+    public void recordLockHold(long nanos) {
+        lockHold.record(nanos);
+    }
+
+    public long getScans() {
+        return scans.sum();
+    }
+
+    public long getRowsScanned() {
+        return rowsScanned.sum();
+    }
+
+    public long getRowsReturned() {
+        return rowsReturned.sum();
+    }
+
+    public long getBlocksSkipped() {
+        return blocksSkipped.sum();
+    }
+
+    public LatencyHistogram getLockWait() {
+        return lockWait;
+    }
+
+    public LatencyHistogram getLockHold() {
+        return lockHold;
+    }
+
+    public void addTo(String prefix, Map<String, Long> stats) {
+        stats.put(prefix + ".scans", getScans());
+        stats.put(prefix + ".rows_scanned", getRowsScanned());
+        stats.put(prefix + ".rows_returned", getRowsReturned());
+        stats.put(prefix + ".blocks_skipped", getBlocksSkipped());
+        lockWait.addTo(prefix + ".lock_wait", stats);
+        lockHold.addTo(prefix + ".lock_hold", stats);
+    }
+}
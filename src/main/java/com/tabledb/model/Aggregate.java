@@ -0,0 +1,30 @@
+package com.tabledb.model;
+
+/**
+ * An aggregate function applied to a column, or to whole rows for {@code COUNT(*)}.
+ *
+ * @param column the aggregated column, {@code null} for {@code COUNT(*)}
+ */
+public record Aggregate(Function function, String column) {
+    public enum Function {
+        COUNT, SUM, MIN, MAX, AVG
+    }
+
+    public Aggregate {
+        if (function == null || (column == null && function != Function.COUNT)) {
+            throw new IllegalArgumentException("Only COUNT can be applied to whole rows");
+        }
+    }
+
+    public static Aggregate countAll() {
+        return new Aggregate(Function.COUNT, null);
+    }
+
+    /**
+     * The aggregate as written in a query, such as {@code SUM(age)}, which names its result column.
+     */
+    @Override
+    public String toString() {
+        return function + "(" + (column != null ? column : "*") + ")";
+    }
+}
@@ -0,0 +1,471 @@
+package com.tabledb.model;
+
+import com.tabledb.storage.TableStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash aggregation over the positions of one storage generation. Every aggregate keeps its state
+ * in primitive arrays indexed by group number, and groups are numbered in the order they are first
+ * seen. Partial aggregations built over separate position ranges merge into the same result, in
+ * the same group order, as a single pass would.
+ */
+final class Aggregation {
+    private final TableStorage storage;
+    private final int[] keyOrdinals;
+    private final Groups groups;
+    private final Accumulator[] accumulators;
+
+    /**
+     * @throws IllegalArgumentException if a column does not exist or cannot be aggregated that way
+     */
+    Aggregation(TableStorage storage, List<String> groupBy, List<Aggregate> aggregates) {
+        this.storage = storage;
+        Schema schema = storage.schema();
+        this.keyOrdinals = new int[groupBy.size()];
+        for (int i = 0; i < keyOrdinals.length; i++) {
+            keyOrdinals[i] = ordinal(schema, groupBy.get(i));
+        }
+        this.accumulators = new Accumulator[aggregates.size()];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = accumulator(schema, aggregates.get(i));
+        }
+        this.groups = newGroups();
+    }
+
+    private Aggregation(Aggregation template) {
+        this.storage = template.storage;
+        this.keyOrdinals = template.keyOrdinals;
+        this.accumulators = new Accumulator[template.accumulators.length];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = template.accumulators[i].newPartial();
+        }
+        this.groups = newGroups();
+    }
+
+    private Groups newGroups() {
+        if (keyOrdinals.length == 0) return new SingleGroup();
+        if (keyOrdinals.length == 1 && storage.schema().column(keyOrdinals[0]).type() == DataType.INT) {
+            return new IntGroups(keyOrdinals[0]);
+        }
+        return new ValueGroups();
+    }
+
+    private static int ordinal(Schema schema, String column) {
+        int ordinal = schema.ordinal(column);
+        if (ordinal < 0) throw new IllegalArgumentException("Unknown column: " + column);
+        return ordinal;
+    }
+
+    private Accumulator accumulator(Schema schema, Aggregate aggregate) {
+        // No value is ever missing, so COUNT(column) counts the same rows as COUNT(*)
+        if (aggregate.column() == null) return new Count();
+        int ordinal = ordinal(schema, aggregate.column());
+        boolean isInt = schema.column(ordinal).type() == DataType.INT;
+        return switch (aggregate.function()) {
+            case COUNT -> new Count();
+            case SUM, AVG -> {
+                if (!isInt) throw new IllegalArgumentException(aggregate + " needs an INT column");
+                yield new IntSum(ordinal, aggregate.function() == Aggregate.Function.AVG);
+            }
+            case MIN, MAX -> isInt ?
+                    new IntExtreme(ordinal, aggregate.function() == Aggregate.Function.MAX) :
+                    new ValueExtreme(ordinal, aggregate.function() == Aggregate.Function.MAX);
+        };
+    }
+
+    /**
+     * Returns an empty aggregation of the same columns, for one range of a parallel scan.
+     */
+    Aggregation newPartial() {
+        return new Aggregation(this);
+    }
+
+    void add(int position) {
+        int group = groups.groupOf(position);
+        for (Accumulator accumulator : accumulators) {
+            accumulator.add(group, position);
+        }
+    }
+
+    /**
+     * Folds {@code other}, built over later positions, into this aggregation and returns it.
+     */
+    Aggregation merge(Aggregation other) {
+        for (int otherGroup = 0; otherGroup < other.groups.size(); otherGroup++) {
+            int group = groups.groupOf(other.groups, otherGroup);
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].merge(group, other.accumulators[i], otherGroup);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * One row per group, in order of first appearance: the group-by values followed by the results
+     * of the aggregates.
+     */
+    List<Object[]> results() {
+        List<Object[]> rows = new ArrayList<>(groups.size());
+        for (int group = 0; group < groups.size(); group++) {
+            Object[] row = new Object[keyOrdinals.length + accumulators.length];
+            groups.key(group, row);
+            for (int i = 0; i < accumulators.length; i++) {
+                row[keyOrdinals.length + i] = accumulators[i].result(group);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static int capacityFor(int group, int length) {
+        return Math.max(group + 1, Math.max(16, length * 2));
+    }
+
+    /**
+     * Numbers the distinct group-by keys.
+     */
+    private abstract static class Groups {
+        /**
+         * Returns the group of the row at {@code position}, adding one if its key is new.
+         */
+        abstract int groupOf(int position);
+
+        /**
+         * Returns the group with the key of {@code group} in {@code other}, adding one if it is new.
+         */
+        abstract int groupOf(Groups other, int group);
+
+        abstract int size();
+
+        /**
+         * Writes the key values of {@code group} to the start of {@code row}.
+         */
+        abstract void key(int group, Object[] row);
+    }
+
+    // Without GROUP BY there is exactly one group, even when no row matches
+    private static final class SingleGroup extends Groups {
+        @Override
+        int groupOf(int position) {
+            return 0;
+        }
+
+        @Override
+        int groupOf(Groups other, int group) {
+            return 0;
+        }
+
+        @Override
+        int size() {
+            return 1;
+        }
+
+        @Override
+        void key(int group, Object[] row) {
+        }
+    }
+
+    /**
+     * Groups on a single INT column through an open-addressing table of primitive keys.
+     */
+    private final class IntGroups extends Groups {
+        private final int ordinal;
+        private int[] keys = new int[16];
+        // Group number plus one for each slot, 0 when the slot is free
+        private int[] slots = new int[32];
+        private int size;
+
+        IntGroups(int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        int groupOf(int position) {
+            return groupOfKey(storage.getInt(position, ordinal));
+        }
+
+        @Override
+        int groupOf(Groups other, int group) {
+            return groupOfKey(((IntGroups) other).keys[group]);
+        }
+
+        private int groupOfKey(int key) {
+            int mask = slots.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                int entry = slots[slot];
+                if (entry == 0) return add(key, slot);
+                if (keys[entry - 1] == key) return entry - 1;
+            }
+        }
+
+        private int add(int key, int slot) {
+            if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+            keys[size] = key;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) rehash();
+            return size - 1;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int group = 0; group < size; group++) {
+                int slot = hash(keys[group]) & mask;
+                while (slots[slot] != 0) slot = (slot + 1) & mask;
+                slots[slot] = group + 1;
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        void key(int group, Object[] row) {
+            row[0] = keys[group];
+        }
+    }
+
+    /**
+     * Groups on STRING or several columns. A single value is its own key; several are held in a list.
+     */
+    private final class ValueGroups extends Groups {
+        private final Map<Object, Integer> numbers = new HashMap<>();
+        private final List<Object> keys = new ArrayList<>();
+
+        @Override
+        int groupOf(int position) {
+            Object key;
+            if (keyOrdinals.length == 1) {
+                key = storage.getValue(position, keyOrdinals[0]);
+            } else {
+                Object[] values = new Object[keyOrdinals.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = storage.getValue(position, keyOrdinals[i]);
+                }
+                key = Arrays.asList(values);
+            }
+            return groupOfKey(key);
+        }
+
+        @Override
+        int groupOf(Groups other, int group) {
+            return groupOfKey(((ValueGroups) other).keys.get(group));
+        }
+
+        private int groupOfKey(Object key) {
+            Integer group = numbers.get(key);
+            if (group != null) return group;
+            numbers.put(key, keys.size());
+            keys.add(key);
+            return keys.size() - 1;
+        }
+
+        @Override
+        int size() {
+            return keys.size();
+        }
+
+        @Override
+        void key(int group, Object[] row) {
+            Object key = keys.get(group);
+            if (keyOrdinals.length == 1) {
+                row[0] = key;
+            } else {
+                List<?> values = (List<?>) key;
+                for (int i = 0; i < values.size(); i++) {
+                    row[i] = values.get(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * The running state of one aggregate for every group.
+     */
+    private abstract static class Accumulator {
+        abstract void add(int group, int position);
+
+        abstract void merge(int group, Accumulator other, int otherGroup);
+
+        abstract Object result(int group);
+
+        abstract Accumulator newPartial();
+    }
+
+    private static final class Count extends Accumulator {
+        private long[] counts = new long[1];
+
+        private void ensure(int group) {
+            if (group >= counts.length) counts = Arrays.copyOf(counts, capacityFor(group, counts.length));
+        }
+
+        @Override
+        void add(int group, int position) {
+            ensure(group);
+            counts[group]++;
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            Count partial = (Count) other;
+            if (otherGroup >= partial.counts.length) return;
+            ensure(group);
+            counts[group] += partial.counts[otherGroup];
+        }
+
+        @Override
+        Object result(int group) {
+            return group < counts.length ? counts[group] : 0L;
+        }
+
+        @Override
+        Accumulator newPartial() {
+            return new Count();
+        }
+    }
+
+    // Sums into a long, which cannot overflow for any number of rows a table can hold
+    private final class IntSum extends Accumulator {
+        private final int ordinal;
+        private final boolean average;
+        private long[] sums = new long[1];
+        private long[] counts = new long[1];
+
+        IntSum(int ordinal, boolean average) {
+            this.ordinal = ordinal;
+            this.average = average;
+        }
+
+        private void ensure(int group) {
+            if (group >= sums.length) {
+                sums = Arrays.copyOf(sums, capacityFor(group, sums.length));
+                counts = Arrays.copyOf(counts, sums.length);
+            }
+        }
+
+        @Override
+        void add(int group, int position) {
+            ensure(group);
+            sums[group] += storage.getInt(position, ordinal);
+            counts[group]++;
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            IntSum partial = (IntSum) other;
+            if (otherGroup >= partial.sums.length) return;
+            ensure(group);
+            sums[group] += partial.sums[otherGroup];
+            counts[group] += partial.counts[otherGroup];
+        }
+
+        @Override
+        Object result(int group) {
+            if (group >= counts.length || counts[group] == 0) return null;
+            return average ? (Object) ((double) sums[group] / counts[group]) : (Object) sums[group];
+        }
+
+        @Override
+        Accumulator newPartial() {
+            return new IntSum(ordinal, average);
+        }
+    }
+
+    private final class IntExtreme extends Accumulator {
+        private final int ordinal;
+        private final boolean max;
+        private int[] values = new int[1];
+        private boolean[] seen = new boolean[1];
+
+        IntExtreme(int ordinal, boolean max) {
+            this.ordinal = ordinal;
+            this.max = max;
+        }
+
+        @Override
+        void add(int group, int position) {
+            offer(group, storage.getInt(position, ordinal));
+        }
+
+        private void offer(int group, int value) {
+            if (group >= values.length) {
+                values = Arrays.copyOf(values, capacityFor(group, values.length));
+                seen = Arrays.copyOf(seen, values.length);
+            }
+            if (!seen[group] || (max ? value > values[group] : value < values[group])) {
+                values[group] = value;
+                seen[group] = true;
+            }
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            IntExtreme partial = (IntExtreme) other;
+            if (otherGroup < partial.seen.length && partial.seen[otherGroup]) offer(group, partial.values[otherGroup]);
+        }
+
+        @Override
+        Object result(int group) {
+            return group < seen.length && seen[group] ? values[group] : null;
+        }
+
+        @Override
+        Accumulator newPartial() {
+            return new IntExtreme(ordinal, max);
+        }
+    }
+
+    private final class ValueExtreme extends Accumulator {
+        private final int ordinal;
+        private final boolean max;
+        private String[] values = new String[1];
+
+        ValueExtreme(int ordinal, boolean max) {
+            this.ordinal = ordinal;
+            this.max = max;
+        }
+
+        @Override
+        void add(int group, int position) {
+            offer(group, (String) storage.getValue(position, ordinal));
+        }
+
+        private void offer(int group, String value) {
+            if (group >= values.length) values = Arrays.copyOf(values, capacityFor(group, values.length));
+            String current = values[group];
+            if (current == null || (max ? value.compareTo(current) > 0 : value.compareTo(current) < 0)) {
+                values[group] = value;
+            }
+        }
+
+        @Override
+        void merge(int group, Accumulator other, int otherGroup) {
+            ValueExtreme partial = (ValueExtreme) other;
+            if (otherGroup < partial.values.length && partial.values[otherGroup] != null) {
+                offer(group, partial.values[otherGroup]);
+            }
+        }
+
+        @Override
+        Object result(int group) {
+            return group < values.length ? values[group] : null;
+        }
+
+        @Override
+        Accumulator newPartial() {
+            return new ValueExtreme(ordinal, max);
+        }
+    }
+}
@@ -5,15 +5,45 @@ public enum DataType {
 
     public boolean isValidValue(Object value) {
         return switch (this) {
-            case INT -> value instanceof Integer || (value instanceof String && ((String) value).matches("-?\\d+"));
+            case INT -> value instanceof Integer || (value instanceof String s && isInteger(s));
             case STRING -> value instanceof String;
         };
     }
 
+    /**
+     * Returns a valid value the way every storage keeps it: INT values written as text become the
+     * Integer they stand for.
+     */
+    public Object normalize(Object value) {
+        return this == INT && value instanceof String s ? Integer.valueOf(s) : value;
+    }
+
     public Object parseValue(String value) {
         return switch (this) {
-            case INT -> Integer.parseInt(value.replaceAll("\"", ""));
-            case STRING -> value.replaceAll("^\"|\"$", "");
+            case INT -> Integer.parseInt(value.indexOf('"') < 0 ? value : value.replace("\"", ""));
+            case STRING -> unquote(value);
         };
     }
+
+    // Range-checked like the lexer's integer literals, so every valid value parses
+    private static boolean isInteger(String value) {
+        boolean negative = value.startsWith("-");
+        int start = negative ? 1 : 0;
+        if (value.length() == start) return false;
+        // Accumulate negatively so Integer.MIN_VALUE is representable
+        int result = 0;
+        for (int i = start; i < value.length(); i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < (Integer.MIN_VALUE + digit) / 10) return false;
+            result = result * 10 - digit;
+        }
+        return negative || result != Integer.MIN_VALUE;
+    }
+
+    // Strips one leading and one trailing quote, each if present
+    private static String unquote(String value) {
+        int start = value.startsWith("\"") ? 1 : 0;
+        int end = value.length() > start && value.endsWith("\"") ? value.length() - 1 : value.length();
+        return value.substring(start, end);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.tabledb.model;
+
+import com.tabledb.condition.AndCondition;
+import com.tabledb.condition.Condition;
+import com.tabledb.condition.Conditions;
+import com.tabledb.planner.ColumnSummary;
+import com.tabledb.planner.Plan;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Inner equi-join of two tables. The table expected to have fewer matching rows is read into a hash
+ * table on its join column and the other is streamed past it, so only the build side is held in
+ * memory. Conditions that refer to one table are pushed down to that table's scan, before any row
+ * is joined.
+ * <p>
+ * Columns are written as {@code table.column}, or just {@code column} when only one of the tables
+ * has it.
+ */
+public final class HashJoin {
+    private final Table[] tables;
+    private final String[] keys = new String[2];
+    private final List<List<Condition>> pushed = List.of(new ArrayList<>(), new ArrayList<>());
+    // Side and column of every result column
+    private final int[] outputSides;
+    private final String[] outputColumns;
+
+    /**
+     * @param columns the result columns, empty for all columns of {@code left} then of {@code right}
+     * @throws IllegalArgumentException if a column is unknown or ambiguous, the join columns are on
+     *                                  the same table, or a condition refers to both tables
+     */
+    public HashJoin(Table left, Table right, String leftKey, String rightKey, List<String> columns, Condition condition) {
+        this.tables = new Table[]{left, right};
+        int leftSide = side(leftKey);
+        int rightSide = side(rightKey);
+        if (leftSide == rightSide) throw new IllegalArgumentException("Join columns must come from different tables");
+        keys[leftSide] = column(leftKey);
+        keys[rightSide] = column(rightKey);
+
+        if (condition != null) {
+            for (Condition part : Conditions.conjuncts(condition)) {
+                int side = -1;
+                for (String column : Conditions.columns(part)) {
+                    int columnSide = side(column);
+                    if (side >= 0 && columnSide != side) {
+                        throw new IllegalArgumentException("A condition may only refer to one table of a join");
+                    }
+                    side = columnSide;
+                }
+                pushed.get(side).add(Conditions.renameColumns(part, HashJoin::column));
+            }
+        }
+
+        List<String> refs = new ArrayList<>(columns);
+        if (refs.isEmpty()) {
+            for (Table table : tables) {
+                table.getColumns().keySet().forEach(column -> refs.add(table.getName() + "." + column));
+            }
+        }
+        this.outputSides = new int[refs.size()];
+        this.outputColumns = new String[refs.size()];
+        for (int i = 0; i < outputSides.length; i++) {
+            outputSides[i] = side(refs.get(i));
+            outputColumns[i] = column(refs.get(i));
+        }
+    }
+
+    // Which table a column belongs to: 0 for the left one, 1 for the right one
+    private int side(String ref) {
+        int dot = ref.indexOf('.');
+        if (dot >= 0) {
+            String table = ref.substring(0, dot);
+            int side = table.equals(tables[0].getName()) ? 0 : table.equals(tables[1].getName()) ? 1 : -1;
+            if (side < 0 || (side == 0 && table.equals(tables[1].getName()))) {
+                throw new IllegalArgumentException("Unknown or ambiguous table: " + table);
+            }
+            if (!tables[side].getColumns().containsKey(ref.substring(dot + 1))) {
+                throw new IllegalArgumentException("Unknown column: " + ref);
+            }
+            return side;
+        }
+        boolean inLeft = tables[0].getColumns().containsKey(ref);
+        boolean inRight = tables[1].getColumns().containsKey(ref);
+        if (inLeft == inRight) throw new IllegalArgumentException((inLeft ? "Ambiguous" : "Unknown") + " column: " + ref);
+        return inLeft ? 0 : 1;
+    }
+
+    private static String column(String ref) {
+        return ref.substring(ref.indexOf('.') + 1);
+    }
+
+    /**
+     * Builds the hash table from the side with fewer estimated matches and opens a cursor streaming
+     * the other one. Each table is read from the snapshot published when this is called.
+     */
+    public RowCursor open() {
+        Table.View[] views = {tables[0].view(), tables[1].view()};
+        int build = buildSide(plans());
+        int probe = 1 - build;
+
+        List<List<String>> needed = List.of(new ArrayList<>(), new ArrayList<>());
+        int[] outputOrdinals = new int[outputSides.length];
+        for (int side = 0; side < 2; side++) {
+            needed.get(side).add(keys[side]);
+        }
+        List<Column> resultColumns = new ArrayList<>(outputSides.length);
+        for (int i = 0; i < outputSides.length; i++) {
+            List<String> sideColumns = needed.get(outputSides[i]);
+            int ordinal = sideColumns.indexOf(outputColumns[i]);
+            if (ordinal < 0) {
+                ordinal = sideColumns.size();
+                sideColumns.add(outputColumns[i]);
+            }
+            outputOrdinals[i] = ordinal;
+            resultColumns.add(tables[outputSides[i]].getColumns().get(outputColumns[i]));
+        }
+
+        Map<Object, List<Row>> hashTable = new HashMap<>();
+        try (RowCursor rows = views[build].cursor(needed.get(build), pushedCondition(build))) {
+            while (rows.hasNext()) {
+                Row row = rows.next();
+                hashTable.computeIfAbsent(row.getValue(0), key -> new ArrayList<>(1)).add(row);
+            }
+        }
+        if (hashTable.isEmpty()) return RowCursor.empty();
+
+        RowCursor probeRows = views[probe].cursor(needed.get(probe), pushedCondition(probe));
+        return new JoinCursor(probeRows, hashTable, build, outputOrdinals, new Schema(resultColumns));
+    }
+
+    /**
+     * Describes how {@link #open()} would run the join, one step per line, with the estimated rows
+     * read from each side.
+     */
+    public List<String> explain() {
+        Plan[] plans = plans();
+        int build = buildSide(plans);
+        List<String> steps = new ArrayList<>();
+        steps.add("HASH JOIN " + tables[0].getName() + "." + keys[0] + " = " + tables[1].getName() + "." + keys[1]);
+        for (int side : new int[]{build, 1 - build}) {
+            Plan plan = plans[side];
+            steps.add((side == build ? "BUILD " : "PROBE ") + tables[side].getName() + " " + plan.access()
+                    + (plan.filter() != null ? " FILTER " + plan.filter() : "") + " estimated=" + plan.estimatedRows());
+        }
+        return steps;
+    }
+
+    /**
+     * Estimates the number of joined rows, assuming every key of the side with fewer distinct keys
+     * also occurs on the other side.
+     */
+    public long estimateRows() {
+        Plan[] plans = plans();
+        long distinct = 1;
+        for (int side = 0; side < 2; side++) {
+            ColumnSummary key = plans[side].statistics().column(keys[side]);
+            distinct = Math.max(distinct, key != null ? key.distinct() : 1);
+        }
+        return Math.round((double) plans[0].estimatedRows() * plans[1].estimatedRows() / distinct);
+    }
+
+    private Plan[] plans() {
+        return new Plan[]{tables[0].plan(pushedCondition(0)), tables[1].plan(pushedCondition(1))};
+    }
+
+    private static int buildSide(Plan[] plans) {
+        return plans[0].estimatedRows() < plans[1].estimatedRows() ? 0 : 1;
+    }
+
+    private Condition pushedCondition(int side) {
+        List<Condition> conditions = pushed.get(side);
+        return conditions.isEmpty() ? null : conditions.size() == 1 ? conditions.get(0) : new AndCondition(conditions);
+    }
+
+    private final class JoinCursor implements RowCursor {
+        private final RowCursor probeRows;
+        private final Map<Object, List<Row>> hashTable;
+        private final int build;
+        private final int[] outputOrdinals;
+        private final Schema schema;
+        private Row probeRow;
+        private List<Row> matches = List.of();
+        private int nextMatch;
+
+        JoinCursor(RowCursor probeRows, Map<Object, List<Row>> hashTable, int build, int[] outputOrdinals,
+                   Schema schema) {
+            this.probeRows = probeRows;
+            this.hashTable = hashTable;
+            this.build = build;
+            this.outputOrdinals = outputOrdinals;
+            this.schema = schema;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextMatch == matches.size()) {
+                if (!probeRows.hasNext()) return false;
+                probeRow = probeRows.next();
+                matches = hashTable.getOrDefault(probeRow.getValue(0), List.of());
+                nextMatch = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Row buildRow = matches.get(nextMatch++);
+            Object[] values = new Object[outputOrdinals.length];
+            for (int i = 0; i < values.length; i++) {
+                Row source = outputSides[i] == build ? buildRow : probeRow;
+                values[i] = source.getValue(outputOrdinals[i]);
+            }
+            return new Row(schema, values);
+        }
+
+        @Override
+        public void close() {
+            probeRows.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.tabledb.model;
+
+/**
+ * Spreads the rows of a table over {@code count} partitions by the hash of one column's value.
+ * Each partition has its own write lock and storage, so writes to different partitions run
+ * concurrently.
+ */
+public record Partitioning(String column, int count) {
+    public static final int MAX_PARTITIONS = 1024;
+
+    public Partitioning {
+        if (count < 1 || count > MAX_PARTITIONS) {
+            throw new IllegalArgumentException("Partition count must be between 1 and " + MAX_PARTITIONS);
+        }
+    }
+
+    /**
+     * Returns the partition of a row whose partition column holds {@code value}, of type {@code type}.
+     */
+    public int partitionOf(Object value, DataType type) {
+        int hash = type == DataType.INT ? (Integer) value : value.hashCode();
+        hash *= 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), count);
+    }
+
+    @Override
+    public String toString() {
+        return "HASH(" + column + ") INTO " + count;
+    }
+}
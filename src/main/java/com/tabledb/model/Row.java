@@ -1,28 +1,54 @@
 package com.tabledb.model;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
-
+/**
+ * A row as a fixed-width array of values laid out in the order of its table's {@link Schema}.
+ */
 public class Row {
-    private final Map<String, Object> values;
+    private final Schema schema;
+    private final Object[] values;
+
+    public Row(Schema schema) {
+        this(schema, new Object[schema.size()]);
+    }
 
-    public Row() {
-        this.values = new LinkedHashMap<>();
+    public Row(Schema schema, Object[] values) {
+        if (values.length != schema.size()) {
+            throw new IllegalArgumentException("Expected " + schema.size() + " values but got " + values.length);
+        }
+        this.schema = schema;
+        this.values = values;
     }
 
     public void setValue(String column, Object value) {
-        values.put(column, value);
+        int ordinal = schema.ordinal(column);
+        if (ordinal < 0) throw new IllegalArgumentException("Unknown column: " + column);
+        values[ordinal] = value;
+    }
+
+    public void setValue(int ordinal, Object value) {
+        values[ordinal] = value;
     }
 
     public Object getValue(String column) {
-        return values.get(column);
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    public Object getValue(int ordinal) {
+        return values[ordinal];
+    }
+
+    public Schema getSchema() {
+        return schema;
     }
 
     @Override
     public String toString() {
-        return values.values().stream()
-                .map(Object::toString)
-                .collect(Collectors.joining(", "));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(values[i]);
+        }
+        return sb.toString();
     }
-}
\ No newline at end of file
+}
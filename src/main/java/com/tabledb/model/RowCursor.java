@@ -0,0 +1,31 @@
+package com.tabledb.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily produced query results. A cursor may hold resources of the table it reads, so it must be
+ * closed, or fully consumed, by the thread that opened it.
+ */
+public interface RowCursor extends Iterator<Row>, AutoCloseable {
+    @Override
+    void close();
+
+    static RowCursor empty() {
+        return new RowCursor() {
+            @Override
+            public boolean hasNext() {
+                return false;
+            }
+
+            @Override
+            public Row next() {
+                throw new NoSuchElementException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,51 @@
+package com.tabledb.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Schema {
+    private final List<Column> columns;
+    private final Map<String, Integer> ordinals;
+
+    public Schema(List<Column> columns) {
+        this.columns = List.copyOf(columns);
+        this.ordinals = new HashMap<>();
+        for (int i = 0; i < this.columns.size(); i++) {
+            ordinals.put(this.columns.get(i).name(), i);
+        }
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public Column column(int ordinal) {
+        return columns.get(ordinal);
+    }
+
+    public List<Column> columns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Returns a schema made of the given columns of this one, in the given order.
+     */
+    public Schema project(int[] ordinals) {
+        List<Column> projected = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            projected.add(columns.get(ordinal));
+        }
+        return new Schema(projected);
+    }
+
+    /**
+     * Returns the position of the column in the schema, or -1 if the table has no such column.
+     */
+    public int ordinal(String columnName) {
+        Integer ordinal = ordinals.get(columnName);
+        return ordinal != null ? ordinal : -1;
+    }
+}
@@ -0,0 +1,14 @@
+package com.tabledb.model;
+
+/**
+ * One key of an ORDER BY clause.
+ *
+ * @param column the sorted column, or in an aggregate query an aggregate as written by
+ *               {@link Aggregate#toString()}
+ */
+public record SortKey(String column, boolean descending) {
+    @Override
+    public String toString() {
+        return column + (descending ? " DESC" : " ASC");
+    }
+}
@@ -0,0 +1,44 @@
+package com.tabledb.model;
+
+import com.tabledb.storage.TableStorage;
+
+import java.util.List;
+
+/**
+ * Compares stored rows by a list of sort keys, reading INT keys as ints and STRING keys as text.
+ * The rows may come from different storages of the same schema.
+ */
+final class SortOrder {
+    private final int[] ordinals;
+    private final boolean[] isInt;
+    private final boolean[] descending;
+
+    /**
+     * @throws IllegalArgumentException if a sort column does not exist
+     */
+    SortOrder(Schema schema, List<SortKey> keys) {
+        this.ordinals = new int[keys.size()];
+        this.isInt = new boolean[keys.size()];
+        this.descending = new boolean[keys.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = schema.ordinal(keys.get(i).column());
+            if (ordinals[i] < 0) throw new IllegalArgumentException("Unknown column: " + keys.get(i).column());
+            isInt[i] = schema.column(ordinals[i]).type() == DataType.INT;
+            descending[i] = keys.get(i).descending();
+        }
+    }
+
+    /**
+     * Compares the row at {@code left} in {@code leftStorage} with the one at {@code right} in
+     * {@code rightStorage}, returning 0 when all keys are equal.
+     */
+    int compare(TableStorage leftStorage, int left, TableStorage rightStorage, int right) {
+        for (int i = 0; i < ordinals.length; i++) {
+            int order = isInt[i] ?
+                    Integer.compare(leftStorage.getInt(left, ordinals[i]), rightStorage.getInt(right, ordinals[i])) :
+                    ((String) leftStorage.getValue(left, ordinals[i])).compareTo((String) rightStorage.getValue(right, ordinals[i]));
+            if (order != 0) return descending[i] ? -order : order;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,5 @@
+package com.tabledb.model;
+
+public enum StorageMode {
+    ROW, COLUMNAR, OFF_HEAP
+}
@@ -2,79 +2,1166 @@
 package com.tabledb.model;
 
 import com.tabledb.condition.Condition;
+import com.tabledb.condition.Conditions;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.index.IndexType;
+import com.tabledb.index.OrderedIndex;
+import com.tabledb.index.TableIndexes;
+import com.tabledb.metrics.TableStats;
+import com.tabledb.planner.ColumnStatistics;
+import com.tabledb.planner.Plan;
+import com.tabledb.planner.Planner;
+import com.tabledb.planner.TableStatistics;
+import com.tabledb.storage.ParallelScanner;
+import com.tabledb.storage.TableStorage;
+import com.tabledb.wal.WalRecord;
+import com.tabledb.wal.WriteAheadLog;
+
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
 
+/**
+ * A table with multi-version concurrency control. Writers serialize on a lock, append new row
+ * versions stamped with the next commit sequence and then publish a new {@link Snapshot}.
+ * Readers grab the latest published snapshot and scan it without taking any lock.
+ * <p>
+ * A table created with a {@link Partitioning} keeps its rows in several partitions, each with its
+ * own lock, storage, indexes and snapshots, so writes to different partitions do not wait for each
+ * other. The snapshots of all partitions are published together, so readers always see a
+ * consistent state of the whole table.
+ * <p>
+ * With a write-ahead log, a change is logged and published under the lock, but its commit waits
+ * for the log only after the lock is released, so that writers to the same table share one fsync.
+ * Other sessions may therefore read a change shortly before it is durable, and a crash in between
+ * loses a change they have seen. If the log cannot be written, it refuses every later write, so
+ * nothing is built on such a change, and reopening the database recovers only what reached disk.
+ */
 public class Table {
+    private static final int MIN_VACUUM_SIZE = 1024;
+    // Shared by all tables, so a table created again under an old name never repeats a version
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private final String name;
     private final Map<String, Column> columns;
-    private final List<Row> rows;
-    private final ReadWriteLock lock;
+    private final Schema schema;
+    private final StorageMode storageMode;
+    private final Partitioning partitioning;
+    // Ordinal of the partition column, or -1 for a table with a single partition
+    private final int partitionOrdinal;
+    private final ParallelScanner scanner;
+    private final Partition[] partitions;
+    private final int[] allPartitions;
+    // The latest snapshot of every partition; a slot only changes under its partition's lock
+    private final AtomicReference<Snapshot[]> published;
+    private final TableStats stats = new TableStats();
+    private volatile CachedStatistics statistics;
+    private volatile WriteAheadLog log;
+    private volatile long version = VERSIONS.incrementAndGet();
+    // Set under every partition's lock, so reading it under any of them is enough
+    private boolean dropped;
+
+    /**
+     * Everything a reader needs to see a consistent partition state: the storage generation with
+     * its indexes, the last commit sequence, how many positions that commit had written and the
+     * LSN of the last logged change it includes.
+     */
+    private record Snapshot(TableStorage storage, TableIndexes indexes, long seq, int limit, long lsn) {
+        boolean isVisible(int position) {
+            return storage.isVisible(position, seq);
+        }
+    }
+
+    /**
+     * Write-side state of one partition, guarded by its lock.
+     */
+    private static final class Partition {
+        final int number;
+        final ReentrantLock writeLock = new ReentrantLock();
+        final AtomicBoolean vacuumScheduled = new AtomicBoolean();
+        int deadVersions;
+        volatile int rowCount;
+        // Of every column, over all versions appended since the partition was last vacuumed
+        volatile ColumnStatistics[] statistics;
+
+        Partition(int number, Schema schema) {
+            this.number = number;
+            this.statistics = newStatistics(schema);
+        }
+
+        void addToStatistics(Object[] row) {
+            ColumnStatistics[] columns = statistics;
+            for (int i = 0; i < row.length; i++) {
+                columns[i].add(row[i]);
+            }
+        }
+    }
+
+    private static ColumnStatistics[] newStatistics(Schema schema) {
+        ColumnStatistics[] statistics = new ColumnStatistics[schema.size()];
+        for (int i = 0; i < statistics.length; i++) {
+            statistics[i] = new ColumnStatistics();
+        }
+        return statistics;
+    }
+
+    private record CachedStatistics(long version, TableStatistics statistics) {
+    }
+
+    /**
+     * Row versions a read has examined and blocks of them it has skipped so far, over all the
+     * partitions it reads.
+     */
+    private static final class ScanCount {
+        long examined;
+        long blocksSkipped;
+    }
 
     public Table(String name, List<Column> columnList) {
+        this(name, columnList, StorageMode.ROW);
+    }
+
+    public Table(String name, List<Column> columnList, StorageMode storageMode) {
+        this(name, columnList, storageMode, null);
+    }
+
+    /**
+     * @param scanner runs large condition scans in parallel; {@code null} keeps every scan sequential
+     */
+    public Table(String name, List<Column> columnList, StorageMode storageMode, ParallelScanner scanner) {
+        this(name, columnList, storageMode, null, scanner);
+    }
+
+    /**
+     * @param partitioning how to spread the rows over partitions, {@code null} for a single one
+     * @throws IllegalArgumentException if the partition column does not exist
+     */
+    public Table(String name, List<Column> columnList, StorageMode storageMode, Partitioning partitioning,
+                 ParallelScanner scanner) {
         this.name = name;
         this.columns = new LinkedHashMap<>();
         columnList.forEach(col -> columns.put(col.name(), col));
-        this.rows = new ArrayList<>();
-        this.lock = new ReentrantReadWriteLock();
+        this.schema = new Schema(new ArrayList<>(columns.values()));
+        this.storageMode = storageMode;
+        this.partitioning = partitioning;
+        this.partitionOrdinal = partitioning != null ? schema.ordinal(partitioning.column()) : -1;
+        if (partitioning != null && partitionOrdinal < 0) {
+            throw new IllegalArgumentException("Unknown partition column: " + partitioning.column());
+        }
+        this.scanner = scanner;
+        int count = partitioning != null ? partitioning.count() : 1;
+        this.partitions = new Partition[count];
+        this.allPartitions = new int[count];
+        Snapshot[] snapshots = new Snapshot[count];
+        for (int p = 0; p < count; p++) {
+            partitions[p] = new Partition(p, schema);
+            allPartitions[p] = p;
+            TableStorage storage = TableStorage.create(schema, storageMode);
+            snapshots[p] = new Snapshot(storage, new TableIndexes(storage), 0, 0, 0);
+        }
+        this.published = new AtomicReference<>(snapshots);
     }
 
     public boolean insertRow(List<Object> values) {
         if (values.size() != columns.size()) return false;
 
+        Object[] slots = new Object[schema.size()];
+        for (int i = 0; i < slots.length; i++) {
+            Object value = values.get(i);
+            DataType type = schema.column(i).type();
+            if (!type.isValidValue(value)) return false;
+            slots[i] = type.normalize(value);
+        }
+
+        Partition partition = partitions[partitionOf(slots)];
+        long lsn;
+        long locked = lock(partition);
         try {
-            lock.writeLock().lock();
-            Row row = new Row();
-            int i = 0;
-            for (Column column : columns.values()) {
-                Object value = values.get(i++);
-                if (!column.type().isValidValue(value)) return false;
-                row.setValue(column.name(), value);
-            }
-            rows.add(row);
-            return true;
+            if (dropped) return false;
+            lsn = log(new WalRecord.Insert(name, values));
+            Snapshot current = published.get()[partition.number];
+            long seq = current.seq() + 1;
+            current.indexes().rowAdded(current.storage().append(slots, seq));
+            partition.addToStatistics(slots);
+            partition.rowCount++;
+            publish(partition.number, committed(partition, current, seq, lsn));
+            bumpVersion();
         } finally {
-            lock.writeLock().unlock();
+            unlock(partition, locked);
         }
+        awaitDurable(lsn);
+        return true;
+    }
+
+    /**
+     * Inserts all of {@code rows} or, if any of them does not fit the schema, none. The rows are
+     * appended under a single lock acquisition and log record, and become visible together.
+     */
+    public boolean insertRows(List<? extends List<Object>> rows) {
+        Object[][] slots = new Object[rows.size()][];
+        boolean[] touched = new boolean[partitions.length];
+        for (int r = 0; r < slots.length; r++) {
+            List<Object> values = rows.get(r);
+            if (values.size() != columns.size()) return false;
+            slots[r] = new Object[schema.size()];
+            for (int i = 0; i < schema.size(); i++) {
+                Object value = values.get(i);
+                DataType type = schema.column(i).type();
+                if (!type.isValidValue(value)) return false;
+                slots[r][i] = type.normalize(value);
+            }
+            touched[partitionOf(slots[r])] = true;
+        }
+        if (slots.length == 0) return true;
+
+        int[] targets = IntStream.range(0, partitions.length).filter(p -> touched[p]).toArray();
+        long lsn;
+        long locked = lock(targets);
+        try {
+            if (dropped) return false;
+            lsn = log(new WalRecord.InsertRows(name, List.copyOf(rows)));
+            Commit commit = new Commit(targets);
+            for (Object[] row : slots) {
+                int p = partitionOf(row);
+                commit.append(p, row);
+                partitions[p].rowCount++;
+            }
+            commit.publish(lsn);
+        } finally {
+            unlock(targets, locked);
+        }
+        awaitDurable(lsn);
+        return true;
     }
 
     public List<Row> select(List<String> columnNames, Condition condition) {
+        List<Row> result = new ArrayList<>();
+        try (RowCursor cursor = cursor(columnNames, condition)) {
+            cursor.forEachRemaining(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Opens a lazy scan returning only {@code columnNames} (all columns when empty or "*") of the
+     * rows matching {@code condition}. The cursor reads the snapshot published when it was opened,
+     * so it neither blocks nor observes writes made while it is being consumed.
+     */
+    public RowCursor cursor(List<String> columnNames, Condition condition) {
+        return view().cursor(columnNames, condition);
+    }
+
+    /**
+     * Like {@link #cursor(List, Condition)}, but returns the matches sorted by {@code orderBy}, with
+     * equal rows in scan order, and only those from {@code offset} on, at most {@code limit} of them
+     * ({@code -1} for all). With a limit only {@code offset + limit} matches are held while sorting;
+     * a single sort column with an ordered index is read in index order without sorting at all.
+     */
+    public RowCursor cursor(List<String> columnNames, Condition condition, List<SortKey> orderBy, int offset, int limit) {
+        return view().cursor(columnNames, condition, orderBy, offset, limit);
+    }
+
+    /**
+     * Returns one row per group of the rows matching {@code condition}: the values of the
+     * {@code groupBy} columns followed by the result of each aggregate. Without {@code groupBy}
+     * there is exactly one row, even if nothing matches. Groups come in order of first appearance.
+     *
+     * @throws IllegalArgumentException if a column does not exist or cannot be aggregated that way
+     */
+    public List<Object[]> aggregate(List<String> groupBy, List<Aggregate> aggregates, Condition condition) {
+        return view().aggregate(groupBy, aggregates, condition);
+    }
+
+    /**
+     * Returns the table's row count and column statistics, which the planner estimates from. They
+     * are taken again only once the table has changed.
+     */
+    public TableStatistics getStatistics() {
+        CachedStatistics cached = statistics;
+        long current = version;
+        if (cached == null || cached.version() != current) {
+            ColumnStatistics[][] columns = new ColumnStatistics[partitions.length][];
+            for (int p = 0; p < partitions.length; p++) {
+                columns[p] = partitions[p].statistics;
+            }
+            cached = new CachedStatistics(current, new TableStatistics(schema, getRowCount(), columns));
+            statistics = cached;
+        }
+        return cached.statistics();
+    }
+
+    /**
+     * Chooses how to find the rows matching {@code condition}: in which order to evaluate its parts
+     * and whether to take the candidates from an index. Every read and write plans this way.
+     */
+    public Plan plan(Condition condition) {
+        return Planner.plan(condition, getStatistics(), published.get()[0].indexes());
+    }
+
+    /**
+     * Pins the currently published state of the table. Every cursor opened from the view reads the
+     * same rows, however many writes happen in the meantime.
+     */
+    public View view() {
+        return new View(published.get());
+    }
+
+    /**
+     * Like {@link #view()}, but first waits for any change in flight to be applied, so the view
+     * includes every change logged before this call. Only blocks writers for the hand-over.
+     */
+    public View settledView() {
+        long locked = lock(allPartitions);
         try {
-            lock.readLock().lock();
-            return rows.stream()
-                    .filter(row -> condition == null || condition.evaluate(row))
-                    .collect(Collectors.toList());
+            return new View(published.get());
         } finally {
-            lock.readLock().unlock();
+            unlock(allPartitions, locked);
         }
     }
 
+    public final class View {
+        private final Snapshot[] snapshots;
+
+        private View(Snapshot[] snapshots) {
+            this.snapshots = snapshots;
+        }
+
+        /**
+         * Opens a cursor over the view; it is empty if the table has been dropped meanwhile.
+         */
+        public RowCursor cursor(List<String> columnNames, Condition condition) {
+            return cursor(columnNames, condition, List.of(), 0, -1);
+        }
+
+        /**
+         * Opens a cursor returning the matches sorted by {@code orderBy}, skipping the first
+         * {@code offset} and stopping after {@code limit} of them.
+         *
+         * @see Table#cursor(List, Condition, List, int, int)
+         */
+        public RowCursor cursor(List<String> columnNames, Condition condition, List<SortKey> orderBy, int offset, int limit) {
+            int[] projection = resolveProjection(columnNames);
+            Schema resultSchema = projection != null ? schema.project(projection) : schema;
+            int[] targets = partitionsFor(condition);
+            Plan plan = plan(condition);
+            // Holds the storages until the cursor is done, so dropping the table cannot free them mid-scan
+            if (!acquire(snapshots, targets)) return RowCursor.empty();
+            try {
+                ScanCount count = new ScanCount();
+                RowSource rows = orderBy.isEmpty() ?
+                        matches(snapshots, targets, plan, count) :
+                        orderedMatches(snapshots, targets, plan, orderBy, offset, limit, count);
+                if (offset > 0 || limit >= 0) rows = window(rows, offset, limit);
+                return new ScanCursor(snapshots, targets, rows, projection, resultSchema, count, stats);
+            } catch (RuntimeException e) {
+                release(snapshots, targets);
+                throw e;
+            }
+        }
+
+        /**
+         * Computes {@code aggregates} over the rows of the view matching {@code condition}, per
+         * distinct combination of the {@code groupBy} columns, in one pass over the matches.
+         * Partitions are aggregated one by one and their results merged.
+         *
+         * @see Table#aggregate(List, List, Condition)
+         */
+        public List<Object[]> aggregate(List<String> groupBy, List<Aggregate> aggregates, Condition condition) {
+            Aggregation result = null;
+            Plan plan = plan(condition);
+            ScanCount count = new ScanCount();
+            for (int p : partitionsFor(condition)) {
+                Snapshot snapshot = snapshots[p];
+                Aggregation aggregation = new Aggregation(snapshot.storage(), groupBy, aggregates);
+                if (snapshot.storage().acquire()) {
+                    try {
+                        aggregation = aggregateMatches(snapshot, plan, aggregation, count);
+                    } finally {
+                        snapshot.storage().release();
+                    }
+                }
+                result = result == null ? aggregation : result.merge(aggregation);
+            }
+            List<Object[]> groups = result.results();
+            stats.recordScan(count.examined, groups.size(), count.blocksSkipped);
+            return groups;
+        }
+
+        /**
+         * LSN of the last logged change visible in this view, or 0 if none was logged. Writes to
+         * other partitions may still be in flight below it, except in a view from
+         * {@link Table#settledView()}.
+         */
+        public long lsn() {
+            long lsn = 0;
+            for (Snapshot snapshot : snapshots) {
+                lsn = Math.max(lsn, snapshot.lsn());
+            }
+            return lsn;
+        }
+
+        public Table table() {
+            return Table.this;
+        }
+    }
+
+    private int[] resolveProjection(List<String> columnNames) {
+        if (columnNames == null || columnNames.isEmpty()
+                || (columnNames.size() == 1 && columnNames.get(0).equals("*"))) {
+            return null;
+        }
+        int[] ordinals = new int[columnNames.size()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = schema.ordinal(columnNames.get(i).trim());
+            if (ordinals[i] < 0) throw new IllegalArgumentException("Unknown column: " + columnNames.get(i));
+        }
+        return ordinals;
+    }
+
+    // Partition of a row, from the value of its partition column
+    private int partitionOf(Object[] row) {
+        return partitionOrdinal < 0 ? 0 : partitioning.partitionOf(row[partitionOrdinal], schema.column(partitionOrdinal).type());
+    }
+
+    /**
+     * Returns the partitions that may hold matches of {@code condition}, in ascending order: the
+     * one that an equality on the partition column points to, otherwise all of them.
+     */
+    private int[] partitionsFor(Condition condition) {
+        if (partitionOrdinal < 0 || condition == null) return allPartitions;
+        DataType type = schema.column(partitionOrdinal).type();
+        for (Condition part : Conditions.conjuncts(condition)) {
+            if (part instanceof SimpleCondition equality && equality.getColumn().equals(partitioning.column())
+                    && type.isValidValue(equality.getValue())) {
+                return new int[]{partitioning.partitionOf(type.normalize(equality.getValue()), type)};
+            }
+        }
+        return allPartitions;
+    }
+
     public int delete(Condition condition) {
+        int[] targets = partitionsFor(condition);
+        Plan plan = plan(condition);
+        long lsn;
+        int[] deleted = {0};
+        long locked = lock(targets);
         try {
-            lock.writeLock().lock();
-            int initialSize = rows.size();
-            rows.removeIf(row -> condition.evaluate(row));
-            return initialSize - rows.size();
+            if (dropped) return 0;
+            lsn = log(new WalRecord.Delete(name, condition));
+            Commit commit = new Commit(targets);
+            for (int p : targets) {
+                Partition partition = partitions[p];
+                forEachMatch(commit.base[p], plan, pos -> {
+                    commit.markDeleted(p, pos);
+                    partition.deadVersions++;
+                    partition.rowCount--;
+                    deleted[0]++;
+                });
+            }
+            commit.publish(lsn);
         } finally {
-            lock.writeLock().unlock();
+            unlock(targets, locked);
         }
+        awaitDurable(lsn);
+        return deleted[0];
     }
 
+    /**
+     * Writes each matching row as a new version and retires the old one, so concurrent readers keep
+     * seeing the values of their snapshot. New versions are appended, so updated rows move to the
+     * end of the scan order. A row whose partition column changes moves to its new partition, so
+     * such updates lock all partitions.
+     */
     public int update(Map<String, Object> updates, Condition condition) {
+        int[] ordinals = new int[updates.size()];
+        Object[] values = new Object[updates.size()];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            int ordinal = schema.ordinal(entry.getKey());
+            if (ordinal < 0 || !schema.column(ordinal).type().isValidValue(entry.getValue())) {
+                throw new IllegalArgumentException("Invalid update for column: " + entry.getKey());
+            }
+            ordinals[i] = ordinal;
+            values[i++] = schema.column(ordinal).type().normalize(entry.getValue());
+        }
+
+        int[] targets = partitionOrdinal >= 0 && updates.containsKey(partitioning.column()) ?
+                allPartitions :
+                partitionsFor(condition);
+        Plan plan = plan(condition);
+        long lsn;
+        int[] updated = {0};
+        long locked = lock(targets);
+        try {
+            if (dropped) return 0;
+            lsn = log(new WalRecord.Update(name, updates, condition));
+            Commit commit = new Commit(targets);
+            for (int p : targets) {
+                Partition partition = partitions[p];
+                TableStorage storage = commit.base[p].storage();
+                forEachMatch(commit.base[p], plan, pos -> {
+                    Object[] version = storage.values(pos);
+                    for (int j = 0; j < ordinals.length; j++) {
+                        version[ordinals[j]] = values[j];
+                    }
+                    int target = partitionOf(version);
+                    commit.append(target, version);
+                    commit.markDeleted(p, pos);
+                    if (target != p) {
+                        partition.rowCount--;
+                        partitions[target].rowCount++;
+                    }
+                    partition.deadVersions++;
+                    updated[0]++;
+                });
+            }
+            commit.publish(lsn);
+        } finally {
+            unlock(targets, locked);
+        }
+        awaitDurable(lsn);
+        return updated[0];
+    }
+
+    public boolean createIndex(String column) {
+        return createIndex(column, IndexType.HASH);
+    }
+
+    public boolean createIndex(String column, IndexType type) {
+        long lsn;
+        boolean created;
+        long locked = lock(allPartitions);
+        try {
+            if (dropped) return false;
+            Snapshot[] current = published.get();
+            created = current[0].indexes().create(type.create(column));
+            for (int p = 1; created && p < current.length; p++) {
+                current[p].indexes().create(type.create(column));
+            }
+            // Logged after the build so a rejected column never reaches the log
+            lsn = created ? log(new WalRecord.CreateIndex(name, column, type)) : 0;
+        } finally {
+            unlock(allPartitions, locked);
+        }
+        awaitDurable(lsn);
+        return created;
+    }
+
+    /**
+     * Stops all further writes and frees the table's off-heap memory once the cursors still
+     * reading it are closed.
+     */
+    public void drop() {
+        long locked = lock(allPartitions);
+        try {
+            if (dropped) return;
+            dropped = true;
+            for (Snapshot snapshot : published.get()) {
+                snapshot.storage().free();
+            }
+        } finally {
+            unlock(allPartitions, locked);
+        }
+    }
+
+    /**
+     * Bytes the table currently holds outside the Java heap.
+     */
+    public long getOffHeapBytes() {
+        long bytes = 0;
+        for (Snapshot snapshot : published.get()) {
+            bytes += snapshot.storage().offHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Appends rows restored from a snapshot as a single commit, without logging them, and records
+     * {@code lsn} as the last logged change they include.
+     */
+    public void restore(Iterator<Object[]> rows, long lsn) {
+        long locked = lock(allPartitions);
+        try {
+            Commit commit = new Commit(allPartitions);
+            int[] restored = new int[partitions.length];
+            while (rows.hasNext()) {
+                Object[] row = rows.next();
+                int p = partitionOf(row);
+                commit.append(p, row);
+                restored[p]++;
+            }
+            for (int p = 0; p < partitions.length; p++) {
+                partitions[p].rowCount += restored[p];
+            }
+            // Records the LSN even when there are no rows
+            commit.touch(0);
+            commit.publish(lsn);
+        } finally {
+            unlock(allPartitions, locked);
+        }
+    }
+
+    /**
+     * Records that the change logged at {@code lsn} has been applied, for changes replayed from the
+     * log or logged outside the table.
+     */
+    public void advanceLsn(long lsn) {
+        // The table's LSN is the highest of its partitions', so the first one can carry it
+        Partition first = partitions[0];
+        long locked = lock(first);
+        try {
+            Snapshot current = published.get()[0];
+            if (lsn > current.lsn()) {
+                publish(0, new Snapshot(current.storage(), current.indexes(), current.seq(), current.limit(), lsn));
+            }
+        } finally {
+            unlock(first, locked);
+        }
+    }
+
+    /**
+     * Starts logging every change to {@code log} before it is applied. Changes made before this
+     * call, such as those replayed from the log itself, are not logged again.
+     */
+    public void attachLog(WriteAheadLog log) {
+        long locked = lock(allPartitions);
+        try {
+            this.log = log;
+        } finally {
+            unlock(allPartitions, locked);
+        }
+    }
+
+    // Takes the locks in ascending partition order, so writers spanning partitions cannot deadlock.
+    // Returns when the last one was taken, for unlock to record how long they were held
+    private long lock(int[] targets) {
+        long start = System.nanoTime();
+        for (int p : targets) {
+            partitions[p].writeLock.lock();
+        }
+        long locked = System.nanoTime();
+        stats.recordLockWait(locked - start);
+        return locked;
+    }
+
+    private void unlock(int[] targets, long locked) {
+        for (int i = targets.length - 1; i >= 0; i--) {
+            partitions[targets[i]].writeLock.unlock();
+        }
+        stats.recordLockHold(System.nanoTime() - locked);
+    }
+
+    private long lock(Partition partition) {
+        long start = System.nanoTime();
+        partition.writeLock.lock();
+        long locked = System.nanoTime();
+        stats.recordLockWait(locked - start);
+        return locked;
+    }
+
+    private void unlock(Partition partition, long locked) {
+        partition.writeLock.unlock();
+        stats.recordLockHold(System.nanoTime() - locked);
+    }
+
+    // Caller holds a write lock of every partition the change touches, so records of the same
+    // partition reach the log in the order they are applied
+    private long log(WalRecord record) {
+        return log != null ? log.append(record) : 0;
+    }
+
+    // Called after publishing and releasing the write locks, so other writers can join the same
+    // group commit; throws if the log failed, and the change then stays visible until reopening
+    private void awaitDurable(long lsn) {
+        if (lsn > 0) log.commit(lsn);
+    }
+
+    /**
+     * The snapshots a write produces in the partitions it has locked. Each partition it changes
+     * gets its next commit sequence, and all of them are published at once.
+     */
+    private final class Commit {
+        final Snapshot[] base;
+        private final long[] seq;
+        private final int[] targets;
+        private final boolean[] touched;
+
+        Commit(int[] targets) {
+            this.targets = targets;
+            this.base = published.get();
+            this.seq = new long[base.length];
+            this.touched = new boolean[base.length];
+            for (int p : targets) {
+                seq[p] = base[p].seq() + 1;
+            }
+        }
+
+        void append(int partition, Object[] row) {
+            touched[partition] = true;
+            base[partition].indexes().rowAdded(base[partition].storage().append(row, seq[partition]));
+            partitions[partition].addToStatistics(row);
+        }
+
+        void markDeleted(int partition, int position) {
+            touched[partition] = true;
+            base[partition].storage().markDeleted(position, seq[partition]);
+        }
+
+        void touch(int partition) {
+            touched[partition] = true;
+        }
+
+        // lsn is 0 when the change was not logged
+        void publish(long lsn) {
+            Snapshot[] replacements = new Snapshot[base.length];
+            boolean changed = false;
+            for (int p : targets) {
+                if (touched[p]) {
+                    replacements[p] = committed(partitions[p], base[p], seq[p], lsn);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                Table.this.publish(replacements);
+                bumpVersion();
+            }
+        }
+    }
+
+    // Called after publishing a change, so a reader that sees the new version also sees the change
+    private void bumpVersion() {
+        version = VERSIONS.incrementAndGet();
+    }
+
+    // Caller holds the partition's write lock; lsn is 0 when the change was not logged
+    private Snapshot committed(Partition partition, Snapshot base, long seq, long lsn) {
+        if (partition.deadVersions >= MIN_VACUUM_SIZE && partition.deadVersions * 2 > base.storage().positions()
+                && partition.vacuumScheduled.compareAndSet(false, true)) {
+            VacuumExecutor.INSTANCE.execute(() -> vacuum(partition));
+        }
+        return new Snapshot(base.storage(), base.indexes(), seq, base.storage().positions(), Math.max(base.lsn(), lsn));
+    }
+
+    private void publish(int partition, Snapshot snapshot) {
+        Snapshot[] current;
+        Snapshot[] next;
+        do {
+            current = published.get();
+            next = current.clone();
+            next[partition] = snapshot;
+        } while (!published.compareAndSet(current, next));
+    }
+
+    // Caller holds the locks of the partitions replaced; other writers may swap in their own
+    // partitions concurrently, so the array is replaced by compare-and-set
+    private void publish(Snapshot[] replacements) {
+        Snapshot[] current;
+        Snapshot[] next;
+        do {
+            current = published.get();
+            next = current.clone();
+            for (int p = 0; p < next.length; p++) {
+                if (replacements[p] != null) next[p] = replacements[p];
+            }
+        } while (!published.compareAndSet(current, next));
+    }
+
+    /**
+     * Copies the versions that are still current into a fresh storage generation with rebuilt
+     * indexes, one partition at a time. Readers that opened a cursor earlier keep the old generation
+     * until they are done, after which it is garbage collected; writers to the partition being
+     * copied wait for the copy to finish.
+     */
+    public void vacuum() {
+        for (Partition partition : partitions) {
+            vacuum(partition);
+        }
+    }
+
+    private void vacuum(Partition partition) {
+        long locked = lock(partition);
         try {
-            lock.writeLock().lock();
-            return (int) rows.stream()
-                    .filter(row -> condition.evaluate(row))
-                    .peek(row -> updates.forEach(row::setValue))
-                    .count();
+            partition.vacuumScheduled.set(false);
+            if (dropped) return;
+            Snapshot current = published.get()[partition.number];
+            TableStorage storage = current.storage();
+            TableStorage compacted = TableStorage.create(schema, storageMode);
+            // Rebuilt from the live versions, so values since deleted or updated stop counting
+            ColumnStatistics[] statistics = newStatistics(schema);
+            for (int pos = 0; pos < current.limit(); pos++) {
+                if (storage.deletedSeq(pos) == TableStorage.NOT_DELETED) {
+                    Object[] row = storage.values(pos);
+                    compacted.append(row, storage.createdSeq(pos));
+                    for (int i = 0; i < row.length; i++) {
+                        statistics[i].add(row[i]);
+                    }
+                }
+            }
+            partition.statistics = statistics;
+            partition.deadVersions = 0;
+            // The old generation is left to the collector: pinned views may still open cursors on it
+            publish(partition.number, new Snapshot(compacted, current.indexes().rebuildFor(compacted), current.seq(),
+                    compacted.positions(), current.lsn()));
+            // The rows are unchanged, but the cached statistics must be taken again
+            bumpVersion();
         } finally {
-            lock.writeLock().unlock();
+            unlock(partition, locked);
+        }
+    }
+
+    /**
+     * Feeds the matches to {@code aggregation}. Large scans that no index narrows are aggregated per
+     * position range in parallel, so matches are never collected, and the partial results merged.
+     */
+    private Aggregation aggregateMatches(Snapshot snapshot, Plan plan, Aggregation aggregation, ScanCount count) {
+        PositionScan scan = new PositionScan(snapshot, plan, false, count);
+        if (!scan.isIndexed() && scanner != null && scanner.shouldParallelize(snapshot.limit())) {
+            scan.countWholeWalk();
+            return scanner.reduce(snapshot.limit(), (from, to) -> {
+                Aggregation partial = aggregation.newPartial();
+                for (int pos = from; pos < to; pos++) {
+                    if (scan.matches(pos)) partial.add(pos);
+                }
+                return partial;
+            }, Aggregation::merge);
+        }
+        for (int pos = scan.next(); pos >= 0; pos = scan.next()) {
+            aggregation.add(pos);
+        }
+        return aggregation;
+    }
+
+    // Scans the target partitions one after the other, each only once the previous one is done
+    private RowSource matches(Snapshot[] snapshots, int[] targets, Plan plan, ScanCount count) {
+        return new RowSource() {
+            private int next;
+            private int partition;
+            private PositionSource positions;
+
+            @Override
+            public long next() {
+                while (true) {
+                    if (positions == null) {
+                        if (next == targets.length) return -1;
+                        partition = targets[next++];
+                        positions = new PositionScan(snapshots[partition], plan, true, count);
+                    }
+                    int pos = positions.next();
+                    if (pos >= 0) return row(partition, pos);
+                    positions = null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Sorts the matches of each target partition on its own, keeping only the first
+     * {@code offset + limit} of each, and merges the sorted partitions. Equal rows come in
+     * partition order.
+     */
+    private RowSource orderedMatches(Snapshot[] snapshots, int[] targets, Plan plan, List<SortKey> orderBy,
+                                     int offset, int limit, ScanCount count) {
+        if (targets.length == 1) {
+            return rows(targets[0], orderedMatches(snapshots[targets[0]], plan, orderBy, offset, limit, count));
+        }
+        int bound = limit < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        SortOrder order = new SortOrder(schema, orderBy);
+        PositionSource[] sources = new PositionSource[targets.length];
+        int[] heads = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            sources[i] = orderedMatches(snapshots[targets[i]], plan, orderBy, 0, bound, count);
+            heads[i] = sources[i].next();
+        }
+        return () -> {
+            int first = -1;
+            for (int i = 0; i < heads.length; i++) {
+                if (heads[i] >= 0 && (first < 0 || order.compare(snapshots[targets[i]].storage(), heads[i],
+                        snapshots[targets[first]].storage(), heads[first]) < 0)) {
+                    first = i;
+                }
+            }
+            if (first < 0) return -1;
+            long row = row(targets[first], heads[first]);
+            heads[first] = sources[first].next();
+            return row;
+        };
+    }
+
+    private PositionSource orderedMatches(Snapshot snapshot, Plan plan, List<SortKey> orderBy, int offset, int limit,
+                                          ScanCount count) {
+        PositionScan scan;
+        if (orderBy.size() == 1 && snapshot.indexes().get(orderBy.get(0).column()) instanceof OrderedIndex index) {
+            scan = new PositionScan(snapshot, plan, false, count);
+            // An index narrowing the condition leaves few matches, which are cheaper to sort
+            if (!scan.isIndexed()) {
+                PrimitiveIterator.OfInt order = index.positions(orderBy.get(0).descending());
+                return () -> {
+                    while (order.hasNext()) {
+                        int pos = order.nextInt();
+                        count.examined++;
+                        if (pos < snapshot.limit() && scan.matches(pos)) return pos;
+                    }
+                    return -1;
+                };
+            }
+        } else {
+            scan = new PositionScan(snapshot, plan, true, count);
+        }
+        int bound = limit < 0 ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+        TopPositions top = new TopPositions(snapshot.storage(), orderBy, bound);
+        for (int pos = scan.next(); pos >= 0; pos = scan.next()) {
+            top.offer(pos);
         }
+        int[] sorted = top.sorted();
+        int[] next = {0};
+        return () -> next[0] < sorted.length ? sorted[next[0]++] : -1;
+    }
+
+    // Skips the first offset rows of a source and ends it after limit more, unless limit is -1
+    private static RowSource window(RowSource source, int offset, int limit) {
+        return new RowSource() {
+            private int skip = offset;
+            private long remaining = limit < 0 ? Long.MAX_VALUE : limit;
+
+            @Override
+            public long next() {
+                for (; skip > 0; skip--) {
+                    if (source.next() < 0) return -1;
+                }
+                if (remaining == 0) return -1;
+                remaining--;
+                return source.next();
+            }
+        };
+    }
+
+    private static RowSource rows(int partition, PositionSource positions) {
+        return () -> {
+            int pos = positions.next();
+            return pos < 0 ? -1 : row(partition, pos);
+        };
+    }
+
+    private static long row(int partition, int position) {
+        return (long) partition << 32 | position;
+    }
+
+    // Acquires the storages of all target partitions, or of none if one of them has been freed
+    private static boolean acquire(Snapshot[] snapshots, int[] targets) {
+        for (int i = 0; i < targets.length; i++) {
+            if (!snapshots[targets[i]].storage().acquire()) {
+                for (int j = 0; j < i; j++) {
+                    snapshots[targets[j]].storage().release();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void release(Snapshot[] snapshots, int[] targets) {
+        for (int p : targets) {
+            snapshots[p].storage().release();
+        }
+    }
+
+    private void forEachMatch(Snapshot snapshot, Plan plan, IntConsumer action) {
+        PositionScan scan = new PositionScan(snapshot, plan, true, new ScanCount());
+        for (int pos = scan.next(); pos >= 0; pos = scan.next()) {
+            action.accept(pos);
+        }
+    }
+
+    // Yields the positions of one partition a cursor reads, then -1
+    @FunctionalInterface
+    private interface PositionSource {
+        int next();
+    }
+
+    // Yields the rows a cursor reads, each as its partition in the high and its position in the low
+    // half of a long, then -1
+    @FunctionalInterface
+    private interface RowSource {
+        long next();
+    }
+
+    /**
+     * Walks the positions of a snapshot that are visible and match a plan's filter, in position
+     * order. Takes the candidates from an index when the plan has a lookup. Otherwise large tables
+     * are scanned in parallel up front and small ones sequentially as the scan advances, in both
+     * cases skipping the blocks whose zone maps rule out a match or whose versions are all deleted.
+     */
+    private class PositionScan implements PositionSource {
+        private final Snapshot snapshot;
+        private final IntPredicate predicate;
+        private final int[] candidates;
+        private final ScanCount count;
+        // Blocks below the snapshot's limit holding no match, null when there are none
+        private boolean[] ruledOut;
+        private int ruledOutBlocks;
+        private int ruledOutPositions;
+        private int cursor;
+
+        /**
+         * @param parallel whether a large unindexed scan may test all positions up front in parallel
+         * @param count    counts the positions {@link #next()} examines
+         */
+        PositionScan(Snapshot snapshot, Plan plan, boolean parallel, ScanCount count) {
+            this.snapshot = snapshot;
+            this.count = count;
+            IntPredicate bound = plan.filter() != null ? plan.filter().bind(snapshot.storage()) : null;
+            int[] indexed = plan.lookup() != null ? plan.lookup().candidates(snapshot.indexes()) : null;
+            if (indexed == null) ruleOutBlocks(plan.filter() != null ? plan.filter().blocks(snapshot.storage()) : null);
+            if (parallel && indexed == null && bound != null && scanner != null && scanner.shouldParallelize(snapshot.limit())) {
+                // Parallel matches are already tested, so only the position order is left to walk
+                IntPredicate test = bound;
+                indexed = scanner.scan(pos -> isCandidate(pos) && snapshot.isVisible(pos) && test.test(pos), snapshot.limit());
+                bound = pos -> true;
+                countWholeWalk();
+                // Walking the matches counts them once more
+                count.examined -= indexed.length;
+            }
+            this.predicate = bound;
+            this.candidates = indexed;
+        }
+
+        private void ruleOutBlocks(IntPredicate blocks) {
+            int limit = snapshot.limit();
+            int blockCount = (limit + TableStorage.BLOCK_SIZE - 1) >>> TableStorage.BLOCK_SHIFT;
+            for (int block = 0; block < blockCount; block++) {
+                if (snapshot.storage().isBlockDead(block, snapshot.seq()) || (blocks != null && !blocks.test(block))) {
+                    if (ruledOut == null) ruledOut = new boolean[blockCount];
+                    ruledOut[block] = true;
+                    ruledOutBlocks++;
+                    ruledOutPositions += Math.min(TableStorage.BLOCK_SIZE, limit - (block << TableStorage.BLOCK_SHIFT));
+                }
+            }
+        }
+
+        boolean isIndexed() {
+            return candidates != null;
+        }
+
+        /**
+         * Counts a walk over all the positions of the snapshot, outside of {@link #next()}.
+         */
+        void countWholeWalk() {
+            count.examined += snapshot.limit() - ruledOutPositions;
+            count.blocksSkipped += ruledOutBlocks;
+        }
+
+        /**
+         * Whether the position is visible and matches, regardless of where the scan stands.
+         */
+        boolean matches(int pos) {
+            return isCandidate(pos) && snapshot.isVisible(pos) && (predicate == null || predicate.test(pos));
+        }
+
+        private boolean isCandidate(int pos) {
+            return ruledOut == null || !ruledOut[pos >>> TableStorage.BLOCK_SHIFT];
+        }
+
+        @Override
+        public int next() {
+            if (candidates != null) {
+                while (cursor < candidates.length) {
+                    int pos = candidates[cursor++];
+                    count.examined++;
+                    // Indexes may already hold positions written after this snapshot
+                    if (pos < snapshot.limit() && snapshot.isVisible(pos) && predicate.test(pos)) return pos;
+                }
+                return -1;
+            }
+            while (cursor < snapshot.limit()) {
+                int pos = cursor++;
+                if ((pos & (TableStorage.BLOCK_SIZE - 1)) == 0 && !isCandidate(pos)) {
+                    cursor = pos + TableStorage.BLOCK_SIZE;
+                    count.blocksSkipped++;
+                    continue;
+                }
+                count.examined++;
+                if (snapshot.isVisible(pos) && (predicate == null || predicate.test(pos))) return pos;
+            }
+            return -1;
+        }
+    }
+
+    private static class ScanCursor implements RowCursor {
+        private final Snapshot[] snapshots;
+        private final int[] targets;
+        private final RowSource rows;
+        private final int[] projection;
+        private final Schema resultSchema;
+        private final ScanCount count;
+        private final TableStats stats;
+        private long nextRow;
+        private long returned;
+
+        ScanCursor(Snapshot[] snapshots, int[] targets, RowSource rows, int[] projection, Schema resultSchema,
+                   ScanCount count, TableStats stats) {
+            this.snapshots = snapshots;
+            this.targets = targets;
+            this.rows = rows;
+            this.projection = projection;
+            this.resultSchema = resultSchema;
+            this.count = count;
+            this.stats = stats;
+            this.nextRow = rows.next();
+            if (nextRow < 0) finish();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextRow >= 0;
+        }
+
+        @Override
+        public Row next() {
+            if (nextRow < 0) throw new NoSuchElementException();
+            TableStorage storage = snapshots[(int) (nextRow >>> 32)].storage();
+            int position = (int) nextRow;
+            Row row = projection != null ?
+                    storage.materialize(position, projection, resultSchema) :
+                    storage.materialize(position);
+            returned++;
+            nextRow = rows.next();
+            if (nextRow < 0) finish();
+            return row;
+        }
+
+        @Override
+        public void close() {
+            if (nextRow >= 0) {
+                nextRow = -1;
+                finish();
+            }
+        }
+
+        private void finish() {
+            release(snapshots, targets);
+            stats.recordScan(count.examined, returned, count.blocksSkipped);
+        }
+    }
+
+    private static final class VacuumExecutor {
+        static final ExecutorService INSTANCE = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "tabledb-vacuum");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public String getName() {
@@ -84,4 +1171,48 @@ public class Table {
     public Map<String, Column> getColumns() {
         return new LinkedHashMap<>(columns);
     }
-}
\ No newline at end of file
+
+    /**
+     * Number of rows as of the latest commit.
+     */
+    public int getRowCount() {
+        int rows = 0;
+        for (Partition partition : partitions) {
+            rows += partition.rowCount;
+        }
+        return rows;
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * Returns a number that changes whenever a write to the table commits, so results computed
+     * while it stays the same are still valid. Versions are never reused, not even by other tables.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Reads and lock times of the table since it was created or loaded.
+     */
+    public TableStats getStats() {
+        return stats;
+    }
+
+    /**
+     * How the rows are spread over partitions, or {@code null} if the table has a single one.
+     */
+    public Partitioning getPartitioning() {
+        return partitioning;
+    }
+
+    public Map<String, IndexType> getIndexTypes() {
+        TableIndexes indexes = published.get()[0].indexes();
+        Map<String, IndexType> types = new LinkedHashMap<>();
+        indexes.columns().forEach(column -> types.put(column, indexes.get(column).type()));
+        return types;
+    }
+}
@@ -0,0 +1,85 @@
+package com.tabledb.model;
+
+import com.tabledb.storage.TableStorage;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the first {@code bound} storage positions in the order of a list of sort keys, in a binary
+ * heap whose root is the last of them. Taking the first n of m matches costs O(n) memory and
+ * O(m log n) comparisons. Ties are broken by position, so the result equals a stable sort of the
+ * scan order.
+ */
+final class TopPositions {
+    private final TableStorage storage;
+    private final SortOrder order;
+    private final int bound;
+    private int[] heap;
+    private int size;
+
+    /**
+     * @param bound how many positions to keep, {@link Integer#MAX_VALUE} for all of them
+     * @throws IllegalArgumentException if a sort column does not exist
+     */
+    TopPositions(TableStorage storage, List<SortKey> keys, int bound) {
+        this.storage = storage;
+        this.order = new SortOrder(storage.schema(), keys);
+        this.bound = bound;
+        this.heap = new int[Math.min(bound, 64)];
+    }
+
+    void offer(int position) {
+        if (bound == 0) return;
+        if (size < bound) {
+            if (size == heap.length) heap = Arrays.copyOf(heap, (int) Math.min(bound, size * 2L));
+            heap[size] = position;
+            siftUp(size++);
+        } else if (compare(position, heap[0]) < 0) {
+            heap[0] = position;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Returns the kept positions in order. The heap is sorted in place, so this is called once.
+     */
+    int[] sorted() {
+        for (int end = size - 1; end > 0; end--) {
+            int last = heap[0];
+            heap[0] = heap[end];
+            heap[end] = last;
+            siftDown(0, end);
+        }
+        return Arrays.copyOf(heap, size);
+    }
+
+    private void siftUp(int index) {
+        int position = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(position, heap[parent]) <= 0) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = position;
+    }
+
+    private void siftDown(int index, int end) {
+        int position = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= end) break;
+            if (child + 1 < end && compare(heap[child + 1], heap[child]) > 0) child++;
+            if (compare(position, heap[child]) >= 0) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = position;
+    }
+
+    private int compare(int left, int right) {
+        int result = order.compare(storage, left, storage, right);
+        return result != 0 ? result : Integer.compare(left, right);
+    }
+}
@@ -0,0 +1,29 @@
+package com.tabledb.model;
+
+/**
+ * Interval of column values; a {@code null} bound is unbounded on that side.
+ */
+public record ValueRange(Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive) {
+    public ValueRange {
+        if (lower == null && upper == null) throw new IllegalArgumentException("Range needs at least one bound");
+    }
+
+    /**
+     * Values of a different type than a bound never fall within the range.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public boolean contains(Object value) {
+        if (!(value instanceof Comparable)) return false;
+        if (lower != null) {
+            if (lower.getClass() != value.getClass()) return false;
+            int cmp = ((Comparable) value).compareTo(lower);
+            if (cmp < 0 || (cmp == 0 && !lowerInclusive)) return false;
+        }
+        if (upper != null) {
+            if (upper.getClass() != value.getClass()) return false;
+            int cmp = ((Comparable) value).compareTo(upper);
+            if (cmp > 0 || (cmp == 0 && !upperInclusive)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.tabledb.planner;
+
+import com.tabledb.index.ValueComparator;
+
+/**
+ * Distinct count and value bounds of one column of one partition, kept up to date as row versions
+ * are appended. Superseded versions still count until the partition is vacuumed, so the bounds may
+ * be wider and the distinct count higher than those of the current rows.
+ * <p>
+ * Only the partition's writer adds values; planners read them concurrently, without locking, and
+ * may miss the latest writes.
+ */
+public final class ColumnStatistics {
+    private final HyperLogLog distinct = new HyperLogLog();
+    private volatile Object min;
+    private volatile Object max;
+
+    public void add(Object value) {
+        distinct.add(HyperLogLog.hash(value));
+        if (min == null || ValueComparator.INSTANCE.compare(value, min) < 0) min = value;
+        if (max == null || ValueComparator.INSTANCE.compare(value, max) > 0) max = value;
+    }
+
+    /**
+     * Combines the statistics of the same column in several partitions.
+     *
+     * @param rowCount the table's current row count, which the distinct count cannot exceed
+     */
+    static ColumnSummary summarize(ColumnStatistics[] parts, long rowCount) {
+        HyperLogLog merged = new HyperLogLog();
+        Object min = null;
+        Object max = null;
+        for (ColumnStatistics part : parts) {
+            merged.merge(part.distinct);
+            Object partMin = part.min;
+            Object partMax = part.max;
+            if (partMin != null && (min == null || ValueComparator.INSTANCE.compare(partMin, min) < 0)) min = partMin;
+            if (partMax != null && (max == null || ValueComparator.INSTANCE.compare(partMax, max) > 0)) max = partMax;
+        }
+        return new ColumnSummary(Math.min(merged.estimate(), rowCount), min, max);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tabledb.planner;
+
+/**
+ * Estimated statistics of one column over a whole table.
+ *
+ * @param distinct estimated number of distinct values, 0 for an empty column
+ * @param min      the smallest value, {@code null} for an empty column
+ * @param max      the largest value, {@code null} for an empty column
+ */
+public record ColumnSummary(long distinct, Object min, Object max) {
+}
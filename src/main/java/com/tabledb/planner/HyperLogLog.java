@@ -0,0 +1,56 @@
+package com.tabledb.planner;
+
+/**
+ * HyperLogLog sketch estimating how many distinct values were added, in a fixed 1 KB whatever the
+ * count, with a standard error of about 3%. Sketches of disjoint parts merge into the sketch of the
+ * whole. Not synchronized.
+ */
+public final class HyperLogLog {
+    private static final int PRECISION = 10;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    // Per register, the highest position of the first 1 bit seen in the hashes routed to it
+    private final byte[] registers = new byte[REGISTERS];
+
+    public void add(long hash) {
+        int register = (int) (hash >>> (64 - PRECISION));
+        // The guard bit caps the rank, so an all-zero remainder cannot overflow it
+        int rank = Long.numberOfLeadingZeros(hash << PRECISION | 1L << (PRECISION - 1)) + 1;
+        if (rank > registers[register]) registers[register] = (byte) rank;
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += Math.scalb(1.0, -rank);
+            if (rank == 0) zeros++;
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small counts leave registers empty; counting those is more accurate there
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Spreads a value's hash over all 64 bits, as the sketch needs.
+     */
+    public static long hash(Object value) {
+        long h = (value instanceof Integer i ? i : value.hashCode()) + 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tabledb.planner;
+
+import com.tabledb.condition.Condition;
+
+/**
+ * How a read of one table finds its rows.
+ *
+ * @param filter        the condition every row is tested against, with its parts in the order they
+ *                      are evaluated, or {@code null} to read all rows
+ * @param lookup        the part of the filter whose index gives the candidate rows, or {@code null}
+ *                      to scan the whole table
+ * @param lookupRows    estimated number of candidates the lookup yields
+ * @param estimatedRows estimated number of rows matching the filter
+ * @param statistics    the statistics the estimates were made from
+ */
+public record Plan(Condition filter, Condition lookup, long lookupRows, long estimatedRows, TableStatistics statistics) {
+    /**
+     * Describes the access path, such as {@code SCAN} or {@code INDEX LOOKUP id = 5}.
+     */
+    public String access() {
+        return lookup == null ? "SCAN" : "INDEX LOOKUP " + lookup;
+    }
+}
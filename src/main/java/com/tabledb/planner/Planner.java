@@ -0,0 +1,157 @@
+package com.tabledb.planner;
+
+import com.tabledb.condition.AndCondition;
+import com.tabledb.condition.Condition;
+import com.tabledb.condition.Conditions;
+import com.tabledb.condition.OrCondition;
+import com.tabledb.condition.RangeCondition;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.index.OrderedIndex;
+import com.tabledb.index.TableIndexes;
+import com.tabledb.index.ValueComparator;
+import com.tabledb.model.ValueRange;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chooses how a read finds its rows from the table's statistics. Selectivities assume values are
+ * spread evenly between a column's bounds and conditions on different columns are independent.
+ * <ul>
+ *   <li>The children of an AND are evaluated most selective first, so most rows fail on the first
+ *   test; those of an OR least selective first, so most rows pass on the first test.</li>
+ *   <li>Of the parts of the condition that all rows must satisfy, the most selective one with a
+ *   usable index gives the candidates, unless it matches so many rows that scanning the table in
+ *   order is cheaper.</li>
+ * </ul>
+ */
+public final class Planner {
+    // Cost of reading a row through an index relative to reading it during a scan, as candidates
+    // are spread over the whole storage
+    private static final double INDEX_ROW_COST = 4;
+    // Selectivity of a condition nothing is known about
+    private static final double DEFAULT_SELECTIVITY = 1.0 / 3;
+
+    private Planner() {
+    }
+
+    /**
+     * @param indexes the indexes of the table, which are the same in every partition
+     */
+    public static Plan plan(Condition condition, TableStatistics statistics, TableIndexes indexes) {
+        long rows = statistics.getRowCount();
+        if (condition == null) return new Plan(null, null, 0, rows, statistics);
+        Condition filter = order(condition, statistics);
+        Condition lookup = null;
+        double lookupSelectivity = 1 / INDEX_ROW_COST;
+        for (Condition part : Conditions.conjuncts(filter)) {
+            if (!isIndexed(part, indexes)) continue;
+            double selectivity = selectivity(part, statistics);
+            if (selectivity < lookupSelectivity) {
+                lookup = part;
+                lookupSelectivity = selectivity;
+            }
+        }
+        long lookupRows = lookup != null ? estimate(rows, lookupSelectivity) : 0;
+        return new Plan(filter, lookup, lookupRows, estimate(rows, selectivity(filter, statistics)), statistics);
+    }
+
+    /**
+     * Estimates the fraction of rows matching {@code condition}, between 0 and 1.
+     */
+    public static double selectivity(Condition condition, TableStatistics statistics) {
+        if (condition instanceof SimpleCondition simple) {
+            ColumnSummary column = statistics.column(simple.getColumn());
+            if (column == null || column.distinct() == 0) return 0;
+            Object value = simple.getValue();
+            if (value.getClass() == column.min().getClass() && (ValueComparator.INSTANCE.compare(value, column.min()) < 0
+                    || ValueComparator.INSTANCE.compare(value, column.max()) > 0)) {
+                return 0;
+            }
+            return 1.0 / column.distinct();
+        } else if (condition instanceof RangeCondition range) {
+            ColumnSummary column = statistics.column(range.getColumn());
+            if (column == null || column.distinct() == 0) return 0;
+            return rangeSelectivity(range.getRange(), column);
+        } else if (condition instanceof AndCondition and) {
+            double selectivity = 1;
+            for (Condition child : and.getConditions()) {
+                selectivity *= selectivity(child, statistics);
+            }
+            return selectivity;
+        } else if (condition instanceof OrCondition or) {
+            double missed = 1;
+            for (Condition child : or.getConditions()) {
+                missed *= 1 - selectivity(child, statistics);
+            }
+            return 1 - missed;
+        }
+        return DEFAULT_SELECTIVITY;
+    }
+
+    private static double rangeSelectivity(ValueRange range, ColumnSummary column) {
+        if (column.min() instanceof Integer min && column.max() instanceof Integer max) {
+            long from = min;
+            long to = max;
+            if (range.lower() != null) {
+                // Values of another type than a bound never match it
+                if (!(range.lower() instanceof Integer lower)) return 0;
+                from = Math.max(from, range.lowerInclusive() ? lower : lower + 1L);
+            }
+            if (range.upper() != null) {
+                if (!(range.upper() instanceof Integer upper)) return 0;
+                to = Math.min(to, range.upperInclusive() ? upper : upper - 1L);
+            }
+            return from > to ? 0 : (to - from + 1.0) / ((long) max - min + 1.0);
+        }
+        // Without numeric bounds only a range missing all values is recognized
+        if (range.lower() != null && range.lower().getClass() == column.max().getClass()) {
+            int cmp = ValueComparator.INSTANCE.compare(range.lower(), column.max());
+            if (cmp > 0 || (cmp == 0 && !range.lowerInclusive())) return 0;
+        }
+        if (range.upper() != null && range.upper().getClass() == column.min().getClass()) {
+            int cmp = ValueComparator.INSTANCE.compare(range.upper(), column.min());
+            if (cmp < 0 || (cmp == 0 && !range.upperInclusive())) return 0;
+        }
+        return DEFAULT_SELECTIVITY;
+    }
+
+    // Orders the children of every AND and OR in the condition by selectivity
+    private static Condition order(Condition condition, TableStatistics statistics) {
+        if (condition instanceof AndCondition and) {
+            List<Condition> children = orderChildren(and.getConditions(), statistics);
+            children.sort(Comparator.comparingDouble(child -> selectivity(child, statistics)));
+            return new AndCondition(children);
+        } else if (condition instanceof OrCondition or) {
+            List<Condition> children = orderChildren(or.getConditions(), statistics);
+            children.sort(Comparator.comparingDouble(child -> -selectivity(child, statistics)));
+            return new OrCondition(children);
+        }
+        return condition;
+    }
+
+    private static List<Condition> orderChildren(List<Condition> conditions, TableStatistics statistics) {
+        List<Condition> children = new ArrayList<>(conditions.size());
+        conditions.forEach(child -> children.add(order(child, statistics)));
+        return children;
+    }
+
+    // Whether the condition's candidates can come from the indexes rather than a scan
+    private static boolean isIndexed(Condition condition, TableIndexes indexes) {
+        if (condition instanceof SimpleCondition simple) {
+            return indexes.get(simple.getColumn()) != null;
+        } else if (condition instanceof RangeCondition range) {
+            return indexes.get(range.getColumn()) instanceof OrderedIndex;
+        } else if (condition instanceof AndCondition and) {
+            return and.getConditions().stream().anyMatch(child -> isIndexed(child, indexes));
+        } else if (condition instanceof OrCondition or) {
+            return !or.getConditions().isEmpty() && or.getConditions().stream().allMatch(child -> isIndexed(child, indexes));
+        }
+        return false;
+    }
+
+    private static long estimate(long rows, double selectivity) {
+        return Math.round(rows * selectivity);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tabledb.planner;
+
+import com.tabledb.model.Schema;
+
+/**
+ * The row count of a table and the statistics of its columns, as of when this was taken. Columns
+ * are only summarized over the partitions once the planner asks for them.
+ */
+public final class TableStatistics {
+    private final Schema schema;
+    private final long rowCount;
+    // Per partition, the statistics of every column
+    private final ColumnStatistics[][] partitions;
+    // Filled in on first use; racing threads compute equal summaries, so no lock is needed
+    private final ColumnSummary[] summaries;
+
+    public TableStatistics(Schema schema, long rowCount, ColumnStatistics[][] partitions) {
+        this.schema = schema;
+        this.rowCount = rowCount;
+        this.partitions = partitions;
+        this.summaries = new ColumnSummary[schema.size()];
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the statistics of a column, or {@code null} if the table has no such column.
+     */
+    public ColumnSummary column(String name) {
+        int ordinal = schema.ordinal(name);
+        if (ordinal < 0) return null;
+        ColumnSummary summary = summaries[ordinal];
+        if (summary == null) {
+            ColumnStatistics[] parts = new ColumnStatistics[partitions.length];
+            for (int p = 0; p < parts.length; p++) {
+                parts[p] = partitions[p][ordinal];
+            }
+            summary = ColumnStatistics.summarize(parts, rowCount);
+            summaries[ordinal] = summary;
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,91 @@
+package com.tabledb.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A connection to a {@link Server}, acting as one session. Not thread-safe: give each thread its
+ * own client.
+ *
+ * <p>{@link #execute(String)} waits for each result in turn. To pipeline, {@link #send(String)}
+ * several commands, {@link #flush()}, then {@link #receive()} their results in the same order; or
+ * let {@link #executeAll(List)} do so.
+ */
+public class Client implements AutoCloseable {
+    // Bounds the unread responses, so neither side can block on a full socket buffer
+    private static final int PIPELINE_WINDOW = 256;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private Client(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), Protocol.BUFFER_SIZE));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), Protocol.BUFFER_SIZE));
+    }
+
+    public static Client connect(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        try {
+            return new Client(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public String execute(String command) throws IOException {
+        send(command);
+        flush();
+        return receive();
+    }
+
+    /**
+     * Runs the commands pipelined and returns their results in order.
+     */
+    public List<String> executeAll(List<String> commands) throws IOException {
+        List<String> results = new ArrayList<>(commands.size());
+        for (int start = 0; start < commands.size(); start += PIPELINE_WINDOW) {
+            int end = Math.min(start + PIPELINE_WINDOW, commands.size());
+            for (int i = start; i < end; i++) {
+                send(commands.get(i));
+            }
+            flush();
+            for (int i = start; i < end; i++) {
+                results.add(receive());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Queues a command without waiting for its result.
+     */
+    public void send(String command) throws IOException {
+        Protocol.writeRequest(out, command);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Reads the result of the oldest command sent and not yet received.
+     */
+    public String receive() throws IOException {
+        return Protocol.readResponse(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.tabledb.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by {@link Server} and {@link Client}. Every request is one command sent as
+ * {@code [int length][UTF-8 bytes]}. Every response is the command's result as a sequence of such
+ * chunks, ended by an empty chunk, so large SELECT results can be streamed without knowing their
+ * size up front. Responses come back in request order, so a client may pipeline requests.
+ */
+final class Protocol {
+    static final int MAX_REQUEST_BYTES = 16 * 1024 * 1024;
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private Protocol() {
+    }
+
+    static void writeRequest(DataOutputStream out, String command) throws IOException {
+        byte[] bytes = command.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the next command, or {@code null} if the peer closed the connection between requests.
+     */
+    static String readRequest(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_REQUEST_BYTES) throw new IOException("Invalid request length: " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String readResponse(DataInputStream in) throws IOException {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        for (int length = in.readInt(); length != 0; length = in.readInt()) {
+            if (length < 0) throw new IOException("Invalid response chunk length: " + length);
+            byte[] chunk = new byte[length];
+            in.readFully(chunk);
+            response.write(chunk);
+        }
+        return response.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,89 @@
+package com.tabledb.server;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes one response after another in the chunked format of {@link Protocol}. Characters are
+ * collected into chunks of up to {@value #CHUNK_CHARS}; {@link #endResponse()} writes the rest and
+ * the terminating empty chunk.
+ */
+final class ResponseWriter extends Writer {
+    private static final int CHUNK_CHARS = 8192;
+
+    private final DataOutputStream out;
+    private final char[] chars = new char[CHUNK_CHARS];
+    private final ByteBuffer bytes = ByteBuffer.allocate(CHUNK_CHARS * 3);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private int length;
+
+    ResponseWriter(DataOutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (length == CHUNK_CHARS) writeChunk();
+        chars[length++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] source, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == CHUNK_CHARS) writeChunk();
+            int n = Math.min(count, CHUNK_CHARS - length);
+            System.arraycopy(source, offset, chars, length, n);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    @Override
+    public void write(String source, int offset, int count) throws IOException {
+        while (count > 0) {
+            if (length == CHUNK_CHARS) writeChunk();
+            int n = Math.min(count, CHUNK_CHARS - length);
+            source.getChars(offset, offset + n, chars, length);
+            length += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    void endResponse() throws IOException {
+        writeChunk();
+        // Anything left is a lone high surrogate, which can no longer be completed
+        length = 0;
+        out.writeInt(0);
+    }
+
+    private void writeChunk() throws IOException {
+        // A surrogate pair must not be split between chunks, since each is encoded on its own
+        int end = length > 0 && Character.isHighSurrogate(chars[length - 1]) ? length - 1 : length;
+        if (end == 0) return;
+        bytes.clear();
+        encoder.reset();
+        encoder.encode(CharBuffer.wrap(chars, 0, end), bytes, true);
+        encoder.flush(bytes);
+        out.writeInt(bytes.position());
+        out.write(bytes.array(), 0, bytes.position());
+        System.arraycopy(chars, end, chars, 0, length - end);
+        length -= end;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
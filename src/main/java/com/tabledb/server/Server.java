@@ -0,0 +1,176 @@
+package com.tabledb.server;
+
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.command.PlanCache;
+import com.tabledb.command.ResultCache;
+import com.tabledb.core.Database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves a shared {@link Database} over TCP. Every connection is a session with its own
+ * {@link CommandProcessor}, so prepared statements stay private to it, while all sessions share one
+ * plan cache and one result cache. Sessions run on virtual threads where the runtime has them
+ * (Java 21 and later) and on pooled platform threads otherwise.
+ *
+ * <p>Pipelined requests are executed in order, and their responses are only flushed once no
+ * further request is waiting to be read, so a batch of requests costs a few packets each way.
+ *
+ * <p>Sessions are not authenticated: the server listens on the loopback address unless
+ * {@link com.tabledb.core.DatabaseConfig#setServerBindAddress} says otherwise, and no session may
+ * purge the shared database.
+ */
+public class Server implements AutoCloseable {
+    public static final int DEFAULT_PORT = 5480;
+
+    private final Database database;
+    private final PlanCache planCache;
+    private final ResultCache resultCache;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    private Server(Database database, ServerSocket serverSocket) {
+        this.database = database;
+        this.planCache = new PlanCache(database.getConfig().getPlanCacheSize());
+        this.resultCache = new ResultCache(database.getConfig().getResultCacheSize(), database.getConfig().getResultCacheBytes());
+        this.serverSocket = serverSocket;
+        this.sessions = newSessionExecutor();
+        this.acceptor = new Thread(this::acceptConnections, "tabledb-server-acceptor");
+    }
+
+    /**
+     * Starts listening on {@code port} of the database's configured bind address; port 0 picks a
+     * free one.
+     */
+    public static Server start(Database database, int port) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        try {
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(new InetSocketAddress(database.getConfig().getServerBindAddress(), port));
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        Server server = new Server(database, serverSocket);
+        server.acceptor.start();
+        return server;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public InetAddress getAddress() {
+        return serverSocket.getInetAddress();
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                // Closing the server socket is how the loop is stopped
+                if (closed) return;
+                continue;
+            }
+            connections.add(socket);
+            if (closed) {
+                closeQuietly(socket);
+                return;
+            }
+            sessions.execute(() -> serve(socket));
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), Protocol.BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), Protocol.BUFFER_SIZE));
+            ResponseWriter response = new ResponseWriter(out);
+            // Not closed at the end: that would close the shared database
+            CommandProcessor processor = new CommandProcessor(database, planCache, resultCache, true);
+            while (processor.isRunning()) {
+                String command = Protocol.readRequest(in);
+                if (command == null) break;
+                processor.processCommand(command, response);
+                response.endResponse();
+                if (in.available() == 0) out.flush();
+            }
+            out.flush();
+        } catch (IOException e) {
+            // The client went away; its session simply ends
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Blocks until the server has been closed.
+     */
+    public void awaitClose() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections, disconnects every session and waits for them to end. The
+     * database is left open.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly(serverSocket);
+        connections.forEach(Server::closeQuietly);
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(10, TimeUnit.SECONDS);
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already closed or broken, either way it is gone
+        }
+    }
+
+    /**
+     * Looked up reflectively so the server still builds and runs on Java 17.
+     */
+    static ExecutorService newSessionExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "tabledb-session-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tabledb.snapshot;
+
+/**
+ * Layout of a snapshot file, all integers big-endian and strings as an int length followed by
+ * UTF-8 bytes:
+ *
+ * <pre>
+ * file      := MAGIC VERSION tableCount:int directoryOffset:long section* directory
+ * directory := (name lsn:long offset:long length:long)*
+ * section   := TABLE_MAGIC name storageMode:byte columnCount:int (name type:byte)*
+ *              indexCount:int (column indexType:byte)* lsn:long rowCount:int block*
+ *            | PARTITIONED_TABLE_MAGIC name storageMode:byte partitionColumn partitionCount:int
+ *              columnCount:int (name type:byte)* indexCount:int (column indexType:byte)*
+ *              lsn:long rowCount:int block*
+ * block     := length:long data           one per column, in schema order
+ * data      := int*                       for INT columns
+ *            | (length:int utf8)*         for STRING columns
+ * </pre>
+ *
+ * Sections are self-contained, so a table can be decoded, or copied into a new snapshot, without
+ * touching the others. Enums are stored by ordinal. Rows of a partitioned table are written
+ * partition after partition and spread over the partitions again when the table is loaded.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x54444253; // "TDBS"
+    static final int VERSION = 1;
+    static final int TABLE_MAGIC = 0x5442484C; // "TBHL"
+    static final int PARTITIONED_TABLE_MAGIC = 0x54424850; // "TBHP"
+    static final int FILE_HEADER_BYTES = 4 + 4 + 4 + 8;
+
+    private SnapshotFormat() {
+    }
+}
@@ -0,0 +1,203 @@
+package com.tabledb.snapshot;
+
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.Partitioning;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.Table;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads a snapshot written by {@link SnapshotWriter}. Opening only reads the table directory;
+ * each table is decoded straight out of memory-mapped column blocks when it is first loaded.
+ * The file stays open until {@link #close()}, so a reader keeps working even after a newer
+ * snapshot has replaced the file on disk.
+ */
+public final class SnapshotReader implements AutoCloseable {
+    private final Path file;
+    private final FileChannel channel;
+    private final Map<String, Entry> directory;
+
+    record Entry(String name, long lsn, long offset, long length) {
+    }
+
+    /**
+     * Creates a table for a section, typically through the database so it gets the usual settings.
+     */
+    public interface TableFactory {
+        /**
+         * @param partitioning {@code null} for a table with a single partition
+         */
+        Table create(String name, List<Column> columns, StorageMode storageMode, Partitioning partitioning);
+    }
+
+    private SnapshotReader(Path file, FileChannel channel, Map<String, Entry> directory) {
+        this.file = file;
+        this.channel = channel;
+        this.directory = directory;
+    }
+
+    public static SnapshotReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = map(channel, 0, SnapshotFormat.FILE_HEADER_BYTES, file);
+            if (header.getInt() != SnapshotFormat.MAGIC) throw new IOException("Not a snapshot file: " + file);
+            int version = header.getInt();
+            if (version != SnapshotFormat.VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            int tableCount = header.getInt();
+            long directoryOffset = header.getLong();
+
+            ByteBuffer buffer = map(channel, directoryOffset, channel.size() - directoryOffset, file);
+            Map<String, Entry> directory = new LinkedHashMap<>();
+            for (int i = 0; i < tableCount; i++) {
+                Entry entry = new Entry(readString(buffer), buffer.getLong(), buffer.getLong(), buffer.getLong());
+                directory.put(entry.name(), entry);
+            }
+            return new SnapshotReader(file, channel, directory);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException io ? io : new IOException("Corrupt snapshot file: " + file, e);
+        }
+    }
+
+    public Set<String> tableNames() {
+        return Collections.unmodifiableSet(directory.keySet());
+    }
+
+    public boolean contains(String table) {
+        return directory.containsKey(table);
+    }
+
+    /**
+     * LSN of the last logged change included in the table's section.
+     */
+    public long lsn(String table) {
+        return entry(table).lsn();
+    }
+
+    /**
+     * Decodes the table's section into a new table built by {@code factory}, indexes included.
+     */
+    public Table load(String name, TableFactory factory) throws IOException {
+        Entry entry = entry(name);
+        ByteBuffer section = map(channel, entry.offset(), entry.length(), file);
+        int magic = section.getInt();
+        if (magic != SnapshotFormat.TABLE_MAGIC && magic != SnapshotFormat.PARTITIONED_TABLE_MAGIC) {
+            throw new IOException("Corrupt table section: " + name);
+        }
+
+        String tableName = readString(section);
+        StorageMode storageMode = StorageMode.values()[section.get()];
+        Partitioning partitioning = magic == SnapshotFormat.PARTITIONED_TABLE_MAGIC ?
+                new Partitioning(readString(section), section.getInt()) :
+                null;
+        int columnCount = section.getInt();
+        List<Column> columns = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(new Column(readString(section), DataType.values()[section.get()]));
+        }
+        int indexCount = section.getInt();
+        Map<String, IndexType> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < indexCount; i++) {
+            indexes.put(readString(section), IndexType.values()[section.get()]);
+        }
+        long lsn = section.getLong();
+        int rowCount = section.getInt();
+
+        // Each column block gets its own mapping, so only a single block has to fit in 2 GB
+        ByteBuffer[] blocks = new ByteBuffer[columnCount];
+        long offset = entry.offset() + section.position();
+        for (int i = 0; i < columnCount; i++) {
+            long length = map(channel, offset, 8, file).getLong();
+            blocks[i] = map(channel, offset + 8, length, file);
+            offset += 8 + length;
+        }
+
+        Table table = factory.create(tableName, columns, storageMode, partitioning);
+        table.restore(new RowDecoder(columns, blocks, rowCount), lsn);
+        for (Map.Entry<String, IndexType> index : indexes.entrySet()) {
+            table.createIndex(index.getKey(), index.getValue());
+        }
+        return table;
+    }
+
+    Entry entry(String table) {
+        Entry entry = directory.get(table);
+        if (entry == null) throw new IllegalArgumentException("Table not in snapshot: " + table);
+        return entry;
+    }
+
+    long transferSection(Entry entry, long from, FileChannel target, long at) throws IOException {
+        target.position(at);
+        return channel.transferTo(entry.offset() + from, entry.length() - from, target);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer map(FileChannel channel, long offset, long length, Path file) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > channel.size()) {
+            throw new IOException("Truncated snapshot file: " + file);
+        }
+        if (length > Integer.MAX_VALUE) throw new IOException("Snapshot block larger than 2 GB: " + file);
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reassembles rows by reading the next value of every column block in step.
+     */
+    private static final class RowDecoder implements Iterator<Object[]> {
+        private final DataType[] types;
+        private final ByteBuffer[] blocks;
+        private final int rowCount;
+        private int row;
+
+        RowDecoder(List<Column> columns, ByteBuffer[] blocks, int rowCount) {
+            this.types = columns.stream().map(Column::type).toArray(DataType[]::new);
+            this.blocks = blocks;
+            this.rowCount = rowCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return row < rowCount;
+        }
+
+        @Override
+        public Object[] next() {
+            if (row >= rowCount) throw new NoSuchElementException();
+            Object[] values = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                values[i] = switch (types[i]) {
+                    case INT -> blocks[i].getInt();
+                    case STRING -> readString(blocks[i]);
+                };
+            }
+            row++;
+            return values;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.tabledb.snapshot;
+
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Column;
+import com.tabledb.model.Partitioning;
+import com.tabledb.model.RowCursor;
+import com.tabledb.model.Table;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes a snapshot file next to its target and moves it into place on {@link #commit()}, so
+ * readers only ever see a complete snapshot. Tables are streamed column by column from a pinned
+ * {@link Table.View}, so writing never blocks the table's writers.
+ */
+public final class SnapshotWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final SectionOutput out;
+    private final List<SnapshotReader.Entry> directory = new ArrayList<>();
+    private boolean committed;
+
+    private SnapshotWriter(Path target) throws IOException {
+        this.target = target;
+        this.temp = sibling(target, ".tmp");
+        this.channel = openForWrite(temp);
+        // The header is rewritten with the directory offset on commit
+        this.out = new SectionOutput(channel, SnapshotFormat.FILE_HEADER_BYTES);
+    }
+
+    public static SnapshotWriter create(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        return new SnapshotWriter(target);
+    }
+
+    /**
+     * Appends the rows visible in {@code view} as one table section.
+     */
+    public void writeTable(Table.View view) throws IOException {
+        directory.add(writeSection(view, out));
+    }
+
+    /**
+     * Writes a section per view, each into its own part file on {@code executor}, then appends the
+     * parts in order. The parts are copied file to file by the kernel.
+     */
+    public void writeTables(List<Table.View> views, Executor executor) throws IOException {
+        List<Path> parts = new ArrayList<>(views.size());
+        List<CompletableFuture<SnapshotReader.Entry>> sections = new ArrayList<>(views.size());
+        try {
+            for (int i = 0; i < views.size(); i++) {
+                Table.View view = views.get(i);
+                Path part = sibling(target, ".part" + i);
+                parts.add(part);
+                sections.add(CompletableFuture.supplyAsync(() -> {
+                    try (FileChannel partChannel = openForWrite(part)) {
+                        SectionOutput partOut = new SectionOutput(partChannel, 0);
+                        SnapshotReader.Entry entry = writeSection(view, partOut);
+                        partOut.flush();
+                        return entry;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor));
+            }
+            out.flush();
+            for (int i = 0; i < parts.size(); i++) {
+                SnapshotReader.Entry entry = join(sections.get(i));
+                long start = out.position();
+                try (FileChannel partChannel = FileChannel.open(parts.get(i), StandardOpenOption.READ)) {
+                    for (long copied = 0; copied < entry.length(); ) {
+                        copied += partChannel.transferTo(copied, entry.length() - copied, channel.position(start + copied));
+                    }
+                }
+                out.skip(entry.length());
+                directory.add(new SnapshotReader.Entry(entry.name(), entry.lsn(), start, entry.length()));
+            }
+        } finally {
+            // On failure the remaining sections still run to completion before their parts go
+            sections.forEach(section -> section.exceptionally(e -> null).join());
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    /**
+     * Copies a table section unchanged from an existing snapshot, without decoding it.
+     */
+    public void copyTable(SnapshotReader source, String name) throws IOException {
+        out.flush();
+        SnapshotReader.Entry entry = source.entry(name);
+        long start = out.position();
+        for (long copied = 0; copied < entry.length(); ) {
+            copied += source.transferSection(entry, copied, channel, start + copied);
+        }
+        out.skip(entry.length());
+        directory.add(new SnapshotReader.Entry(name, entry.lsn(), start, entry.length()));
+    }
+
+    /**
+     * Writes the directory and header, forces the file to disk and atomically replaces the target.
+     */
+    public void commit() throws IOException {
+        long directoryOffset = out.position();
+        for (SnapshotReader.Entry entry : directory) {
+            out.putString(entry.name());
+            out.putLong(entry.lsn());
+            out.putLong(entry.offset());
+            out.putLong(entry.length());
+        }
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.FILE_HEADER_BYTES);
+        header.putInt(SnapshotFormat.MAGIC).putInt(SnapshotFormat.VERSION).putInt(directory.size()).putLong(directoryOffset);
+        writeFully(channel, header.flip(), 0);
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes one table section at the current position of {@code out}; the returned entry's offset
+     * is relative to that output.
+     */
+    private static SnapshotReader.Entry writeSection(Table.View view, SectionOutput out) throws IOException {
+        Table table = view.table();
+        long start = out.position();
+        List<Column> columns = new ArrayList<>(table.getColumns().values());
+
+        Partitioning partitioning = table.getPartitioning();
+        out.putInt(partitioning != null ? SnapshotFormat.PARTITIONED_TABLE_MAGIC : SnapshotFormat.TABLE_MAGIC);
+        out.putString(table.getName());
+        out.putByte(table.getStorageMode().ordinal());
+        if (partitioning != null) {
+            out.putString(partitioning.column());
+            out.putInt(partitioning.count());
+        }
+        out.putInt(columns.size());
+        for (Column column : columns) {
+            out.putString(column.name());
+            out.putByte(column.type().ordinal());
+        }
+        Map<String, IndexType> indexes = table.getIndexTypes();
+        out.putInt(indexes.size());
+        for (Map.Entry<String, IndexType> index : indexes.entrySet()) {
+            out.putString(index.getKey());
+            out.putByte(index.getValue().ordinal());
+        }
+        out.putLong(view.lsn());
+        long rowCountAt = out.position();
+        out.putInt(0);
+
+        int rowCount = 0;
+        for (Column column : columns) {
+            long lengthAt = out.position();
+            out.putLong(0);
+            int rows = 0;
+            try (RowCursor cursor = view.cursor(List.of(column.name()), null)) {
+                while (cursor.hasNext()) {
+                    Object value = cursor.next().getValue(0);
+                    switch (column.type()) {
+                        // Tables keep every INT value as an Integer
+                        case INT -> out.putInt((Integer) value);
+                        case STRING -> out.putString((String) value);
+                    }
+                    rows++;
+                }
+            }
+            rowCount = rows;
+            out.patchLong(lengthAt, out.position() - lengthAt - 8);
+        }
+        out.patchInt(rowCountAt, rowCount);
+        return new SnapshotReader.Entry(table.getName(), view.lsn(), start, out.position() - start);
+    }
+
+    private static SnapshotReader.Entry join(CompletableFuture<SnapshotReader.Entry> section) throws IOException {
+        try {
+            return section.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw e;
+        }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName() + suffix);
+    }
+
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source, long at) throws IOException {
+        while (source.hasRemaining()) {
+            at += channel.write(source, at);
+        }
+    }
+
+    /**
+     * Buffered, positional output to a channel, with back-patching of lengths written earlier.
+     */
+    private static final class SectionOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long flushed;
+
+        SectionOutput(FileChannel channel, long position) {
+            this.channel = channel;
+            this.flushed = position;
+        }
+
+        long position() {
+            return flushed + buffer.position();
+        }
+
+        void putByte(int value) throws IOException {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void patchInt(long at, int value) throws IOException {
+            flush();
+            writeFully(channel, ByteBuffer.allocate(4).putInt(value).flip(), at);
+        }
+
+        void patchLong(long at, long value) throws IOException {
+            flush();
+            writeFully(channel, ByteBuffer.allocate(8).putLong(value).flip(), at);
+        }
+
+        // Accounts for bytes written to the channel directly; the buffer must be flushed
+        void skip(long bytes) {
+            flushed += bytes;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            int length = buffer.remaining();
+            writeFully(channel, buffer, flushed);
+            flushed += length;
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.tabledb.storage;
+
+import com.tabledb.model.ValueRange;
+
+import java.util.function.IntPredicate;
+
+abstract class ColumnVector {
+    abstract Object get(int position);
+
+    abstract void add(Object value);
+
+    abstract IntPredicate equalTo(Object value);
+
+    IntPredicate inRange(ValueRange range) {
+        return position -> range.contains(get(position));
+    }
+}
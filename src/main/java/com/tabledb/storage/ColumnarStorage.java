@@ -0,0 +1,78 @@
+package com.tabledb.storage;
+
+import com.tabledb.model.Row;
+import com.tabledb.model.Schema;
+import com.tabledb.model.ValueRange;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Column-oriented storage: INT columns live in primitive chunks and STRING columns are
+ * dictionary-encoded, so a row costs a few ints instead of a map of boxed values. With an
+ * off-heap arena, STRING bytes are kept outside the heap instead of in a dictionary.
+ */
+final class ColumnarStorage extends TableStorage {
+    private final ColumnVector[] vectors;
+    private final OffHeapArena arena;
+
+    ColumnarStorage(Schema schema, boolean offHeapStrings) {
+        super(schema);
+        this.vectors = new ColumnVector[schema.size()];
+        this.arena = offHeapStrings ? new OffHeapArena() : null;
+        StringDictionary dictionary = offHeapStrings ? null : new StringDictionary();
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = switch (schema.column(i).type()) {
+                case INT -> new IntColumn();
+                case STRING -> offHeapStrings ? new OffHeapStringColumn(arena) : new StringColumn(dictionary);
+            };
+        }
+    }
+
+    @Override
+    public long offHeapBytes() {
+        return arena != null ? arena.allocatedBytes() : 0;
+    }
+
+    @Override
+    protected void releaseMemory() {
+        if (arena != null) arena.free();
+    }
+
+    @Override
+    public Object getValue(int position, int ordinal) {
+        return vectors[ordinal].get(position);
+    }
+
+    @Override
+    public int getInt(int position, int ordinal) {
+        return vectors[ordinal] instanceof IntColumn ints ? ints.getInt(position) : super.getInt(position, ordinal);
+    }
+
+    @Override
+    public Row materialize(int position) {
+        Object[] values = new Object[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            values[i] = vectors[i].get(position);
+        }
+        return new Row(schema, values);
+    }
+
+    @Override
+    public IntPredicate equalTo(String column, Object value) {
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? position -> false : vectors[ordinal].equalTo(value);
+    }
+
+    @Override
+    public IntPredicate inRange(String column, ValueRange range) {
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? position -> false : vectors[ordinal].inRange(range);
+    }
+
+    @Override
+    protected void appendValues(Object[] values) {
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].add(values[i]);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.tabledb.storage;
+
+import java.util.Arrays;
+
+/**
+ * Append-only int array made of fixed-size chunks, so appends never copy or move existing values.
+ * A single writer appends while readers read positions that were published to them beforehand.
+ */
+final class IntChunks {
+    static final int CHUNK_SHIFT = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile int[][] chunks = new int[0][];
+    private int size;
+
+    int get(int index) {
+        return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    void add(int value) {
+        int[][] current = chunks;
+        int chunk = size >>> CHUNK_SHIFT;
+        if (chunk == current.length || current[chunk] == null) {
+            // Publish new chunks through a fresh directory so readers never see a half-built one
+            int capacity = chunk == current.length ? Math.max(4, current.length * 2) : current.length;
+            current = Arrays.copyOf(current, capacity);
+            current[chunk] = new int[CHUNK_SIZE];
+            chunks = current;
+        }
+        current[chunk][size & CHUNK_MASK] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+}
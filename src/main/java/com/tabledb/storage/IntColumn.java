@@ -0,0 +1,44 @@
+package com.tabledb.storage;
+
+import com.tabledb.model.ValueRange;
+
+import java.util.function.IntPredicate;
+
+final class IntColumn extends ColumnVector {
+    private final IntChunks values = new IntChunks();
+
+    int getInt(int position) {
+        return values.get(position);
+    }
+
+    @Override
+    Object get(int position) {
+        return values.get(position);
+    }
+
+    @Override
+    void add(Object value) {
+        values.add((Integer) value);
+    }
+
+    @Override
+    IntPredicate equalTo(Object value) {
+        if (!(value instanceof Integer)) return position -> false;
+        int expected = (Integer) value;
+        return position -> values.get(position) == expected;
+    }
+
+    @Override
+    IntPredicate inRange(ValueRange range) {
+        if ((range.lower() != null && !(range.lower() instanceof Integer))
+                || (range.upper() != null && !(range.upper() instanceof Integer))) {
+            return position -> false;
+        }
+        long min = range.lower() == null ? Long.MIN_VALUE : (Integer) range.lower() + (range.lowerInclusive() ? 0L : 1L);
+        long max = range.upper() == null ? Long.MAX_VALUE : (Integer) range.upper() - (range.upperInclusive() ? 0L : 1L);
+        return position -> {
+            int value = values.get(position);
+            return value >= min && value <= max;
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.tabledb.storage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Chunked long array like {@link IntChunks}. Values may be overwritten while readers are active,
+ * so element reads and writes go through opaque accesses that are never torn.
+ */
+final class LongChunks {
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private volatile long[][] chunks = new long[0][];
+    private int size;
+
+    long get(int index) {
+        return (long) ELEMENTS.getOpaque(chunks[index >>> IntChunks.CHUNK_SHIFT], index & IntChunks.CHUNK_MASK);
+    }
+
+    void set(int index, long value) {
+        ELEMENTS.setOpaque(chunks[index >>> IntChunks.CHUNK_SHIFT], index & IntChunks.CHUNK_MASK, value);
+    }
+
+    void add(long value) {
+        long[][] current = chunks;
+        int chunk = size >>> IntChunks.CHUNK_SHIFT;
+        if (chunk == current.length || current[chunk] == null) {
+            // Publish new chunks through a fresh directory so readers never see a half-built one
+            int capacity = chunk == current.length ? Math.max(4, current.length * 2) : current.length;
+            current = Arrays.copyOf(current, capacity);
+            current[chunk] = new long[IntChunks.CHUNK_SIZE];
+            chunks = current;
+        }
+        set(size, value);
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,34 @@
+package com.tabledb.storage;
+
+import java.util.Arrays;
+
+/**
+ * Chunked, append-only array of references with the same publication rules as {@link IntChunks}.
+ */
+final class ObjectChunks<T> {
+    private volatile Object[][] chunks = new Object[0][];
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        return (T) chunks[index >>> IntChunks.CHUNK_SHIFT][index & IntChunks.CHUNK_MASK];
+    }
+
+    void add(T value) {
+        Object[][] current = chunks;
+        int chunk = size >>> IntChunks.CHUNK_SHIFT;
+        if (chunk == current.length || current[chunk] == null) {
+            // Publish new chunks through a fresh directory so readers never see a half-built one
+            int capacity = chunk == current.length ? Math.max(4, current.length * 2) : current.length;
+            current = Arrays.copyOf(current, capacity);
+            current[chunk] = new Object[IntChunks.CHUNK_SIZE];
+            chunks = current;
+        }
+        current[chunk][size & IntChunks.CHUNK_MASK] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,72 @@
+package com.tabledb.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only store of UTF-8 strings in direct buffers outside the Java heap. Buffers start small
+ * and double up to {@link #MAX_BUFFER_BYTES}; a value never spans two buffers, so it is addressed
+ * by a single long holding the buffer index and the offset within it. Only the table's writer
+ * appends; readers use absolute reads of ranges that were published to them.
+ */
+final class OffHeapArena {
+    private static final int MIN_BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_BUFFER_BYTES = 16 * 1024 * 1024;
+
+    private final ObjectChunks<ByteBuffer> buffers = new ObjectChunks<>();
+    private ByteBuffer current;
+    private volatile long allocatedBytes;
+
+    long append(byte[] bytes) {
+        if (current == null || current.remaining() < bytes.length) {
+            int size = current == null ? MIN_BUFFER_BYTES : Math.min(current.capacity() * 2, MAX_BUFFER_BYTES);
+            current = ByteBuffer.allocateDirect(Math.max(size, bytes.length));
+            buffers.add(current);
+            allocatedBytes += current.capacity();
+        }
+        long address = ((long) (buffers.size() - 1) << 32) | current.position();
+        current.put(bytes);
+        return address;
+    }
+
+    String decode(long address, int length) {
+        byte[] bytes = new byte[length];
+        buffer(address).get(offset(address), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the stored value with {@code expected} byte by byte, without decoding it.
+     */
+    boolean equals(long address, byte[] expected) {
+        ByteBuffer buffer = buffer(address);
+        int offset = offset(address);
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + i) != expected[i]) return false;
+        }
+        return true;
+    }
+
+    long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Frees every buffer. The caller guarantees no reader or writer touches the arena afterwards.
+     */
+    void free() {
+        for (int i = 0; i < buffers.size(); i++) {
+            DirectMemory.free(buffers.get(i));
+        }
+        current = null;
+        allocatedBytes = 0;
+    }
+
+    private ByteBuffer buffer(long address) {
+        return buffers.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tabledb.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * STRING column whose bytes live in an {@link OffHeapArena}. On the heap each row only keeps the
+ * address, length and hash of its value; equality checks reject on hash and length before
+ * comparing bytes.
+ */
+final class OffHeapStringColumn extends ColumnVector {
+    private final OffHeapArena arena;
+    private final LongChunks addresses = new LongChunks();
+    private final IntChunks lengths = new IntChunks();
+    private final IntChunks hashes = new IntChunks();
+
+    OffHeapStringColumn(OffHeapArena arena) {
+        this.arena = arena;
+    }
+
+    @Override
+    Object get(int position) {
+        return arena.decode(addresses.get(position), lengths.get(position));
+    }
+
+    @Override
+    void add(Object value) {
+        byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+        addresses.add(arena.append(bytes));
+        lengths.add(bytes.length);
+        hashes.add(Arrays.hashCode(bytes));
+    }
+
+    @Override
+    IntPredicate equalTo(Object value) {
+        if (!(value instanceof String)) return position -> false;
+        byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(bytes);
+        return position -> hashes.get(position) == hash
+                && lengths.get(position) == bytes.length
+                && arena.equals(addresses.get(position), bytes);
+    }
+}
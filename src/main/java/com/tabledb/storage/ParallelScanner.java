@@ -0,0 +1,144 @@
+package com.tabledb.storage;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * Splits a scan over a storage into position ranges that are tested on a fork/join pool. Workers
+ * only read positions below the limit published with the caller's snapshot.
+ */
+public class ParallelScanner {
+    private static final int MIN_SPLIT_SIZE = 16 * 1024;
+
+    private final int parallelism;
+    private final int threshold;
+    private volatile ForkJoinPool pool;
+
+    public ParallelScanner(int parallelism, int threshold) {
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+    }
+
+    public boolean shouldParallelize(int positions) {
+        return parallelism > 1 && positions >= threshold;
+    }
+
+    /**
+     * Returns the positions below {@code limit} matching {@code predicate}, in ascending order.
+     */
+    public int[] scan(IntPredicate predicate, int limit) {
+        int splitSize = Math.max(MIN_SPLIT_SIZE, limit / (parallelism * 4) + 1);
+        return pool().invoke(new RangeScan(predicate, 0, limit, splitSize));
+    }
+
+    /**
+     * Folds each range of the positions below {@code limit} into a separate result with
+     * {@code task}, then combines the results pairwise, always passing the lower range first.
+     */
+    public <R> R reduce(int limit, RangeTask<R> task, BinaryOperator<R> combine) {
+        int splitSize = Math.max(MIN_SPLIT_SIZE, limit / (parallelism * 4) + 1);
+        return pool().invoke(new RangeReduce<>(task, combine, 0, limit, splitSize));
+    }
+
+    /**
+     * Work done on the positions {@code from} (inclusive) to {@code to} (exclusive) of one range.
+     */
+    @FunctionalInterface
+    public interface RangeTask<R> {
+        R apply(int from, int to);
+    }
+
+    private ForkJoinPool pool() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            synchronized (this) {
+                current = pool;
+                if (current == null) {
+                    current = new ForkJoinPool(parallelism);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stops the pool's threads; the scanner must not be used afterwards.
+     */
+    public void shutdown() {
+        ForkJoinPool current = pool;
+        if (current != null) current.shutdown();
+    }
+
+    // Tasks only live in the pool, so they are never serialized
+    @SuppressWarnings("serial")
+    private static class RangeScan extends RecursiveTask<int[]> {
+        private final IntPredicate predicate;
+        private final int from;
+        private final int to;
+        private final int splitSize;
+
+        RangeScan(IntPredicate predicate, int from, int to, int splitSize) {
+            this.predicate = predicate;
+            this.from = from;
+            this.to = to;
+            this.splitSize = splitSize;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > splitSize) {
+                int mid = (from + to) >>> 1;
+                RangeScan left = new RangeScan(predicate, from, mid, splitSize);
+                RangeScan right = new RangeScan(predicate, mid, to, splitSize);
+                right.fork();
+                int[] leftMatches = left.compute();
+                int[] rightMatches = right.join();
+                int[] merged = Arrays.copyOf(leftMatches, leftMatches.length + rightMatches.length);
+                System.arraycopy(rightMatches, 0, merged, leftMatches.length, rightMatches.length);
+                return merged;
+            }
+
+            int[] matches = new int[64];
+            int count = 0;
+            for (int pos = from; pos < to; pos++) {
+                if (predicate.test(pos)) {
+                    if (count == matches.length) matches = Arrays.copyOf(matches, count * 2);
+                    matches[count++] = pos;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class RangeReduce<R> extends RecursiveTask<R> {
+        private final RangeTask<R> task;
+        private final BinaryOperator<R> combine;
+        private final int from;
+        private final int to;
+        private final int splitSize;
+
+        RangeReduce(RangeTask<R> task, BinaryOperator<R> combine, int from, int to, int splitSize) {
+            this.task = task;
+            this.combine = combine;
+            this.from = from;
+            this.to = to;
+            this.splitSize = splitSize;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= splitSize) return task.apply(from, to);
+            int mid = (from + to) >>> 1;
+            RangeReduce<R> left = new RangeReduce<>(task, combine, from, mid, splitSize);
+            RangeReduce<R> right = new RangeReduce<>(task, combine, mid, to, splitSize);
+            right.fork();
+            R leftResult = left.compute();
+            return combine.apply(leftResult, right.join());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.tabledb.storage;
+
+import com.tabledb.model.Row;
+import com.tabledb.model.Schema;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Row-oriented storage keeping one slot array per row version, laid out in schema order.
+ * Slot arrays are never modified once appended.
+ */
+final class RowStorage extends TableStorage {
+    private final ObjectChunks<Object[]> rows = new ObjectChunks<>();
+
+    RowStorage(Schema schema) {
+        super(schema);
+    }
+
+    @Override
+    public Object getValue(int position, int ordinal) {
+        return rows.get(position)[ordinal];
+    }
+
+    @Override
+    public Object[] values(int position) {
+        return rows.get(position).clone();
+    }
+
+    @Override
+    public Row materialize(int position) {
+        return new Row(schema, rows.get(position).clone());
+    }
+
+    @Override
+    public IntPredicate equalTo(String column, Object value) {
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? position -> false : position -> value.equals(rows.get(position)[ordinal]);
+    }
+
+    @Override
+    protected void appendValues(Object[] values) {
+        rows.add(values);
+    }
+}
@@ -0,0 +1,30 @@
+package com.tabledb.storage;
+
+import java.util.function.IntPredicate;
+
+final class StringColumn extends ColumnVector {
+    private final IntChunks codes = new IntChunks();
+    private final StringDictionary dictionary;
+
+    StringColumn(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    Object get(int position) {
+        return dictionary.decode(codes.get(position));
+    }
+
+    @Override
+    void add(Object value) {
+        codes.add(dictionary.encode((String) value));
+    }
+
+    @Override
+    IntPredicate equalTo(Object value) {
+        if (!(value instanceof String)) return position -> false;
+        int code = dictionary.lookup((String) value);
+        if (code == StringDictionary.MISSING) return position -> false;
+        return position -> codes.get(position) == code;
+    }
+}
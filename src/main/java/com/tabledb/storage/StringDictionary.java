@@ -0,0 +1,38 @@
+package com.tabledb.storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps each distinct string of a table to a dense int code shared by all of its STRING columns.
+ * Only the table's writer encodes; readers may decode and look up concurrently.
+ */
+final class StringDictionary {
+    static final int MISSING = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final ObjectChunks<String> values = new ObjectChunks<>();
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            values.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    int lookup(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : MISSING;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
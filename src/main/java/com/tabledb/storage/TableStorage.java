@@ -0,0 +1,201 @@
+package com.tabledb.storage;
+
+import com.tabledb.model.Row;
+import com.tabledb.model.Schema;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.ValueRange;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Append-only, multi-versioned storage of a table. Every position holds one row version stamped
+ * with the commit sequence that created it and, once superseded or deleted, the one that ended it.
+ * A single writer appends and stamps under the table's lock; readers only touch positions that
+ * were published to them, so they never need the lock.
+ * <p>
+ * Positions are grouped into blocks of {@link #BLOCK_SIZE}, each summarized by a {@link ZoneMap}
+ * that scans consult to skip blocks in which no version can match.
+ */
+public abstract class TableStorage {
+    public static final long NOT_DELETED = 0;
+    public static final int BLOCK_SHIFT = 10;
+    public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    private static final int CLOSING = 1 << 30;
+    private static final int FREED = -1;
+
+    protected final Schema schema;
+    // Number of readers holding the storage, plus CLOSING once it should be freed
+    private final AtomicInteger leases = new AtomicInteger();
+    private final LongChunks createdSeqs = new LongChunks();
+    private final LongChunks deletedSeqs = new LongChunks();
+    private final ObjectChunks<ZoneMap> zoneMaps = new ObjectChunks<>();
+    private int positions;
+
+    protected TableStorage(Schema schema) {
+        this.schema = schema;
+    }
+
+    public static TableStorage create(Schema schema, StorageMode mode) {
+        return switch (mode) {
+            case ROW -> new RowStorage(schema);
+            case COLUMNAR -> new ColumnarStorage(schema, false);
+            case OFF_HEAP -> new ColumnarStorage(schema, true);
+        };
+    }
+
+    public Schema schema() {
+        return schema;
+    }
+
+    public int append(Object[] values, long createdSeq) {
+        appendValues(values);
+        createdSeqs.add(createdSeq);
+        deletedSeqs.add(NOT_DELETED);
+        if ((positions & (BLOCK_SIZE - 1)) == 0) zoneMaps.add(new ZoneMap(schema));
+        zoneMaps.get(positions >>> BLOCK_SHIFT).add(values);
+        return positions++;
+    }
+
+    public void markDeleted(int position, long deletedSeq) {
+        deletedSeqs.set(position, deletedSeq);
+        zoneMaps.get(position >>> BLOCK_SHIFT).markDeleted(deletedSeq);
+    }
+
+    public long createdSeq(int position) {
+        return createdSeqs.get(position);
+    }
+
+    public long deletedSeq(int position) {
+        return deletedSeqs.get(position);
+    }
+
+    /**
+     * Returns whether the version at {@code position} is part of the snapshot taken at {@code snapshotSeq}.
+     */
+    public boolean isVisible(int position, long snapshotSeq) {
+        if (createdSeqs.get(position) > snapshotSeq) return false;
+        long deleted = deletedSeqs.get(position);
+        return deleted == NOT_DELETED || deleted > snapshotSeq;
+    }
+
+    /**
+     * Number of versions appended so far. Readers must use the count published with their snapshot.
+     */
+    public int positions() {
+        return positions;
+    }
+
+    public Object[] values(int position) {
+        Object[] values = new Object[schema.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getValue(position, i);
+        }
+        return values;
+    }
+
+    public abstract Object getValue(int position, int ordinal);
+
+    /**
+     * Reads an INT column; storages keeping primitive columns override this to avoid boxing.
+     */
+    public int getInt(int position, int ordinal) {
+        return (Integer) getValue(position, ordinal);
+    }
+
+    /**
+     * Builds the result row for a position; the only place a {@link Row} is created for a read.
+     */
+    public abstract Row materialize(int position);
+
+    /**
+     * Builds a result row holding only the columns at {@code ordinals}, described by {@code projected}.
+     */
+    public Row materialize(int position, int[] ordinals, Schema projected) {
+        Object[] values = new Object[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            values[i] = getValue(position, ordinals[i]);
+        }
+        return new Row(projected, values);
+    }
+
+    /**
+     * Returns a predicate matching positions whose value in {@code column} equals {@code value}.
+     */
+    public abstract IntPredicate equalTo(String column, Object value);
+
+    /**
+     * Returns a predicate matching positions whose value in {@code column} lies within {@code range}.
+     */
+    public IntPredicate inRange(String column, ValueRange range) {
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? position -> false : position -> range.contains(getValue(position, ordinal));
+    }
+
+    /**
+     * Returns a predicate over block numbers that is false for blocks in which no version's value
+     * in {@code column} can equal {@code value}.
+     */
+    public IntPredicate blocksEqualTo(String column, Object value) {
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? block -> false : block -> zoneMaps.get(block).mayEqual(ordinal, value);
+    }
+
+    /**
+     * Returns a predicate over block numbers that is false for blocks in which no version's value
+     * in {@code column} can lie within {@code range}.
+     */
+    public IntPredicate blocksInRange(String column, ValueRange range) {
+        int ordinal = schema.ordinal(column);
+        return ordinal < 0 ? block -> false : block -> zoneMaps.get(block).mayOverlap(ordinal, range);
+    }
+
+    /**
+     * Returns whether no version of {@code block} is part of the snapshot taken at {@code snapshotSeq}
+     * because all of them were deleted by then.
+     */
+    public boolean isBlockDead(int block, long snapshotSeq) {
+        return zoneMaps.get(block).isDead(snapshotSeq);
+    }
+
+    protected abstract void appendValues(Object[] values);
+
+    /**
+     * Bytes held outside the Java heap.
+     */
+    public long offHeapBytes() {
+        return 0;
+    }
+
+    /**
+     * Registers a reader. Returns false once the storage has been freed or is about to be, in
+     * which case it must not be read.
+     */
+    public boolean acquire() {
+        while (true) {
+            int state = leases.get();
+            if (state < 0 || (state & CLOSING) != 0) return false;
+            if (leases.compareAndSet(state, state + 1)) return true;
+        }
+    }
+
+    public void release() {
+        if (leases.decrementAndGet() == CLOSING) freeNow();
+    }
+
+    /**
+     * Frees memory that the garbage collector would otherwise release late, as soon as the last
+     * reader is done. The caller guarantees no writer touches the storage afterwards.
+     */
+    public void free() {
+        if (leases.getAndUpdate(state -> state < 0 ? state : state | CLOSING) == 0) freeNow();
+    }
+
+    private void freeNow() {
+        if (leases.compareAndSet(CLOSING, FREED)) releaseMemory();
+    }
+
+    protected void releaseMemory() {
+    }
+}
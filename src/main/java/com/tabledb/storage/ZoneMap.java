@@ -0,0 +1,126 @@
+package com.tabledb.storage;
+
+import com.tabledb.index.ValueComparator;
+import com.tabledb.model.DataType;
+import com.tabledb.model.Schema;
+import com.tabledb.model.ValueRange;
+
+/**
+ * Summary of one block of {@link TableStorage#BLOCK_SIZE} consecutive positions, so scans can
+ * skip blocks that cannot hold a match: per column the smallest and largest value and, for STRING
+ * columns, a bloom filter of the values, plus how many of the versions have been deleted.
+ * <p>
+ * Versions are never changed in place, so a summary only widens as versions are appended. Deleted
+ * and superseded versions keep counting until vacuum copies the live ones into a new storage.
+ * Only the storage's writer changes a zone map; readers see every value appended before the
+ * snapshot they read was published, and later values can only make them skip less.
+ */
+final class ZoneMap {
+    private static final int BLOOM_BITS = 8192;
+    private static final int BLOOM_HASHES = 3;
+
+    private final Class<?>[] types;
+    private final Object[] min;
+    private final Object[] max;
+    // Per STRING column, null for the others
+    private final long[][] blooms;
+    private volatile int versions;
+    private volatile int deleted;
+    private volatile long lastDeletedSeq;
+
+    ZoneMap(Schema schema) {
+        int columns = schema.size();
+        this.types = new Class<?>[columns];
+        this.min = new Object[columns];
+        this.max = new Object[columns];
+        this.blooms = new long[columns][];
+        for (int i = 0; i < columns; i++) {
+            DataType type = schema.column(i).type();
+            types[i] = type == DataType.INT ? Integer.class : String.class;
+            if (type == DataType.STRING) blooms[i] = new long[BLOOM_BITS / Long.SIZE];
+        }
+    }
+
+    void add(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (min[i] == null || ValueComparator.INSTANCE.compare(value, min[i]) < 0) min[i] = value;
+            if (max[i] == null || ValueComparator.INSTANCE.compare(value, max[i]) > 0) max[i] = value;
+            if (blooms[i] != null) {
+                long hash = hash(value);
+                for (int k = 0; k < BLOOM_HASHES; k++) {
+                    int bit = bloomBit(hash, k);
+                    blooms[i][bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+        versions++;
+    }
+
+    // Every version is deleted at most once, by a commit later than any before
+    void markDeleted(long seq) {
+        lastDeletedSeq = seq;
+        deleted++;
+    }
+
+    /**
+     * Whether every version of the block was deleted by the commit {@code snapshotSeq} or earlier,
+     * so none of them is visible in that snapshot.
+     */
+    boolean isDead(long snapshotSeq) {
+        // Read first: the versions it counts were appended and deleted before the fields read next
+        int deletedVersions = deleted;
+        return deletedVersions == versions && lastDeletedSeq <= snapshotSeq;
+    }
+
+    /**
+     * Whether a value of the column at {@code ordinal} may equal {@code value}.
+     */
+    boolean mayEqual(int ordinal, Object value) {
+        // Values of another type never compare equal
+        if (value.getClass() != types[ordinal]) return false;
+        if (ValueComparator.INSTANCE.compare(value, min[ordinal]) < 0
+                || ValueComparator.INSTANCE.compare(value, max[ordinal]) > 0) {
+            return false;
+        }
+        long[] bloom = blooms[ordinal];
+        if (bloom != null) {
+            long hash = hash(value);
+            for (int k = 0; k < BLOOM_HASHES; k++) {
+                int bit = bloomBit(hash, k);
+                if ((bloom[bit >>> 6] & 1L << bit) == 0) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether a value of the column at {@code ordinal} may lie within {@code range}.
+     */
+    boolean mayOverlap(int ordinal, ValueRange range) {
+        // Values of another type than a bound never fall within the range
+        if (range.lower() != null) {
+            if (range.lower().getClass() != types[ordinal]) return false;
+            int cmp = ValueComparator.INSTANCE.compare(range.lower(), max[ordinal]);
+            if (cmp > 0 || (cmp == 0 && !range.lowerInclusive())) return false;
+        }
+        if (range.upper() != null) {
+            if (range.upper().getClass() != types[ordinal]) return false;
+            int cmp = ValueComparator.INSTANCE.compare(range.upper(), min[ordinal]);
+            if (cmp < 0 || (cmp == 0 && !range.upperInclusive())) return false;
+        }
+        return true;
+    }
+
+    private static long hash(Object value) {
+        long hash = value.hashCode() * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    // Double hashing: the k-th probe is h1 + k * h2, with h2 odd so the probes never coincide
+    private static int bloomBit(long hash, int k) {
+        int h1 = (int) (hash >>> 32);
+        int h2 = (int) hash | 1;
+        return (h1 + k * h2) & (BLOOM_BITS - 1);
+    }
+}
@@ -0,0 +1,188 @@
+package com.tabledb.util;
+
+import com.tabledb.exception.InvalidCommandException;
+import com.tabledb.model.DataType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams typed rows out of a UTF-8 CSV file through a fixed pair of NIO buffers. Fields are
+ * separated by commas and may be enclosed in double quotes, with {@code ""} for a literal quote.
+ * INT fields are converted straight from the characters read, without an intermediate string.
+ */
+public class CsvReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final DataType[] types;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final StringBuilder field = new StringBuilder();
+    private boolean endOfInput;
+    private boolean drained;
+    private long line = 1;
+
+    public CsvReader(Path file, List<DataType> types) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.types = types.toArray(new DataType[0]);
+        chars.flip();
+    }
+
+    /**
+     * Skips the first line, typically a header of column names.
+     */
+    public void skipLine() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0 || c == '\n') break;
+        }
+        line++;
+    }
+
+    /**
+     * Reads up to {@code max} rows, returning an empty list at the end of the file. Blank lines
+     * are skipped.
+     *
+     * @throws InvalidCommandException if a row has the wrong number of fields or a field does not
+     *                                 fit its column's type
+     */
+    public List<List<Object>> nextBatch(int max) throws IOException {
+        List<List<Object>> rows = new ArrayList<>(Math.min(max, 4096));
+        while (rows.size() < max) {
+            Object[] row = nextRow();
+            if (row == null) break;
+            rows.add(Arrays.asList(row));
+        }
+        return rows;
+    }
+
+    private Object[] nextRow() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) return null;
+            if (c == '\n') {
+                line++;
+            } else if (c != '\r') {
+                unread();
+                break;
+            }
+        }
+
+        Object[] row = new Object[types.length];
+        int column = 0;
+        while (true) {
+            boolean quoted = false;
+            field.setLength(0);
+            int c = read();
+            if (c == '"') {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c < 0) throw error("Unterminated quoted field");
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') break;
+                    }
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+                if (c == '\r') c = read();
+            } else {
+                while (c >= 0 && c != ',' && c != '\n') {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            if (c >= 0 && c != ',' && c != '\n') throw error("Unexpected character after quoted field");
+
+            if (column == types.length) throw error("Expected " + types.length + " fields");
+            row[column] = convert(types[column], quoted, column);
+            column++;
+            if (c != ',') break;
+        }
+        line++;
+        if (column != types.length) throw error("Expected " + types.length + " fields but found " + column);
+        return row;
+    }
+
+    private Object convert(DataType type, boolean quoted, int column) {
+        int end = field.length();
+        if (!quoted && end > 0 && field.charAt(end - 1) == '\r') end--;
+        return switch (type) {
+            case STRING -> field.substring(0, end);
+            case INT -> parseInt(end, column);
+        };
+    }
+
+    private int parseInt(int end, int column) {
+        int start = 0;
+        while (start < end && field.charAt(start) == ' ') start++;
+        while (end > start && field.charAt(end - 1) == ' ') end--;
+        boolean negative = start < end && field.charAt(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end) throw error("Column " + (column + 1) + " is not an INT");
+        // Accumulate negatively so Integer.MIN_VALUE is representable
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = field.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value < (Integer.MIN_VALUE + digit) / 10) {
+                throw error("Column " + (column + 1) + " is not an INT");
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative && value == Integer.MIN_VALUE) throw error("Column " + (column + 1) + " is not an INT");
+        return negative ? value : -value;
+    }
+
+    private int read() throws IOException {
+        if (!chars.hasRemaining() && !fill()) return -1;
+        return chars.get();
+    }
+
+    private void unread() {
+        chars.position(chars.position() - 1);
+    }
+
+    private boolean fill() throws IOException {
+        if (drained) return false;
+        chars.clear();
+        while (chars.position() == 0) {
+            if (!endOfInput && channel.read(bytes) < 0) endOfInput = true;
+            bytes.flip();
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (result.isError()) throw error("File is not valid UTF-8");
+            bytes.compact();
+            if (endOfInput) {
+                decoder.flush(chars);
+                drained = true;
+                break;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    private InvalidCommandException error(String message) {
+        return new InvalidCommandException("Line " + line + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,41 +1,30 @@
 package com.tabledb.util;
 
 import com.tabledb.core.Database;
-import com.tabledb.model.Table;
-import java.io.*;
-import java.nio.file.*;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import com.tabledb.core.DatabaseConfig;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Saves a database to a binary snapshot file and opens it again. See
+ * {@link com.tabledb.snapshot.SnapshotWriter} for the format.
+ */
 public class DatabaseSerializer {
-    private final String filename;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path path;
 
     public DatabaseSerializer(String filename) {
-        this.filename = filename;
+        this.path = Paths.get(filename);
     }
 
     public void serialize(Database database) {
-        lock.writeLock().lock();
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new BufferedOutputStream(Files.newOutputStream(Paths.get(filename))))) {
-            oos.writeObject(database);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to serialize database", e);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        database.saveSnapshot(path);
     }
 
+    /**
+     * Opens a database backed by the snapshot. Tables are read from the file on first access.
+     */
     public Database deserialize() {
-        lock.readLock().lock();
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new BufferedInputStream(Files.newInputStream(Paths.get(filename))))) {
-            return (Database) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            throw new RuntimeException("Failed to deserialize database", e);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return new Database(DatabaseConfig.fromEnvironment().setSnapshotPath(path));
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,12 @@
 package com.tabledb.util;
 
+import com.tabledb.command.Statement;
+import com.tabledb.command.StatementParser;
 import com.tabledb.condition.Condition;
 import com.tabledb.exception.InvalidCommandException;
 import java.util.*;
-import java.util.regex.*;
 
 public class QueryParser {
-    private static final Pattern SELECT_PATTERN =
-            Pattern.compile("SELECT\\s+(.+?)\\s+FROM\\s+(\\w+)(?:\\s+WHERE\\s+(.+))?",
-                    Pattern.CASE_INSENSITIVE);
-
     public static class Query {
         private final List<String> columns;
         private final String tableName;
@@ -27,23 +24,10 @@ public class QueryParser {
     }
 
     public static Query parse(String queryString) {
-        Matcher matcher = SELECT_PATTERN.matcher(queryString);
-        if (!matcher.matches()) {
+        if (!(StatementParser.parse(queryString) instanceof Statement.Select select)) {
             throw new InvalidCommandException("Invalid query format");
         }
-
-        String columnsStr = matcher.group(1);
-        String tableName = matcher.group(2);
-        String whereClause = matcher.group(3);
-
-        List<String> columns = columnsStr.equals("*") ?
-                List.of("*") :
-                Arrays.asList(columnsStr.split("\\s*,\\s*"));
-
-        Condition condition = whereClause != null ?
-                com.tabledb.command.CommandParser.parseCondition(whereClause) :
-                null;
-
-        return new Query(columns, tableName, condition);
+        List<String> columns = select.columns().isEmpty() ? List.of("*") : select.columns();
+        return new Query(columns, select.table(), select.condition());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.tabledb.wal;
+
+/**
+ * When the log forces written records to disk.
+ *
+ * <ul>
+ *   <li>{@code COMMIT}: every commit waits until its record is on disk; concurrent commits share one fsync</li>
+ *   <li>{@code INTERVAL}: a background thread forces the log every {@code intervalMillis}</li>
+ *   <li>{@code OFF}: records are handed to the OS at commit and never forced</li>
+ * </ul>
+ */
+public record FsyncPolicy(Mode mode, long intervalMillis) {
+    public enum Mode {
+        COMMIT, INTERVAL, OFF
+    }
+
+    public static final FsyncPolicy COMMIT = new FsyncPolicy(Mode.COMMIT, 0);
+    public static final FsyncPolicy OFF = new FsyncPolicy(Mode.OFF, 0);
+
+    public FsyncPolicy {
+        if (mode == Mode.INTERVAL && intervalMillis <= 0) {
+            throw new IllegalArgumentException("Fsync interval must be positive");
+        }
+    }
+
+    public static FsyncPolicy interval(long intervalMillis) {
+        return new FsyncPolicy(Mode.INTERVAL, intervalMillis);
+    }
+
+    /**
+     * Parses {@code commit}, {@code off} or an interval such as {@code 10ms}.
+     */
+    public static FsyncPolicy parse(String value) {
+        String normalized = value.trim().toLowerCase();
+        if (normalized.equals("commit")) return COMMIT;
+        if (normalized.equals("off")) return OFF;
+        if (normalized.endsWith("ms")) {
+            return interval(Long.parseLong(normalized.substring(0, normalized.length() - 2).trim()));
+        }
+        throw new IllegalArgumentException("Invalid fsync policy: " + value);
+    }
+}
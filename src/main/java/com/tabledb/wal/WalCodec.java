@@ -0,0 +1,274 @@
+package com.tabledb.wal;
+
+import com.tabledb.condition.AndCondition;
+import com.tabledb.condition.Condition;
+import com.tabledb.condition.OrCondition;
+import com.tabledb.condition.RangeCondition;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.Partitioning;
+import com.tabledb.model.StorageMode;
+import com.tabledb.model.ValueRange;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of {@link WalRecord} payloads. Enums are written by ordinal and strings as
+ * length-prefixed UTF-8, so appending constants to an enum keeps old logs readable.
+ */
+final class WalCodec {
+    private static final byte CREATE_TABLE = 1;
+    private static final byte CREATE_INDEX = 2;
+    private static final byte INSERT = 3;
+    private static final byte UPDATE = 4;
+    private static final byte DELETE = 5;
+    private static final byte CLEAR = 6;
+    private static final byte DROP_TABLE = 7;
+    private static final byte INSERT_ROWS = 8;
+    // A CREATE_TABLE followed by the partition column and count
+    private static final byte CREATE_PARTITIONED_TABLE = 9;
+
+    private static final byte INT_VALUE = 1;
+    private static final byte STRING_VALUE = 2;
+    private static final byte NULL_VALUE = 3;
+
+    private static final byte NO_CONDITION = 0;
+    private static final byte SIMPLE_CONDITION = 1;
+    private static final byte RANGE_CONDITION = 2;
+    private static final byte AND_CONDITION = 3;
+    private static final byte OR_CONDITION = 4;
+
+    private WalCodec() {
+    }
+
+    static void write(WalRecord record, DataOutput out) throws IOException {
+        if (record instanceof WalRecord.CreateTable create) {
+            out.writeByte(create.partitioning() != null ? CREATE_PARTITIONED_TABLE : CREATE_TABLE);
+            writeString(out, create.table());
+            out.writeByte(create.storageMode().ordinal());
+            out.writeInt(create.columns().size());
+            for (Column column : create.columns()) {
+                writeString(out, column.name());
+                out.writeByte(column.type().ordinal());
+            }
+            if (create.partitioning() != null) {
+                writeString(out, create.partitioning().column());
+                out.writeInt(create.partitioning().count());
+            }
+        } else if (record instanceof WalRecord.CreateIndex index) {
+            out.writeByte(CREATE_INDEX);
+            writeString(out, index.table());
+            writeString(out, index.column());
+            out.writeByte(index.indexType().ordinal());
+        } else if (record instanceof WalRecord.Insert insert) {
+            out.writeByte(INSERT);
+            writeString(out, insert.table());
+            out.writeInt(insert.values().size());
+            for (Object value : insert.values()) {
+                writeValue(out, value);
+            }
+        } else if (record instanceof WalRecord.InsertRows insert) {
+            out.writeByte(INSERT_ROWS);
+            writeString(out, insert.table());
+            out.writeInt(insert.rows().size());
+            for (List<Object> row : insert.rows()) {
+                out.writeInt(row.size());
+                for (Object value : row) {
+                    writeValue(out, value);
+                }
+            }
+        } else if (record instanceof WalRecord.Update update) {
+            out.writeByte(UPDATE);
+            writeString(out, update.table());
+            out.writeInt(update.updates().size());
+            for (Map.Entry<String, Object> entry : update.updates().entrySet()) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+            writeCondition(out, update.condition());
+        } else if (record instanceof WalRecord.Delete delete) {
+            out.writeByte(DELETE);
+            writeString(out, delete.table());
+            writeCondition(out, delete.condition());
+        } else if (record instanceof WalRecord.DropTable drop) {
+            out.writeByte(DROP_TABLE);
+            writeString(out, drop.table());
+        } else if (record instanceof WalRecord.Clear) {
+            out.writeByte(CLEAR);
+        } else {
+            throw new IllegalArgumentException("Unsupported record: " + record);
+        }
+    }
+
+    static WalRecord read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case CREATE_TABLE:
+            case CREATE_PARTITIONED_TABLE: {
+                String table = readString(in);
+                StorageMode storageMode = StorageMode.values()[in.readByte()];
+                int count = in.readInt();
+                List<Column> columns = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    columns.add(new Column(readString(in), DataType.values()[in.readByte()]));
+                }
+                Partitioning partitioning = type == CREATE_PARTITIONED_TABLE ?
+                        new Partitioning(readString(in), in.readInt()) :
+                        null;
+                return new WalRecord.CreateTable(table, columns, storageMode, partitioning);
+            }
+            case CREATE_INDEX:
+                return new WalRecord.CreateIndex(readString(in), readString(in), IndexType.values()[in.readByte()]);
+            case INSERT: {
+                String table = readString(in);
+                int count = in.readInt();
+                List<Object> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(readValue(in));
+                }
+                return new WalRecord.Insert(table, values);
+            }
+            case INSERT_ROWS: {
+                String table = readString(in);
+                int rowCount = in.readInt();
+                List<List<Object>> rows = new ArrayList<>(rowCount);
+                for (int r = 0; r < rowCount; r++) {
+                    int count = in.readInt();
+                    List<Object> values = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        values.add(readValue(in));
+                    }
+                    rows.add(values);
+                }
+                return new WalRecord.InsertRows(table, rows);
+            }
+            case UPDATE: {
+                String table = readString(in);
+                int count = in.readInt();
+                Map<String, Object> updates = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    updates.put(readString(in), readValue(in));
+                }
+                return new WalRecord.Update(table, updates, readCondition(in));
+            }
+            case DELETE:
+                return new WalRecord.Delete(readString(in), readCondition(in));
+            case CLEAR:
+                return new WalRecord.Clear();
+            case DROP_TABLE:
+                return new WalRecord.DropTable(readString(in));
+            default:
+                throw new IOException("Unknown record type: " + type);
+        }
+    }
+
+    private static void writeCondition(DataOutput out, Condition condition) throws IOException {
+        if (condition == null) {
+            out.writeByte(NO_CONDITION);
+        } else if (condition instanceof SimpleCondition simple) {
+            out.writeByte(SIMPLE_CONDITION);
+            writeString(out, simple.getColumn());
+            writeValue(out, simple.getValue());
+        } else if (condition instanceof RangeCondition range) {
+            out.writeByte(RANGE_CONDITION);
+            writeString(out, range.getColumn());
+            writeValue(out, range.getRange().lower());
+            out.writeBoolean(range.getRange().lowerInclusive());
+            writeValue(out, range.getRange().upper());
+            out.writeBoolean(range.getRange().upperInclusive());
+        } else if (condition instanceof AndCondition and) {
+            out.writeByte(AND_CONDITION);
+            writeConditions(out, and.getConditions());
+        } else if (condition instanceof OrCondition or) {
+            out.writeByte(OR_CONDITION);
+            writeConditions(out, or.getConditions());
+        } else {
+            throw new IllegalArgumentException("Condition cannot be logged: " + condition);
+        }
+    }
+
+    private static void writeConditions(DataOutput out, List<Condition> conditions) throws IOException {
+        out.writeInt(conditions.size());
+        for (Condition condition : conditions) {
+            writeCondition(out, condition);
+        }
+    }
+
+    private static Condition readCondition(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NO_CONDITION:
+                return null;
+            case SIMPLE_CONDITION:
+                return new SimpleCondition(readString(in), readValue(in));
+            case RANGE_CONDITION: {
+                String column = readString(in);
+                Object lower = readValue(in);
+                boolean lowerInclusive = in.readBoolean();
+                Object upper = readValue(in);
+                boolean upperInclusive = in.readBoolean();
+                return new RangeCondition(column, new ValueRange(lower, lowerInclusive, upper, upperInclusive));
+            }
+            case AND_CONDITION:
+                return new AndCondition(readConditions(in));
+            case OR_CONDITION:
+                return new OrCondition(readConditions(in));
+            default:
+                throw new IOException("Unknown condition type: " + type);
+        }
+    }
+
+    private static List<Condition> readConditions(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<Condition> conditions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            conditions.add(readCondition(in));
+        }
+        return conditions;
+    }
+
+    static void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INT_VALUE);
+            out.writeInt(i);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING_VALUE);
+            writeString(out, s);
+        } else {
+            throw new IllegalArgumentException("Unsupported value: " + value);
+        }
+    }
+
+    static Object readValue(DataInput in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case INT_VALUE -> in.readInt();
+            case STRING_VALUE -> readString(in);
+            case NULL_VALUE -> null;
+            default -> throw new IOException("Unknown value type: " + type);
+        };
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
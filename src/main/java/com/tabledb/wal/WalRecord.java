@@ -0,0 +1,55 @@
+package com.tabledb.wal;
+
+import com.tabledb.condition.Condition;
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Column;
+import com.tabledb.model.Partitioning;
+import com.tabledb.model.StorageMode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A logical change to the database, logged before it is applied so it can be replayed after a crash.
+ */
+public sealed interface WalRecord {
+    /**
+     * Table the change applies to, or {@code null} for a change to the whole database.
+     */
+    String table();
+
+    /**
+     * @param partitioning {@code null} for a table with a single partition
+     */
+    record CreateTable(String table, List<Column> columns, StorageMode storageMode, Partitioning partitioning)
+            implements WalRecord {
+        public CreateTable(String table, List<Column> columns, StorageMode storageMode) {
+            this(table, columns, storageMode, null);
+        }
+    }
+
+    record CreateIndex(String table, String column, IndexType indexType) implements WalRecord {
+    }
+
+    record Insert(String table, List<Object> values) implements WalRecord {
+    }
+
+    record InsertRows(String table, List<List<Object>> rows) implements WalRecord {
+    }
+
+    record Update(String table, Map<String, Object> updates, Condition condition) implements WalRecord {
+    }
+
+    record Delete(String table, Condition condition) implements WalRecord {
+    }
+
+    record DropTable(String table) implements WalRecord {
+    }
+
+    record Clear() implements WalRecord {
+        @Override
+        public String table() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.tabledb.wal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of {@link WalRecord}s, split into segment files named after the first log
+ * sequence number (LSN) they contain. Each record is framed as
+ * {@code [int length][int crc32][long lsn][payload]}, where the checksum covers lsn and payload.
+ *
+ * <p>Appending only copies the record into an in-memory batch. {@link #commit(long)} then makes it
+ * durable according to the {@link FsyncPolicy}: the first committer to arrive writes the whole
+ * batch and forces it, and everyone who appended meanwhile finds their record already covered.
+ *
+ * <p>A batch leaves memory only once it has been written. If writing or forcing fails, the log
+ * cuts its segment back to the last complete batch and refuses every later append and commit, so
+ * no record can follow a hole; the database has to be reopened to recover what reached the disk.
+ */
+public class WriteAheadLog implements AutoCloseable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 16;
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long segmentBytes;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Object appendLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder commits = new LongAdder();
+
+    // Guarded by appendLock
+    private final PendingBatch pending = new PendingBatch();
+    private long pendingFirstLsn = -1;
+    private long nextLsn;
+    private boolean closed;
+
+    // Guarded by syncLock
+    private FileChannel segment;
+    private long segmentSize;
+
+    private volatile long writtenLsn;
+    private volatile long durableLsn;
+    // Written under syncLock
+    private volatile long forces;
+    private volatile IOException failure;
+
+    private WriteAheadLog(Path directory, FsyncPolicy policy, long segmentBytes, long nextLsn,
+                          Path lastSegment, long lastSegmentSize) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.segmentBytes = segmentBytes;
+        this.nextLsn = nextLsn;
+        this.writtenLsn = nextLsn - 1;
+        this.durableLsn = nextLsn - 1;
+        if (lastSegment != null) {
+            this.segment = FileChannel.open(lastSegment, StandardOpenOption.WRITE);
+            this.segment.truncate(lastSegmentSize);
+            this.segment.position(lastSegmentSize);
+            this.segmentSize = lastSegmentSize;
+        } else {
+            openSegment(nextLsn);
+        }
+
+        if (policy.mode() == FsyncPolicy.Mode.INTERVAL) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "tabledb-wal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(() -> syncAll(true), policy.intervalMillis(), policy.intervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Opens the log in {@code directory}, first handing every intact record to {@code replay} in LSN
+     * order. A torn record at the end of the last segment, left by a crash mid-write, is cut off.
+     * New records get LSNs above both the last logged one and {@code minNextLsn}, so they stay
+     * ordered after anything a snapshot already covers.
+     */
+    public static WriteAheadLog open(Path directory, FsyncPolicy policy, long segmentBytes, long minNextLsn,
+                                     BiConsumer<Long, WalRecord> replay) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments(directory);
+        long[] lastLsn = {0};
+        long lastSegmentSize = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int validLength = readSegment(buffer, (lsn, record) -> {
+                    lastLsn[0] = lsn;
+                    replay.accept(lsn, record);
+                });
+                if (validLength < channel.size() && i < segments.size() - 1) {
+                    throw new IOException("Corrupt write-ahead log segment: " + segments.get(i));
+                }
+                lastSegmentSize = validLength;
+            }
+        }
+        Path lastSegment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        // Truncation can leave only an empty segment, whose name still records where LSNs resume
+        long nextLsn = Math.max(lastLsn[0] + 1, minNextLsn);
+        if (lastSegment != null) nextLsn = Math.max(nextLsn, firstLsn(lastSegment));
+        return new WriteAheadLog(directory, policy, segmentBytes, nextLsn, lastSegment, lastSegmentSize);
+    }
+
+    /**
+     * Replays the records of one segment and returns the length of its intact prefix.
+     */
+    private static int readSegment(ByteBuffer buffer, BiConsumer<Long, WalRecord> replay) throws IOException {
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || buffer.remaining() < 8 + length) return start;
+
+            byte[] body = new byte[8 + length];
+            buffer.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) return start;
+
+            long lsn = ByteBuffer.wrap(body).getLong();
+            replay.accept(lsn, WalCodec.read(new DataInputStream(new ByteArrayInputStream(body, 8, length))));
+        }
+        return buffer.position();
+    }
+
+    private static long firstLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+    }
+
+    /**
+     * Adds {@code record} to the current batch and returns its LSN. The record is not durable
+     * until {@link #commit(long)} returns for that LSN.
+     */
+    public long append(WalRecord record) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        try {
+            WalCodec.write(record, new DataOutputStream(payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = payload.toByteArray();
+
+        synchronized (appendLock) {
+            if (closed) throw new IllegalStateException("Write-ahead log is closed");
+            checkNotFailed();
+            long lsn = nextLsn++;
+            ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + bytes.length);
+            frame.putInt(bytes.length).putInt(0).putLong(lsn).put(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(frame.array(), 8, 8 + bytes.length);
+            frame.putInt(4, (int) crc.getValue());
+            pending.write(frame.array(), 0, frame.capacity());
+            if (pendingFirstLsn < 0) pendingFirstLsn = lsn;
+            return lsn;
+        }
+    }
+
+    /**
+     * Waits until the record at {@code lsn} is as durable as the fsync policy promises.
+     */
+    public void commit(long lsn) {
+        commits.increment();
+        switch (policy.mode()) {
+            case COMMIT -> sync(lsn, true);
+            case OFF -> sync(lsn, false);
+            case INTERVAL -> {
+                // The flusher thread forces the log on its own schedule
+                checkNotFailed();
+            }
+        }
+    }
+
+    private void checkNotFailed() {
+        IOException cause = failure;
+        if (cause != null) throw new UncheckedIOException("Write-ahead log failed earlier; reopen the database", cause);
+    }
+
+    public long getDurableLsn() {
+        return durableLsn;
+    }
+
+    /**
+     * Writes the number of commits and of fsyncs so far; with group commit there are fewer
+     * fsyncs than concurrent commits.
+     */
+    public void addTo(String prefix, Map<String, Long> stats) {
+        stats.put(prefix + ".commits", commits.sum());
+        stats.put(prefix + ".fsyncs", forces);
+    }
+
+    private void syncAll(boolean force) {
+        long last;
+        synchronized (appendLock) {
+            last = nextLsn - 1;
+        }
+        sync(last, force);
+    }
+
+    private void sync(long lsn, boolean force) {
+        if ((force ? durableLsn : writtenLsn) >= lsn) return;
+        syncLock.lock();
+        try {
+            // A leader that held the lock before us may already have covered this record
+            if ((force ? durableLsn : writtenLsn) >= lsn) return;
+            checkNotFailed();
+
+            byte[] batch;
+            long firstLsn;
+            long lastLsn;
+            synchronized (appendLock) {
+                batch = pending.toByteArray();
+                firstLsn = pendingFirstLsn;
+                lastLsn = nextLsn - 1;
+            }
+            if (batch.length > 0) {
+                if (segmentSize >= segmentBytes) {
+                    rollSegment(firstLsn);
+                }
+                write(batch, lastLsn);
+            }
+            if (force) {
+                segment.force(false);
+                forces++;
+                durableLsn = writtenLsn;
+            }
+        } catch (IOException e) {
+            throw fail(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Writes out everything appended so far and starts a new segment for later records.
+     *
+     * @return the LSN of the last record in the closed segments
+     */
+    public long rollover() {
+        syncLock.lock();
+        try {
+            checkNotFailed();
+            long last;
+            byte[] batch;
+            synchronized (appendLock) {
+                batch = pending.toByteArray();
+                last = nextLsn - 1;
+            }
+            write(batch, last);
+            if (segmentSize > 0) {
+                rollSegment(last + 1);
+            }
+            return last;
+        } catch (IOException e) {
+            throw fail(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments holding only records up to {@code lsn}, once a checkpoint covers them.
+     * The segment being written to is always kept.
+     */
+    public void truncateThrough(long lsn) throws IOException {
+        syncLock.lock();
+        try {
+            List<Path> segments = listSegments(directory);
+            for (int i = 0; i < segments.size() - 1; i++) {
+                // A segment ends right before the next one begins
+                if (firstLsn(segments.get(i + 1)) - 1 > lsn) break;
+                Files.delete(segments.get(i));
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Caller holds syncLock; the batch stays pending until it is completely written
+    private void write(byte[] batch, long lastLsn) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(batch);
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+        segmentSize += batch.length;
+        writtenLsn = lastLsn;
+        synchronized (appendLock) {
+            // Records appended meanwhile stay pending for the next batch
+            pending.dropFirst(batch.length);
+            pendingFirstLsn = pending.size() > 0 ? lastLsn + 1 : -1;
+        }
+    }
+
+    // Caller holds syncLock. Cuts off whatever part of a batch reached the segment, so a reopened
+    // log ends with the last complete batch, and stops all later writes.
+    private UncheckedIOException fail(IOException e) {
+        failure = e;
+        try {
+            segment.truncate(segmentSize);
+        } catch (IOException suppressed) {
+            // The torn tail is then cut off when the log is reopened
+            e.addSuppressed(suppressed);
+        }
+        return new UncheckedIOException("Failed to write the write-ahead log", e);
+    }
+
+    // Caller holds syncLock
+    private void rollSegment(long firstLsn) throws IOException {
+        if (policy.mode() != FsyncPolicy.Mode.OFF) {
+            segment.force(false);
+            forces++;
+        }
+        segment.close();
+        openSegment(firstLsn);
+    }
+
+    private void openSegment(long firstLsn) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstLsn, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        segmentSize = segment.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) return;
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        try {
+            // After a failure nothing more is written; pending records are lost as in a crash
+            if (failure == null) syncAll(policy.mode() != FsyncPolicy.Mode.OFF);
+        } finally {
+            syncLock.lock();
+            try {
+                segment.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    // Records appended but not yet written, in LSN order
+    private static final class PendingBatch extends ByteArrayOutputStream {
+        void dropFirst(int length) {
+            System.arraycopy(buf, length, buf, 0, count - length);
+            count -= length;
+        }
+    }
+}
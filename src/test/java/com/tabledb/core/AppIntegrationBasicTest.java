@@ -1,14 +1,20 @@
 package com.tabledb.core;
 
+import com.tabledb.command.CommandProcessor;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -16,6 +22,11 @@ public class AppIntegrationBasicTest {
 
 
     private void assertAppOutput(String input, String expectedOutput) {
+        assertAppOutput(input, expectedOutput, new String[]{});
+    }
+
+
+    private void assertAppOutput(String input, String expectedOutput, String[] args) {
         // Set up input stream
         ByteArrayInputStream in = new ByteArrayInputStream(input.getBytes());
         System.setIn(in);
@@ -27,7 +38,7 @@ public class AppIntegrationBasicTest {
 
 
         // Run the main method
-        App.main(new String[]{});
+        App.main(args);
 
 
         // Capture and process the output
@@ -101,6 +112,60 @@ public class AppIntegrationBasicTest {
         String expectedOutput = "NO_TABLES_AVAILABLE\nSUCCESS\nusers\nGoodbye!";
 
 
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(7)
+    public void testMultiRowInsert() {
+        String input = "CREATE_TABLE users (id INT, name STRING)\nINSERT INTO users VALUES (1, \"John\"), (2, \"Jane\")\nINSERT INTO users VALUES (3, \"Joe\"), (\"invalid\", \"Jim\")\nSELECT * FROM users\nLOAD users FROM 'missing.csv'\nLOAD non_existing FROM 'missing.csv'\nEXIT";
+        String expectedOutput = "SUCCESS\nINSERTED 2\nINVALID_COMMAND\n1, John\n2, Jane\nFILE_NOT_FOUND\nTABLE_NOT_FOUND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(8)
+    public void testScriptMode() {
+        String input = "CREATE_TABLE users (id INT, name STRING)\nINSERT INTO users VALUES (1, \"John\")\nnot a command\nSELECT * FROM users\nEXIT\nSELECT * FROM users";
+        String expectedOutput = "SUCCESS\nSUCCESS\nINVALID_COMMAND\n1, John\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput, new String[]{"--script"});
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(9)
+    public void testLoadCsv(@TempDir Path dir) throws IOException {
+        Path users = dir.resolve("users.csv");
+        Files.writeString(users, "id,name\r\n1,\"Doe, John\"\r\n-2147483648,\"say \"\"hi\"\"\"\r\n3,Jane\r\n");
+        Path malformed = dir.resolve("malformed.csv");
+        Files.writeString(malformed, "4,Jim\r\n5\r\n");
+        Database database = new Database(DatabaseConfig.defaults());
+        CommandProcessor processor = new CommandProcessor(database);
+        processor.processCommand("CREATE_TABLE users (id INT, name STRING)");
+
+        assertTrue(processor.processCommand("LOAD users FROM '" + users + "' HEADER").startsWith("LOADED 3 ROWS"));
+        assertEquals("1, Doe, John\n-2147483648, say \"hi\"\n3, Jane", processor.processCommand("SELECT * FROM users"));
+        assertEquals("say \"hi\"", processor.processCommand("SELECT name FROM users WHERE id = -2147483648"));
+        assertEquals("INVALID_COMMAND", processor.processCommand("LOAD users FROM '" + malformed + "'"));
+        assertEquals("3", processor.processCommand("SELECT COUNT(*) FROM users"));
+        database.close();
+    }
+
+
+    @Test
+    @Order(10)
+    public void testQuotedIntegersOutOfRange() {
+        String input = "CREATE_TABLE users (id INT, name STRING)\nINSERT INTO users VALUES (\"2147483647\", \"Max\")\nINSERT INTO users VALUES (\"-2147483648\", \"Min\")\nINSERT INTO users VALUES (\"2147483648\", \"John\")\nINSERT INTO users VALUES (\"-2147483649\", \"Jane\")\nINSERT INTO users VALUES (\"99999999999\", \"Joe\")\nSELECT * FROM users\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nINVALID_COMMAND\nINVALID_COMMAND\nINVALID_COMMAND\n2147483647, Max\n-2147483648, Min\nGoodbye!";
+
+
         assertAppOutput(input, expectedOutput);
     }
 }
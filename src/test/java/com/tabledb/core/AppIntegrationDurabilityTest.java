@@ -0,0 +1,398 @@
+package com.tabledb.core;
+
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.wal.FsyncPolicy;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AppIntegrationDurabilityTest {
+
+
+    private static Database open(Path walDirectory, FsyncPolicy policy) {
+        return new Database(DatabaseConfig.defaults().setWalDirectory(walDirectory).setFsyncPolicy(policy));
+    }
+
+
+    private static String execute(Database database, String command) {
+        return new CommandProcessor(database).processCommand(command);
+    }
+
+
+    private static List<Path> segments(Path walDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(walDirectory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("wal-")).sorted().collect(Collectors.toList());
+        }
+    }
+
+
+    private static Path lastSegment(Path walDirectory) throws IOException {
+        List<Path> segments = segments(walDirectory);
+        return segments.get(segments.size() - 1);
+    }
+
+
+    @Test
+    @Order(1)
+    public void testRestartReplaysEveryChange(@TempDir Path dir) {
+        Database database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("SUCCESS", execute(database, "CREATE_TABLE users (id INT, name STRING)"));
+        assertEquals("INSERTED 3", execute(database, "INSERT INTO users VALUES (1, \"John\"), (2, \"Jane\"), (3, \"Joe\")"));
+        assertEquals("SUCCESS", execute(database, "CREATE_INDEX users (name)"));
+        assertEquals("UPDATED 1", execute(database, "UPDATE users SET name = \"Jack\" WHERE id = 2"));
+        assertEquals("DELETED 1", execute(database, "DELETE FROM users WHERE id = 3"));
+        assertEquals("SUCCESS", execute(database, "CREATE_TABLE temp (id INT)"));
+        assertEquals("SUCCESS", execute(database, "INSERT INTO temp VALUES (1)"));
+        assertEquals("SUCCESS", execute(database, "DROP_TABLE temp"));
+        database.close();
+
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("users", execute(database, "SHOW TABLES"));
+        assertEquals("1, John\n2, Jack", execute(database, "SELECT * FROM users ORDER BY id"));
+        assertEquals("2", execute(database, "SELECT id FROM users WHERE name = \"Jack\""));
+        assertEquals("NO_ROWS_FOUND", execute(database, "SELECT id FROM users WHERE name = \"Jane\""));
+        // Records appended after a replay must follow the replayed ones
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (4, \"Jim\")"));
+        database.close();
+
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John\n2, Jack\n4, Jim", execute(database, "SELECT * FROM users ORDER BY id"));
+        database.close();
+    }
+
+
+    @Test
+    @Order(2)
+    public void testTornAndCorruptTailIsTruncated(@TempDir Path dir) throws IOException {
+        Database database = open(dir, FsyncPolicy.COMMIT);
+        execute(database, "CREATE_TABLE users (id INT, name STRING)");
+        execute(database, "INSERT INTO users VALUES (1, \"John\")");
+        execute(database, "INSERT INTO users VALUES (2, \"Jane\")");
+        database.close();
+
+        // A frame cut short by a crash: the header promises more bytes than were written
+        ByteBuffer torn = ByteBuffer.allocate(10).putInt(64).putInt(0).putShort((short) 1);
+        Files.write(lastSegment(dir), torn.array(), StandardOpenOption.APPEND);
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John\n2, Jane", execute(database, "SELECT * FROM users"));
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (3, \"Joe\")"));
+        database.close();
+
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John\n2, Jane\n3, Joe", execute(database, "SELECT * FROM users"));
+        database.close();
+
+        // A complete frame whose checksum no longer matches: the last insert is dropped
+        Path segment = lastSegment(dir);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x5A;
+        Files.write(segment, bytes);
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John\n2, Jane", execute(database, "SELECT * FROM users"));
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (4, \"Jim\")"));
+        database.close();
+
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John\n2, Jane\n4, Jim", execute(database, "SELECT * FROM users"));
+        database.close();
+    }
+
+
+    @Test
+    @Order(3)
+    public void testEveryFsyncPolicyRecovers(@TempDir Path dir) throws InterruptedException {
+        for (FsyncPolicy policy : List.of(FsyncPolicy.COMMIT, FsyncPolicy.interval(5), FsyncPolicy.OFF)) {
+            Path walDirectory = dir.resolve(policy.mode().name());
+            Database database = open(walDirectory, policy);
+            execute(database, "CREATE_TABLE users (id INT, name STRING)");
+            execute(database, "INSERT INTO users VALUES (1, \"John\"), (2, \"Jane\")");
+            execute(database, "DELETE FROM users WHERE id = 1");
+            assertEquals(3L, database.getStatistics().get("wal.commits"), policy.toString());
+            switch (policy.mode()) {
+                case COMMIT -> assertEquals(3L, database.getStatistics().get("wal.fsyncs"), policy.toString());
+                case INTERVAL -> {
+                    // Commits return at once; the flusher forces the log in the background
+                    long deadline = System.currentTimeMillis() + 5000;
+                    while (database.getStatistics().get("wal.fsyncs") == 0 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(5);
+                    }
+                    assertTrue(database.getStatistics().get("wal.fsyncs") > 0, policy.toString());
+                }
+                case OFF -> assertEquals(0L, database.getStatistics().get("wal.fsyncs"), policy.toString());
+            }
+            database.close();
+
+            database = open(walDirectory, policy);
+            assertEquals("2, Jane", execute(database, "SELECT * FROM users"), policy.toString());
+            database.close();
+        }
+    }
+
+
+    @Test
+    @Order(4)
+    public void testConcurrentWritersShareGroupCommit(@TempDir Path dir) throws Exception {
+        int writers = 8;
+        int rowsPerWriter = 200;
+        Database database = open(dir, FsyncPolicy.COMMIT);
+        execute(database, "CREATE_TABLE events (writer INT, seq INT)");
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            int id = writer;
+            futures.add(pool.submit(() -> {
+                CommandProcessor processor = new CommandProcessor(database);
+                for (int seq = 0; seq < rowsPerWriter; seq++) {
+                    assertEquals("SUCCESS", processor.processCommand("INSERT INTO events VALUES (" + id + ", " + seq + ")"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        long commits = database.getStatistics().get("wal.commits");
+        long fsyncs = database.getStatistics().get("wal.fsyncs");
+        assertEquals(1L + writers * rowsPerWriter, commits);
+        assertTrue(fsyncs < commits, fsyncs + " fsyncs for " + commits + " commits");
+        database.close();
+
+        Database reopened = open(dir, FsyncPolicy.COMMIT);
+        String expected = IntStream.range(0, writers).mapToObj(writer -> writer + ", " + rowsPerWriter).collect(Collectors.joining("\n"));
+        assertEquals(expected, execute(reopened, "SELECT writer, COUNT(*) FROM events GROUP BY writer ORDER BY writer"));
+        assertEquals(String.valueOf(writers), execute(reopened, "SELECT COUNT(*) FROM events WHERE seq = " + (rowsPerWriter - 1)));
+        reopened.close();
+    }
+
+
+    @Test
+    @Order(5)
+    public void testSnapshotRoundTripLoadsTablesOnFirstUse(@TempDir Path dir) {
+        Path snapshot = dir.resolve("db.snapshot");
+        Map<String, String> storage = new LinkedHashMap<>();
+        storage.put("plain", "STORAGE ROW");
+        storage.put("columnar", "STORAGE COLUMNAR");
+        storage.put("offheap", "STORAGE OFF_HEAP");
+        storage.put("partitioned", "STORAGE COLUMNAR PARTITION BY HASH(id) INTO 4");
+        String rows = IntStream.range(0, 100).mapToObj(id -> "(" + id + ", \"n" + id % 10 + "\")").collect(Collectors.joining(", "));
+        Database database = new Database(DatabaseConfig.defaults());
+        Map<String, String> expected = new LinkedHashMap<>();
+        for (Map.Entry<String, String> table : storage.entrySet()) {
+            String name = table.getKey();
+            assertEquals("SUCCESS", execute(database, "CREATE_TABLE " + name + " (id INT, name STRING) " + table.getValue()));
+            assertEquals("SUCCESS", execute(database, "CREATE_INDEX " + name + " (name)"));
+            assertEquals("SUCCESS", execute(database, "CREATE_INDEX " + name + " (id) ORDERED"));
+            assertEquals("INSERTED 100", execute(database, "INSERT INTO " + name + " VALUES " + rows));
+            assertEquals("UPDATED 5", execute(database, "UPDATE " + name + " SET name = \"x\" WHERE id < 5"));
+            assertEquals("DELETED 10", execute(database, "DELETE FROM " + name + " WHERE name = \"n9\""));
+            expected.put(name, execute(database, "SELECT * FROM " + name + " ORDER BY id"));
+        }
+        database.saveSnapshot(snapshot);
+        database.close();
+
+        Database reopened = new Database(DatabaseConfig.defaults().setSnapshotPath(snapshot));
+        assertEquals(storage.keySet(), Set.copyOf(List.of(execute(reopened, "SHOW TABLES").split("\n"))));
+        assertTrue(reopened.getTableStats().isEmpty(), "no table is decoded before it is used");
+        List<String> loaded = new ArrayList<>();
+        for (String name : storage.keySet()) {
+            assertEquals(expected.get(name), execute(reopened, "SELECT * FROM " + name + " ORDER BY id"), name);
+            loaded.add(name);
+            assertEquals(Set.copyOf(loaded), reopened.getTableStats().keySet(), name);
+            // Both indexes are rebuilt from the snapshot
+            assertTrue(execute(reopened, "EXPLAIN SELECT id FROM " + name + " WHERE name = \"n3\"").startsWith("INDEX LOOKUP " + name + " name"), name);
+            assertTrue(execute(reopened, "EXPLAIN SELECT id FROM " + name + " WHERE id BETWEEN 10 AND 14").startsWith("INDEX LOOKUP " + name + " id"), name);
+            assertEquals("13\n23\n33\n43\n53\n63\n73\n83\n93", execute(reopened, "SELECT id FROM " + name + " WHERE name = \"n3\" ORDER BY id"), name);
+            assertEquals("10\n11\n12\n13\n14", execute(reopened, "SELECT id FROM " + name + " WHERE id BETWEEN 10 AND 14 ORDER BY id"), name);
+        }
+        reopened.close();
+    }
+
+
+    @Test
+    @Order(6)
+    public void testSnapshotWithBadHeaderIsRejected(@TempDir Path dir) throws IOException {
+        Path notASnapshot = dir.resolve("garbage.snapshot");
+        Files.write(notASnapshot, "id,name\n1,John\n2,Jane\n".getBytes());
+        UncheckedIOException badMagic = assertThrows(UncheckedIOException.class,
+                () -> new Database(DatabaseConfig.defaults().setSnapshotPath(notASnapshot)));
+        assertEquals("Failed to open the snapshot: Not a snapshot file: " + notASnapshot, badMagic.getMessage());
+
+        Path snapshot = dir.resolve("db.snapshot");
+        Database database = new Database(DatabaseConfig.defaults());
+        execute(database, "CREATE_TABLE users (id INT, name STRING)");
+        execute(database, "INSERT INTO users VALUES (1, \"John\")");
+        database.saveSnapshot(snapshot);
+        database.close();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        // The version follows the 4-byte magic number
+        ByteBuffer.wrap(bytes).putInt(4, 99);
+        Files.write(snapshot, bytes);
+        UncheckedIOException badVersion = assertThrows(UncheckedIOException.class,
+                () -> new Database(DatabaseConfig.defaults().setSnapshotPath(snapshot)));
+        assertEquals("Failed to open the snapshot: Unsupported snapshot version 99: " + snapshot, badVersion.getMessage());
+    }
+
+
+    @Test
+    @Order(7)
+    public void testCheckpointWhileWritersInsert(@TempDir Path dir) throws Exception {
+        int writers = 4;
+        int rowsPerWriter = 500;
+        Path walDirectory = dir.resolve("wal");
+        DatabaseConfig config = DatabaseConfig.defaults().setWalDirectory(walDirectory).setSnapshotPath(dir.resolve("db.snapshot"))
+                .setCheckpointIntervalMillis(0).setWalSegmentBytes(4096);
+        Database database = new Database(config);
+        execute(database, "CREATE_TABLE events (writer INT, seq INT)");
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            int id = writer;
+            futures.add(pool.submit(() -> {
+                CommandProcessor processor = new CommandProcessor(database);
+                for (int seq = 0; seq < rowsPerWriter; seq++) {
+                    assertEquals("SUCCESS", processor.processCommand("INSERT INTO events VALUES (" + id + ", " + seq + ")"));
+                }
+            }));
+        }
+        // Every segment written before a checkpoint starts is covered by it
+        int checkpoints = 0;
+        while (checkpoints < 3 || futures.stream().anyMatch(future -> !future.isDone())) {
+            List<Path> covered = segments(walDirectory);
+            database.checkpoint();
+            checkpoints++;
+            for (Path segment : covered) {
+                assertTrue(Files.notExists(segment), segment + " is covered by checkpoint " + checkpoints);
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        database.close();
+
+        Database reopened = new Database(config);
+        String expected = IntStream.range(0, writers).boxed()
+                .flatMap(writer -> IntStream.range(0, rowsPerWriter).mapToObj(seq -> writer + ", " + seq))
+                .collect(Collectors.joining("\n"));
+        assertEquals(expected, execute(reopened, "SELECT * FROM events ORDER BY writer, seq"));
+        reopened.close();
+    }
+
+
+    @Test
+    @Order(8)
+    public void testSnapshotOfQuotedIntegers(@TempDir Path dir) {
+        DatabaseConfig config = DatabaseConfig.defaults().setWalDirectory(dir.resolve("wal")).setSnapshotPath(dir.resolve("db.snapshot"))
+                .setCheckpointIntervalMillis(0);
+        Database database = new Database(config);
+        execute(database, "CREATE_TABLE users (id INT, name STRING)");
+        // An INT that does not fit is rejected up front, so it can never break a later snapshot
+        assertEquals("INVALID_COMMAND", execute(database, "INSERT INTO users VALUES (\"99999999999\", \"John\")"));
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (\"7\", \"Jane\")"));
+        database.checkpoint();
+        database.saveSnapshot(dir.resolve("copy.snapshot"));
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (\"-8\", \"Joe\")"));
+        database.close();
+
+        Database reopened = new Database(config);
+        assertEquals("7, Jane", execute(reopened, "SELECT * FROM users WHERE id = 7"));
+        assertEquals("-8, Joe\n7, Jane", execute(reopened, "SELECT * FROM users ORDER BY id"));
+        reopened.close();
+        Database copy = new Database(DatabaseConfig.defaults().setSnapshotPath(dir.resolve("copy.snapshot")));
+        assertEquals("7, Jane", execute(copy, "SELECT * FROM users"));
+        copy.close();
+    }
+
+
+    @Test
+    @Order(9)
+    public void testFailedCheckpointsAreCounted(@TempDir Path dir) throws Exception {
+        // A file where the snapshot's directory should be makes every checkpoint fail
+        Path blocker = Files.createFile(dir.resolve("snapshots"));
+        Path walDirectory = dir.resolve("wal");
+        DatabaseConfig config = DatabaseConfig.defaults().setWalDirectory(walDirectory).setSnapshotPath(blocker.resolve("db.snapshot"))
+                .setCheckpointIntervalMillis(10).setWalSegmentBytes(256);
+        Database database = new Database(config);
+        execute(database, "CREATE_TABLE users (id INT, name STRING)");
+        for (int id = 0; id < 20; id++) {
+            assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (" + id + ", \"user" + id + "\")"));
+        }
+        Path first = segments(walDirectory).get(0);
+        awaitStatistic(database, "checkpoint.failures", 2);
+        assertEquals(0L, database.getStatistics().get("checkpoint.completed"));
+        assertTrue(Files.exists(first), "the log is kept while checkpoints fail");
+        assertThrows(UncheckedIOException.class, database::checkpoint);
+
+        Files.delete(blocker);
+        awaitStatistic(database, "checkpoint.completed", 1);
+        assertTrue(Files.notExists(first), "the log is truncated once a checkpoint succeeds");
+        database.close();
+
+        Database reopened = new Database(config);
+        assertEquals("20", execute(reopened, "SELECT COUNT(*) FROM users"));
+        reopened.close();
+    }
+
+
+    @Test
+    @Order(10)
+    public void testFailedLogWriteStopsLaterWrites(@TempDir Path dir) {
+        Database database = open(dir, FsyncPolicy.COMMIT);
+        execute(database, "CREATE_TABLE users (id INT, name STRING)");
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (1, \"John\")"));
+        // An interrupted thread makes the log's file channel fail, and close, on the next write
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals("INVALID_COMMAND", execute(database, "INSERT INTO users VALUES (2, \"Jane\")"));
+        } finally {
+            Thread.interrupted();
+        }
+        // Nothing may be logged after the failed batch, in this table or any other
+        assertEquals("INVALID_COMMAND", execute(database, "INSERT INTO users VALUES (3, \"Joe\")"));
+        assertEquals("INVALID_COMMAND", execute(database, "CREATE_TABLE other (id INT)"));
+        database.close();
+
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John", execute(database, "SELECT * FROM users"));
+        assertEquals("SUCCESS", execute(database, "INSERT INTO users VALUES (4, \"Jim\")"));
+        database.close();
+
+        database = open(dir, FsyncPolicy.COMMIT);
+        assertEquals("1, John\n4, Jim", execute(database, "SELECT * FROM users"));
+        database.close();
+    }
+
+
+    private static void awaitStatistic(Database database, String name, long atLeast) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (database.getStatistics().get(name) < atLeast && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(database.getStatistics().get(name) >= atLeast, name);
+    }
+}
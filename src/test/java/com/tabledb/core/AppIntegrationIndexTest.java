@@ -0,0 +1,80 @@
+package com.tabledb.core;
+
+import org.junit.jupiter.api.*;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AppIntegrationIndexTest {
+
+
+    private void assertAppOutput(String input, String expectedOutput) {
+        ByteArrayInputStream in = new ByteArrayInputStream(input.getBytes());
+        System.setIn(in);
+
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+
+
+        App.main(new String[]{});
+
+
+        String actualOutput = out.toString().replaceAll("\\r\\n", "\n").trim();
+        String formattedExpectedOutput = expectedOutput.replaceAll("\\r\\n", "\n").trim();
+
+
+        assertEquals(formattedExpectedOutput, actualOutput);
+    }
+
+
+    @Test
+    @Order(1)
+    public void testCreateIndex() {
+        String input = "CREATE_TABLE users (id INT, name STRING)\nCREATE_INDEX users (id)\nCREATE_INDEX users (id)\nCREATE_INDEX users (age)\nCREATE_INDEX non_existing (id)\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nINDEX_EXISTS\nINVALID_COMMAND\nTABLE_NOT_FOUND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(2)
+    public void testIndexedLookupsFollowWrites() {
+        String input = "CREATE_TABLE users (id INT, name STRING)\nINSERT INTO users VALUES (1, \"John\")\nCREATE_INDEX users (id)\nINSERT INTO users VALUES (2, \"Jane\")\nSELECT * FROM users WHERE id = 2\nUPDATE users SET id = 3 WHERE id = 2\nSELECT * FROM users WHERE id = 2\nSELECT * FROM users WHERE id = 1 OR id = 3\nDELETE FROM users WHERE id = 1\nSELECT * FROM users WHERE id = 1\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nSUCCESS\n2, Jane\nUPDATED 1\nNO_ROWS_FOUND\n1, John\n3, Jane\nDELETED 1\nNO_ROWS_FOUND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(3)
+    public void testIndexedAndCondition() {
+        String input = "CREATE_TABLE users (id INT, name STRING) STORAGE COLUMNAR\nCREATE_INDEX users (name)\nINSERT INTO users VALUES (1, \"John\")\nINSERT INTO users VALUES (2, \"John\")\nSELECT * FROM users WHERE name = \"John\" AND id = 2\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nSUCCESS\n2, John\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(4)
+    public void testRangeConditions() {
+        String input = "CREATE_TABLE events (ts INT, kind STRING)\nCREATE_INDEX events (ts) ORDERED\nINSERT INTO events VALUES (30, \"b\")\nINSERT INTO events VALUES (10, \"a\")\nINSERT INTO events VALUES (20, \"c\")\nSELECT * FROM events WHERE ts > 10\nSELECT * FROM events WHERE ts BETWEEN 10 AND 20\nSELECT * FROM events WHERE ts <= 20 AND kind = \"c\"\nDELETE FROM events WHERE ts < 25\nSELECT * FROM events WHERE ts >= 0\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nSUCCESS\nSUCCESS\n30, b\n20, c\n10, a\n20, c\n20, c\nDELETED 2\n30, b\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+}
@@ -0,0 +1,220 @@
+package com.tabledb.core;
+
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.command.PlanCache;
+import com.tabledb.command.ResultCache;
+import org.junit.jupiter.api.*;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AppIntegrationQueryTest {
+
+
+    private void assertAppOutput(String input, String expectedOutput) {
+        ByteArrayInputStream in = new ByteArrayInputStream(input.getBytes());
+        System.setIn(in);
+
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+
+
+        App.main(new String[]{});
+
+
+        String actualOutput = out.toString().replaceAll("\\r\\n", "\n").trim();
+        String formattedExpectedOutput = expectedOutput.replaceAll("\\r\\n", "\n").trim();
+
+
+        assertEquals(formattedExpectedOutput, actualOutput);
+    }
+
+
+    @Test
+    @Order(1)
+    public void testSelectProjection() {
+        String input = "CREATE_TABLE users (id INT, name STRING, dept STRING)\nINSERT INTO users VALUES (1, \"John\", \"HR\")\nINSERT INTO users VALUES (2, \"Jane\", \"IT\")\nSELECT name FROM users WHERE id = 2\nSELECT dept, id FROM users\nSELECT salary FROM users\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nJane\nHR, 1\nIT, 2\nINVALID_COMMAND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(2)
+    public void testPreparedStatements() {
+        String input = "CREATE_TABLE users (id INT, name STRING)\nPREPARE add AS INSERT INTO users VALUES (?, ?)\nEXECUTE add (1, \"John\")\nEXECUTE add (2, \"Jane\")\nPREPARE byId AS SELECT name FROM users WHERE id = ?\nEXECUTE byId (2)\nEXECUTE byId (1, 2)\nEXECUTE missing (1)\nSELECT * FROM users WHERE id = ?\nSELECT  *  FROM users   WHERE id = 1\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nSUCCESS\nSUCCESS\nJane\nINVALID_COMMAND\nSTATEMENT_NOT_FOUND\nINVALID_COMMAND\n1, John\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(3)
+    public void testAggregates() {
+        String input = "CREATE_TABLE emp (id INT, dept STRING, age INT) STORAGE COLUMNAR\nSELECT COUNT(*), SUM(age) FROM emp\nINSERT INTO emp VALUES (1, \"HR\", 30), (2, \"IT\", 25), (3, \"HR\", 41), (4, \"IT\", 35)\nSELECT COUNT(*), SUM(age), MIN(age), MAX(dept), AVG(age) FROM emp\nSELECT dept, COUNT(*), MAX(age) FROM emp WHERE age > 26 GROUP BY dept\nselect avg(age), dept from emp group by dept\nSELECT dept, id FROM emp GROUP BY dept\nSELECT SUM(dept) FROM emp\nEXIT";
+        String expectedOutput = "SUCCESS\n0, null\nINSERTED 4\n4, 131, 25, IT, 32.75\nHR, 2, 41\nIT, 1, 35\n35.5, HR\n30.0, IT\nINVALID_COMMAND\nINVALID_COMMAND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(4)
+    public void testOrderByAndLimit() {
+        String input = "CREATE_TABLE emp (id INT, dept STRING, age INT)\nINSERT INTO emp VALUES (3, \"HR\", 30), (1, \"IT\", 25), (5, \"HR\", 41), (2, \"IT\", 35), (4, \"OPS\", 30)\nSELECT id FROM emp ORDER BY id DESC LIMIT 2\nSELECT id, age FROM emp ORDER BY age, dept DESC LIMIT 3 OFFSET 1\nCREATE_INDEX emp (age) ORDERED\nSELECT id FROM emp WHERE dept = \"HR\" ORDER BY age DESC\nSELECT dept, COUNT(*) FROM emp GROUP BY dept ORDER BY COUNT(*) DESC, dept LIMIT 2\nSELECT id FROM emp ORDER BY salary\nEXIT";
+        String expectedOutput = "SUCCESS\nINSERTED 5\n5\n4\n4, 30\n3, 30\n2, 35\nSUCCESS\n5\n3\nHR, 2\nIT, 2\nINVALID_COMMAND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(5)
+    public void testHashJoin() {
+        String input = "CREATE_TABLE users (id INT, name STRING, dept INT)\nCREATE_TABLE depts (deptId INT, title STRING)\nINSERT INTO users VALUES (1, \"John\", 10), (2, \"Jane\", 20), (3, \"Joe\", 10), (4, \"Ann\", 30)\nINSERT INTO depts VALUES (10, \"HR\"), (20, \"IT\")\nSELECT * FROM users JOIN depts ON users.dept = depts.deptId\nSELECT name, title FROM users JOIN depts ON deptId = dept WHERE title = \"HR\" AND users.id > 1\nSELECT name FROM users JOIN depts ON dept = deptId WHERE id = 1 OR title = \"IT\"\nSELECT name FROM users JOIN teams ON dept = teamId\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nINSERTED 4\nINSERTED 2\n1, John, 10, 10, HR\n2, Jane, 20, 20, IT\n3, Joe, 10, 10, HR\nJoe, HR\nINVALID_COMMAND\nTABLE_NOT_FOUND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(6)
+    public void testResultCache() {
+        Database database = new Database(DatabaseConfig.defaults());
+        ResultCache cache = new ResultCache(16, 1 << 20);
+        CommandProcessor processor = new CommandProcessor(database, new PlanCache(16), cache);
+        processor.processCommand("CREATE_TABLE users (id INT, name STRING)");
+        processor.processCommand("INSERT INTO users VALUES (1, \"John\"), (2, \"Jane\")");
+
+        assertEquals("2, Jane", processor.processCommand("SELECT * FROM users WHERE id = 2"));
+        assertEquals("2, Jane", processor.processCommand("SELECT  *  FROM users WHERE id = 2"));
+        assertEquals(1, cache.getHits());
+        processor.processCommand("UPDATE users SET name = \"Joan\" WHERE id = 2");
+        assertEquals("2, Joan", processor.processCommand("SELECT * FROM users WHERE id = 2"));
+        processor.processCommand("PREPARE byId AS SELECT * FROM users WHERE id = ?");
+        assertEquals("2, Joan", processor.processCommand("EXECUTE byId (2)"));
+        assertEquals(2, cache.getHits());
+        processor.processCommand("DROP_TABLE users");
+        processor.processCommand("CREATE_TABLE users (id INT, name STRING)");
+        assertEquals("NO_ROWS_FOUND", processor.processCommand("SELECT * FROM users WHERE id = 2"));
+        assertEquals(2, cache.getHits());
+        database.close();
+    }
+
+    @Test
+    @Order(7)
+    public void testShowStats() {
+        Database database = new Database(DatabaseConfig.defaults());
+        CommandProcessor processor = new CommandProcessor(database);
+        processor.processCommand("CREATE_TABLE users (id INT, name STRING)");
+        processor.processCommand("INSERT INTO users VALUES (1, \"John\"), (2, \"Jane\"), (3, \"Joan\")");
+        processor.processCommand("SELECT name FROM users WHERE id = 2");
+        processor.processCommand("SELECT * FROM users LIMIT 1");
+        processor.processCommand("SELECT COUNT(*) FROM users");
+        processor.processCommand("SELECT * FROM");
+        processor.processCommand("INSERT INTO users VALUES (\"four\", 4)");
+
+        Map<String, Long> stats = new HashMap<>();
+        for (String line : processor.processCommand("SHOW STATS").split("\n")) {
+            String[] parts = line.split(", ");
+            stats.put(parts[0], Long.parseLong(parts[1]));
+        }
+        assertEquals(2, (long) stats.get("command.SELECT.count"));
+        assertEquals(1, (long) stats.get("command.AGGREGATE.count"));
+        assertEquals(2, (long) stats.get("command.INSERT.count"));
+        assertEquals(1, (long) stats.get("command.INSERT.errors"));
+        assertEquals(1, (long) stats.get("command.PARSE.errors"));
+        assertEquals(3, (long) stats.get("table.users.scans"));
+        assertEquals(7, (long) stats.get("table.users.rows_scanned"));
+        assertEquals(3, (long) stats.get("table.users.rows_returned"));
+        assertEquals(1, (long) stats.get("table.users.lock_wait.count"));
+        assertEquals(database.getStatistics().get("table.users.rows_scanned"), stats.get("table.users.rows_scanned"));
+        database.close();
+    }
+
+    @Test
+    @Order(8)
+    public void testExplain() {
+        Database database = new Database(DatabaseConfig.defaults());
+        CommandProcessor processor = new CommandProcessor(database);
+        processor.processCommand("CREATE_TABLE users (id INT, name STRING, age INT)");
+        StringBuilder insert = new StringBuilder("INSERT INTO users VALUES ");
+        for (int id = 1; id <= 100; id++) {
+            if (id > 1) insert.append(", ");
+            insert.append("(").append(id).append(", \"n").append(id % 10).append("\", ").append(20 + id % 5).append(")");
+        }
+        processor.processCommand(insert.toString());
+
+        // The rarer name is tested before the age
+        assertEquals("SCAN users rows=100\n" +
+                "FILTER name = \"n3\" AND age = 23 estimated=2\n" +
+                "ROWS estimated=2 actual=10",
+                processor.processCommand("EXPLAIN SELECT * FROM users WHERE age = 23 AND name = \"n3\""));
+        processor.processCommand("CREATE_INDEX users (id)");
+        assertEquals("INDEX LOOKUP users id = 7 estimated=1\n" +
+                "FILTER id = 7 AND age = 22 estimated=0\n" +
+                "ROWS estimated=0 actual=1",
+                processor.processCommand("EXPLAIN SELECT name FROM users WHERE age = 22 AND id = 7"));
+        // A range over most of the table is cheaper to scan than to look up
+        assertTrue(processor.processCommand("EXPLAIN SELECT * FROM users WHERE id > 10").startsWith("SCAN users"));
+        assertEquals("SCAN users rows=100\n" +
+                "AGGREGATE BY age estimated=5\n" +
+                "SORT BY age ASC\n" +
+                "LIMIT 3 OFFSET 0\n" +
+                "ROWS estimated=3 actual=3",
+                processor.processCommand("EXPLAIN SELECT age, COUNT(*) FROM users GROUP BY age ORDER BY age LIMIT 3"));
+        assertEquals("TABLE_NOT_FOUND", processor.processCommand("EXPLAIN SELECT * FROM orders"));
+        assertEquals("INVALID_COMMAND", processor.processCommand("EXPLAIN DELETE FROM users"));
+        database.close();
+    }
+
+    @Test
+    @Order(9)
+    public void testParallelScansMatchSequential() {
+        Database sequential = new Database(DatabaseConfig.defaults().setScanParallelism(1));
+        Database parallel = new Database(DatabaseConfig.defaults().setScanParallelism(4).setParallelScanThreshold(0));
+        CommandProcessor expected = new CommandProcessor(sequential);
+        CommandProcessor actual = new CommandProcessor(parallel);
+        // Enough rows for the scans to be split over several tasks
+        StringBuilder insert = new StringBuilder("INSERT INTO events VALUES ");
+        for (int id = 0; id < 40000; id++) {
+            if (id > 0) insert.append(", ");
+            insert.append("(").append(id).append(", \"k").append(id % 7).append("\", ").append(id % 100).append(")");
+        }
+        String[] commands = {
+                "CREATE_TABLE events (id INT, kind STRING, score INT)",
+                insert.toString(),
+                "SELECT id FROM events WHERE score = 42 AND kind = \"k3\"",
+                "SELECT kind, COUNT(*), SUM(score) FROM events WHERE id > 1000 GROUP BY kind",
+                "SELECT * FROM events WHERE score BETWEEN 10 AND 12 ORDER BY score DESC, id LIMIT 20",
+                "UPDATE events SET score = 500 WHERE kind = \"k1\" AND score < 50",
+                "DELETE FROM events WHERE score = 99",
+                "SELECT COUNT(*), MAX(score) FROM events WHERE kind = \"k1\"",
+                "SELECT id, score FROM events WHERE score = 500 AND id < 200",
+        };
+        for (String command : commands) {
+            assertEquals(expected.processCommand(command), actual.processCommand(command), command);
+        }
+        sequential.close();
+        parallel.close();
+    }
+}
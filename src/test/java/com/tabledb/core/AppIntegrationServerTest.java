@@ -0,0 +1,121 @@
+package com.tabledb.core;
+
+import com.tabledb.server.Client;
+import com.tabledb.server.Server;
+import org.junit.jupiter.api.*;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AppIntegrationServerTest {
+
+
+    private Database database;
+    private Server server;
+
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        database = new Database(DatabaseConfig.defaults());
+        server = Server.start(database, 0);
+    }
+
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+        database.close();
+    }
+
+
+    @Test
+    @Order(1)
+    public void testPipelinedSessions() throws Exception {
+        try (Client first = Client.connect("localhost", server.getPort());
+             Client second = Client.connect("localhost", server.getPort())) {
+            List<String> results = first.executeAll(List.of(
+                    "CREATE_TABLE users (id INT, name STRING)",
+                    "INSERT INTO users VALUES (1, \"John\"), (2, \"Jane\")",
+                    "PREPARE byId AS SELECT name FROM users WHERE id = ?",
+                    "EXECUTE byId (2)",
+                    "SELECT * FROM users",
+                    "not a command"));
+            assertEquals(List.of("SUCCESS", "INSERTED 2", "SUCCESS", "Jane", "1, John\n2, Jane", "INVALID_COMMAND"), results);
+
+            // Tables are shared between sessions, prepared statements are not
+            assertEquals("John", second.execute("SELECT name FROM users WHERE id = 1"));
+            assertEquals("STATEMENT_NOT_FOUND", second.execute("EXECUTE byId (1)"));
+            assertEquals("Goodbye!", first.execute("EXIT"));
+        }
+    }
+
+
+    @Test
+    @Order(2)
+    public void testConcurrentClientsLoopback() throws Exception {
+        int clients = 32;
+        int rowsPerClient = 1000;
+        try (Client admin = Client.connect("localhost", server.getPort())) {
+            assertEquals("SUCCESS", admin.execute("CREATE_TABLE events (id INT, client INT)"));
+            assertEquals("SUCCESS", admin.execute("CREATE_INDEX events (id)"));
+        }
+
+        ExecutorService threads = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> sessions = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            sessions.add(threads.submit(() -> {
+                try (Client session = Client.connect("localhost", server.getPort())) {
+                    List<String> inserts = new ArrayList<>();
+                    List<String> selects = new ArrayList<>();
+                    for (int i = 0; i < rowsPerClient; i++) {
+                        int id = client * rowsPerClient + i;
+                        inserts.add("INSERT INTO events VALUES (" + id + ", " + client + ")");
+                        selects.add("SELECT client FROM events WHERE id = " + id);
+                    }
+                    for (String result : session.executeAll(inserts)) {
+                        assertEquals("SUCCESS", result);
+                    }
+                    for (String result : session.executeAll(selects)) {
+                        assertEquals(String.valueOf(client), result);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> session : sessions) {
+            session.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        threads.shutdown();
+
+        try (Client admin = Client.connect("localhost", server.getPort())) {
+            String all = admin.execute("SELECT id FROM events");
+            assertEquals(clients * rowsPerClient, all.split("\n").length);
+        }
+        System.err.printf("Loopback load test: %d clients, %.0f commands/s%n",
+                clients, 2.0 * clients * rowsPerClient / seconds);
+    }
+
+    @Test
+    @Order(3)
+    public void testLoopbackOnlyAndNoRemotePurge() throws Exception {
+        assertTrue(server.getAddress().isLoopbackAddress());
+        try (Client client = Client.connect("localhost", server.getPort())) {
+            client.execute("CREATE_TABLE users (id INT, name STRING)");
+            assertEquals("PERMISSION_DENIED", client.execute("PURGE_AND_STOP"));
+            assertEquals("users", client.execute("SHOW TABLES"));
+        }
+    }
+}
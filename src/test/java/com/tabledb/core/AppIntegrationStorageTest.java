@@ -0,0 +1,229 @@
+package com.tabledb.core;
+
+import com.tabledb.command.CommandProcessor;
+import com.tabledb.condition.RangeCondition;
+import com.tabledb.condition.SimpleCondition;
+import com.tabledb.index.IndexType;
+import com.tabledb.model.Column;
+import com.tabledb.model.DataType;
+import com.tabledb.model.Row;
+import com.tabledb.model.RowCursor;
+import com.tabledb.model.Table;
+import org.junit.jupiter.api.*;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class AppIntegrationStorageTest {
+
+
+    private void assertAppOutput(String input, String expectedOutput) {
+        ByteArrayInputStream in = new ByteArrayInputStream(input.getBytes());
+        System.setIn(in);
+
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+
+
+        App.main(new String[]{});
+
+
+        String actualOutput = out.toString().replaceAll("\\r\\n", "\n").trim();
+        String formattedExpectedOutput = expectedOutput.replaceAll("\\r\\n", "\n").trim();
+
+
+        assertEquals(formattedExpectedOutput, actualOutput);
+    }
+
+
+    @Test
+    @Order(1)
+    public void testColumnarCreateAndInsert() {
+        String input = "CREATE_TABLE users (id INT, name STRING) STORAGE COLUMNAR\nINSERT INTO users VALUES (1, \"John\")\nINSERT INTO users VALUES (\"invalid\", \"John\")\nSELECT * FROM users WHERE name = \"John\"\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nINVALID_COMMAND\n1, John\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(2)
+    public void testColumnarUpdateAndDelete() {
+        String input = "CREATE_TABLE users (id INT, name STRING) STORAGE COLUMNAR\nINSERT INTO users VALUES (1, \"John\")\nINSERT INTO users VALUES (2, \"Jane\")\nUPDATE users SET name = \"Doe\" WHERE id = 1\nDELETE FROM users WHERE id = 2\nSELECT * FROM users WHERE id = 1\nSELECT * FROM users WHERE name = \"Jane\"\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nUPDATED 1\nDELETED 1\n1, Doe\nNO_ROWS_FOUND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(3)
+    public void testOffHeapStringsAndDropTable() {
+        String input = "CREATE_TABLE notes (id INT, body STRING) STORAGE OFF_HEAP\nINSERT INTO notes VALUES (1, \"cafe\")\nINSERT INTO notes VALUES (2, \"tea\")\nUPDATE notes SET body = \"coffee\" WHERE body = \"tea\"\nSELECT * FROM notes WHERE body = \"cafe\"\nSELECT id FROM notes WHERE body = \"coffee\"\nDROP_TABLE notes\nSELECT * FROM notes\nDROP_TABLE notes\nEXIT";
+        String expectedOutput = "SUCCESS\nSUCCESS\nSUCCESS\nUPDATED 1\n1, cafe\n2\nSUCCESS\nTABLE_NOT_FOUND\nTABLE_NOT_FOUND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+
+    @Test
+    @Order(4)
+    public void testPartitionedTable() {
+        String input = "CREATE_TABLE orders (id INT, item STRING) PARTITION BY HASH(id) INTO 4\nINSERT INTO orders VALUES (1, \"pen\"), (2, \"ink\"), (3, \"pad\"), (4, \"pen\")\nSELECT item FROM orders WHERE id = 3\nUPDATE orders SET id = 5 WHERE id = 1\nSELECT * FROM orders WHERE id = 5\nDELETE FROM orders WHERE item = \"ink\"\nSELECT * FROM orders ORDER BY id\nSELECT COUNT(*) FROM orders\nCREATE_TABLE bad (id INT) PARTITION BY HASH(name) INTO 4\nEXIT";
+        String expectedOutput = "SUCCESS\nINSERTED 4\npad\nUPDATED 1\n5, pen\nDELETED 1\n3, pad\n4, pen\n5, pen\n3\nINVALID_COMMAND\nGoodbye!";
+
+
+        assertAppOutput(input, expectedOutput);
+    }
+
+    @Test
+    @Order(5)
+    public void testZoneMapsSkipBlocks() {
+        Database database = new Database(DatabaseConfig.defaults());
+        CommandProcessor processor = new CommandProcessor(database);
+        processor.processCommand("CREATE_TABLE events (id INT, name STRING)");
+        // Three blocks: ids 0-1023, 1024-2047 and 2048-2999
+        StringBuilder insert = new StringBuilder("INSERT INTO events VALUES ");
+        for (int id = 0; id < 3000; id++) {
+            if (id > 0) insert.append(", ");
+            insert.append("(").append(id).append(", \"n").append(id).append("\")");
+        }
+        processor.processCommand(insert.toString());
+
+        assertEquals("101", processor.processCommand("SELECT COUNT(*) FROM events WHERE id BETWEEN 2100 AND 2200"));
+        assertEquals(2, blocksSkipped(database));
+        // Leaves the first block without live rows and moves a row of the second one to the end
+        assertEquals("DELETED 1024", processor.processCommand("DELETE FROM events WHERE id < 1024"));
+        assertEquals("UPDATED 1", processor.processCommand("UPDATE events SET name = \"moved\" WHERE id = 1500"));
+        assertEquals("1", processor.processCommand("SELECT COUNT(*) FROM events WHERE name = \"moved\""));
+        assertEquals(4, blocksSkipped(database));
+        assertEquals("1500, moved", processor.processCommand("SELECT * FROM events WHERE id = 1500"));
+        assertEquals(5, blocksSkipped(database));
+        database.close();
+    }
+
+    private static long blocksSkipped(Database database) {
+        return database.getStatistics().get("table.events.blocks_skipped");
+    }
+
+
+    @Test
+    @Order(6)
+    public void testCursorKeepsItsSnapshot() {
+        Table table = new Table("users", List.of(new Column("id", DataType.INT), new Column("name", DataType.STRING)));
+        table.insertRow(List.of(1, "John"));
+        table.insertRow(List.of(2, "Jane"));
+        table.insertRow(List.of(3, "Joe"));
+        try (RowCursor before = table.cursor(List.of(), null)) {
+            // Consumed partway, so the rest is read after the writes
+            assertEquals("1, John", before.next().toString());
+            assertEquals(1, table.update(Map.of("name", "Jack"), new SimpleCondition("id", 2)));
+            assertEquals(1, table.delete(new SimpleCondition("id", 3)));
+            assertEquals(1, table.update(Map.of("name", "Jim"), new SimpleCondition("id", 1)));
+            assertEquals("[2, Jane, 3, Joe]", rows(before).toString());
+        }
+        assertEquals("[2, Jack, 1, Jim]", table.select(List.of(), null).toString());
+    }
+
+
+    @Test
+    @Order(7)
+    public void testVacuumKeepsRowsIndexesAndStatistics() throws InterruptedException {
+        List<Column> columns = List.of(new Column("id", DataType.INT), new Column("name", DataType.STRING));
+        Table table = new Table("users", columns);
+        table.createIndex("name");
+        table.createIndex("id", IndexType.ORDERED);
+        List<List<Object>> original = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            original.add(List.of(id, "n" + id % 10));
+        }
+        table.insertRows(original);
+        RowCursor pinned = table.cursor(List.of(), null);
+        // Each round leaves 1000 dead versions; after the third they outnumber the live ones
+        for (int round = 1; round <= 3; round++) {
+            assertEquals(1000, table.update(Map.of("name", "r" + round), RangeCondition.between("id", 0, 999)));
+        }
+        List<Row> rows = table.select(List.of(), null);
+        List<Row> byName = table.select(List.of("id"), new SimpleCondition("name", "r3"));
+        List<Row> byRange = table.select(List.of("id", "name"), RangeCondition.between("id", 990, 1010));
+
+        // The vacuum runs in the background; once done, a scan reads only the live versions
+        long deadline = System.currentTimeMillis() + 5000;
+        while (versionsScanned(table) > 2000 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2000, versionsScanned(table));
+
+        assertEquals(rows.toString(), table.select(List.of(), null).toString());
+        assertEquals(byName.toString(), table.select(List.of("id"), new SimpleCondition("name", "r3")).toString());
+        assertEquals(byRange.toString(), table.select(List.of("id", "name"), RangeCondition.between("id", 990, 1010)).toString());
+        assertEquals(1000, byName.size());
+        assertEquals(21, byRange.size());
+        assertEquals(2000, table.getStatistics().getRowCount());
+
+        // Statistics are rebuilt from the live rows alone, as if they had been inserted afresh
+        Table fresh = new Table("users", columns);
+        List<List<Object>> live = new ArrayList<>();
+        for (Row row : rows) {
+            live.add(List.of(row.getValue("id"), row.getValue("name")));
+        }
+        fresh.insertRows(live);
+        for (Column column : columns) {
+            assertEquals(fresh.getStatistics().column(column.name()), table.getStatistics().column(column.name()), column.name());
+        }
+
+        // A cursor opened before the updates still reads the generation it started on
+        List<Row> old = rows(pinned);
+        pinned.close();
+        assertEquals(2000, old.size());
+        assertTrue(old.stream().allMatch(row -> row.getValue("name").equals("n" + (Integer) row.getValue("id") % 10)));
+    }
+
+
+    @Test
+    @Order(8)
+    public void testQuotedIntegersMatchInEveryStorageMode() {
+        for (String storage : List.of("ROW", "COLUMNAR", "OFF_HEAP", "ROW PARTITION BY HASH(id) INTO 4")) {
+            Database database = new Database(DatabaseConfig.defaults());
+            CommandProcessor processor = new CommandProcessor(database);
+            assertEquals("SUCCESS", processor.processCommand("CREATE_TABLE users (id INT, name STRING) STORAGE " + storage));
+            assertEquals("INSERTED 2", processor.processCommand("INSERT INTO users VALUES (\"7\", \"John\"), (8, \"Jane\")"));
+            assertEquals("UPDATED 1", processor.processCommand("UPDATE users SET id = \"-9\" WHERE id = 8"));
+            assertEquals("7, John", processor.processCommand("SELECT * FROM users WHERE id = 7"), storage);
+            assertEquals("-9, Jane", processor.processCommand("SELECT * FROM users WHERE id < 0"), storage);
+            assertEquals("-9, Jane\n7, John", processor.processCommand("SELECT * FROM users ORDER BY id"), storage);
+            assertEquals("-2", processor.processCommand("SELECT SUM(id) FROM users"), storage);
+            database.close();
+        }
+    }
+
+
+    private static List<Row> rows(RowCursor cursor) {
+        List<Row> rows = new ArrayList<>();
+        cursor.forEachRemaining(rows::add);
+        return rows;
+    }
+
+
+    // Versions a full scan reads, including dead ones in blocks it cannot skip
+    private static long versionsScanned(Table table) {
+        long before = table.getStats().getRowsScanned();
+        table.select(List.of("id"), null);
+        return table.getStats().getRowsScanned() - before;
+    }
+}